@@ -0,0 +1,8 @@
+#!/bin/bash
+# Runs once, when the primary initializes an empty data directory: allows the replica to stream WAL.
+set -e
+
+psql -v ON_ERROR_STOP=1 --username "$POSTGRES_USER" --dbname "$POSTGRES_DB" <<-SQL
+	create role replicator with replication login password 'replicator_password';
+SQL
+echo "host replication replicator all md5" >> "$PGDATA/pg_hba.conf"
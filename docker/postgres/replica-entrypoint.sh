@@ -0,0 +1,16 @@
+#!/bin/bash
+# Clones the primary into an empty data directory and starts it as a hot standby streaming from the primary.
+set -e
+
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+  mkdir -p "$PGDATA"
+  chown postgres "$PGDATA"
+  chmod 700 "$PGDATA"
+  until gosu postgres pg_basebackup --host=postgres --username=replicator --pgdata="$PGDATA" \
+      --wal-method=stream --write-recovery-conf; do
+    echo "Waiting for the primary..."
+    sleep 2
+  done
+fi
+
+exec gosu postgres postgres -c hot_standby=on
@@ -0,0 +1,93 @@
+package ru.sber.app.benchmark;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.sber.app.AppApplication;
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductQuery;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Runs the application against an embedded PostgreSQL instance, so the benchmarks need neither Docker
+ * nor a local database.
+ */
+public final class BenchmarkApplication implements AutoCloseable {
+    public static final int SEED_ROWS = 10_000;
+
+    private final EmbeddedPostgres postgres;
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkApplication(EmbeddedPostgres postgres, ConfigurableApplicationContext context) {
+        this.postgres = postgres;
+        this.context = context;
+    }
+
+    public static BenchmarkApplication start(WebApplicationType webApplicationType, String... properties)
+            throws IOException {
+        EmbeddedPostgres postgres = EmbeddedPostgres.start();
+        String[] defaults = {
+                "spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true",
+                "spring.datasource.username=postgres",
+                "spring.datasource.password=postgres",
+                "server.port=0",
+                "app.grpc.port=0",
+                "logging.level.root=WARN",
+                // a single load generator would only measure its own rate limit
+                "app.admission.enabled=false"
+        };
+        // passed as command line arguments, so they take precedence over application.yml
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(AppApplication.class)
+                .web(webApplicationType)
+                .run(Stream.concat(Stream.of(defaults), Stream.of(properties)).map(p -> "--" + p).toArray(String[]::new));
+        context.getBean(JdbcTemplate.class).update("""
+                insert into products (title, description, price)
+                select 'product ' || i, 'description of product ' || i, (i % 5000) + 0.5
+                from generate_series(1, ?) as i""", SEED_ROWS);
+        return new BenchmarkApplication(postgres, context);
+    }
+
+    public ConfigurableApplicationContext context() {
+        return context;
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * IDs of the seeded rows, so lookups always hit existing products.
+     */
+    public List<Integer> productIds() {
+        return context.getBean(JdbcTemplate.class).queryForList("select id from products order by id", Integer.class);
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        postgres.close();
+    }
+
+    public static List<Product> products(int size) {
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            products.add(Product.builder().id(i).title("product " + i)
+                    .description("description of product " + i).price(i % 5000 + 0.5F).version(0).build());
+        }
+        return products;
+    }
+
+    public static List<ProductQuery> productQueries(int size) {
+        List<ProductQuery> queries = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            queries.add(new ProductQuery(i, "product " + i, "description of product " + i, i % 5000 + 0.5F, 0));
+        }
+        return queries;
+    }
+}
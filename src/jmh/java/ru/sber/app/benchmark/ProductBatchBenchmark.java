@@ -0,0 +1,57 @@
+package ru.sber.app.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import ru.sber.app.application.product.ProductBatchService;
+import ru.sber.app.application.product.ProductService;
+import ru.sber.app.presentation.web.controller.product.dto.commands.ProductCommand;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductBatchResultQuery;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time per created product: one {@link ProductService#create} call per item against the chunked, JDBC-batched
+ * {@link ProductBatchService#createAll}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductBatchBenchmark {
+    private static final int ITEMS = 1000;
+
+    private final List<ProductCommand> commands = Collections.nCopies(ITEMS, ProductCommand.builder()
+            .title("benchmark sofa").description("benchmark description").price(10.5F).build());
+    private BenchmarkApplication application;
+    private ProductService productService;
+    private ProductBatchService productBatchService;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        application = BenchmarkApplication.start(WebApplicationType.NONE);
+        productService = application.getBean(ProductService.class);
+        productBatchService = application.getBean(ProductBatchService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        application.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public void singleCreate() {
+        commands.forEach(productService::create);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public List<ProductBatchResultQuery> batchCreate() {
+        return productBatchService.createAll(commands.iterator());
+    }
+}
@@ -0,0 +1,130 @@
+package ru.sber.app.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The largest product responses, the page of {@code limit=1000} products and the NDJSON {@code /export} of the
+ * seeded catalog, with and without gzip, with all fields and without descriptions ({@code fields=compact}), over
+ * HTTP/1.1 and h2c. Next to the throughput, per second: {@code wireBytes}, the response bodies as sent, and
+ * {@code serverCpuNanos}, the CPU time of the Tomcat and async request threads; divided by {@code ops} they are
+ * the bytes and the server CPU of one request. The client decompresses and parses every response.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ProductCompressionBenchmark {
+    private static final String COMPACT_FIELDS = "id,title,price,version";
+
+    @Param({"page", "export"})
+    public String endpoint;
+
+    @Param({"identity", "gzip"})
+    public String encoding;
+
+    @Param({"all", "compact"})
+    public String fields;
+
+    @Param({"HTTP_1_1", "HTTP_2"})
+    public HttpClient.Version protocol;
+
+    private BenchmarkApplication application;
+    private ObjectMapper objectMapper;
+    private HttpClient httpClient;
+    private HttpRequest request;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Transfer {
+        private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+        public long wireBytes;
+        public long serverCpuNanos;
+        private long[] serverThreads;
+
+        /**
+         * Threads started meanwhile are picked up by the next iteration, the server pools are warm by then.
+         */
+        @Setup(Level.Iteration)
+        public void findServerThreads() {
+            serverThreads = Arrays.stream(THREADS.getThreadInfo(THREADS.getAllThreadIds()))
+                    .filter(info -> info != null
+                            && (info.getThreadName().startsWith("http-nio-") || info.getThreadName().startsWith("task-")))
+                    .mapToLong(ThreadInfo::getThreadId)
+                    .toArray();
+        }
+
+        long serverCpuTime() {
+            long total = 0;
+            for (long thread : serverThreads) {
+                total += Math.max(0, THREADS.getThreadCpuTime(thread));
+            }
+            return total;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        application = BenchmarkApplication.start(WebApplicationType.SERVLET, "management.tracing.enabled=false");
+        objectMapper = application.getBean(ObjectMapper.class);
+        httpClient = HttpClient.newBuilder().version(protocol).build();
+        int port = ((WebServerApplicationContext) application.context()).getWebServer().getPort();
+        String path = "page".equals(endpoint) ? "/api/v1/product?limit=1000" : "/api/v1/product/export";
+        if ("compact".equals(fields)) {
+            path += (path.contains("?") ? "&" : "?") + "fields=" + COMPACT_FIELDS;
+        }
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+        if ("gzip".equals(encoding)) {
+            builder.header("Accept-Encoding", "gzip");
+        }
+        request = builder.build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        application.close();
+    }
+
+    @Benchmark
+    public Object fetch(Transfer transfer) throws Exception {
+        long cpu = transfer.serverCpuTime();
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        transfer.serverCpuNanos += transfer.serverCpuTime() - cpu;
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        byte[] body = response.body();
+        transfer.wireBytes += body.length;
+        if (response.headers().firstValue("Content-Encoding").filter("gzip"::equals).isPresent()) {
+            try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                body = input.readAllBytes();
+            }
+        }
+        if ("page".equals(endpoint)) {
+            return objectMapper.readTree(body);
+        }
+        // NDJSON: one product per line
+        return objectMapper.readerFor(JsonNode.class).readValues(body).readAll();
+    }
+}
@@ -0,0 +1,102 @@
+package ru.sber.app.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * Full request path through the DispatcherServlet: argument resolution, service, mapper and Jackson.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductControllerBenchmark {
+    private static final String BODY = """
+            {"title": "benchmark sofa", "description": "benchmark description", "price": 10.5}""";
+
+    private BenchmarkApplication application;
+    private MockMvc mockMvc;
+    private List<Integer> ids;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        application = BenchmarkApplication.start(WebApplicationType.SERVLET);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) application.context()).build();
+        ids = application.productIds();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        application.close();
+    }
+
+    @Benchmark
+    public MvcResult findProductById() throws Exception {
+        return mockMvc.perform(get("/api/v1/product/{id}", randomId())).andReturn();
+    }
+
+    /**
+     * Revalidation of an unchanged product: answered with 304 from the version alone.
+     */
+    @Benchmark
+    public MvcResult findProductByIdNotModified() throws Exception {
+        return mockMvc.perform(get("/api/v1/product/{id}", randomId()).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andReturn();
+    }
+
+    @Benchmark
+    public MvcResult findAllPage() throws Exception {
+        return mockMvc.perform(get("/api/v1/product").param("after", String.valueOf(randomId())).param("limit", "50"))
+                .andReturn();
+    }
+
+    @Benchmark
+    public MvcResult createProduct() throws Exception {
+        return mockMvc.perform(post("/api/v1/product").contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andReturn();
+    }
+
+    /**
+     * A first request with an {@code Idempotency-Key}: the key is claimed and stored with the product.
+     */
+    @Benchmark
+    public MvcResult createProductIdempotent() throws Exception {
+        return mockMvc.perform(post("/api/v1/product").contentType(MediaType.APPLICATION_JSON).content(BODY)
+                .header("Idempotency-Key", UUID.randomUUID().toString())).andReturn();
+    }
+
+    /**
+     * A retry of a request with an {@code Idempotency-Key}: replayed from memory, nothing is written.
+     */
+    @Benchmark
+    public MvcResult createProductReplayed() throws Exception {
+        return mockMvc.perform(post("/api/v1/product").contentType(MediaType.APPLICATION_JSON).content(BODY)
+                .header("Idempotency-Key", "benchmark-retry")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult updateProduct() throws Exception {
+        return mockMvc.perform(put("/api/v1/product/{id}", randomId()).contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andReturn();
+    }
+
+    private Integer randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
@@ -0,0 +1,96 @@
+package ru.sber.app.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.sber.app.application.product.mapper.ProductMapper;
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.presentation.web.controller.product.ProductController;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductQuery;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Full NDJSON export of 100k products. {@code entities} is the former path: managed read-only entities, a
+ * MapStruct copy of every row and the {@code ObjectMapper}; {@code projection} is {@code /export} as it is now:
+ * a constructor projection written field by field to a {@code JsonGenerator}. Run with {@code -prof gc} and
+ * compare {@code gc.alloc.rate.norm}, the bytes allocated per export.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ProductExportBenchmark {
+    private static final int ROWS = 100_000;
+
+    private BenchmarkApplication application;
+    private ProductController productController;
+    private ProductMapper productMapper;
+    private ObjectMapper objectMapper;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnlyTransaction;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        application = BenchmarkApplication.start(WebApplicationType.SERVLET);
+        application.getBean(JdbcTemplate.class).update("""
+                insert into products (title, description, price)
+                select 'product ' || i, 'description of product ' || i, (i % 5000) + 0.5
+                from generate_series(1, ?) as i""", ROWS - BenchmarkApplication.SEED_ROWS);
+        productController = application.getBean(ProductController.class);
+        productMapper = application.getBean(ProductMapper.class);
+        objectMapper = application.getBean(ObjectMapper.class);
+        entityManager = application.getBean(EntityManager.class);
+        readOnlyTransaction = new TransactionTemplate(application.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        application.close();
+    }
+
+    @Benchmark
+    public void entities() {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (SequenceWriter writer = objectMapper.writerFor(ProductQuery.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .withRootValueSeparator("\n")
+                    .writeValues(OutputStream.nullOutputStream());
+                 Stream<Product> products = entityManager
+                         .createQuery("select p from Product p order by p.id", Product.class)
+                         .setHint(HibernateHints.HINT_FETCH_SIZE, 500)
+                         .setHint(HibernateHints.HINT_READ_ONLY, true)
+                         .getResultStream()) {
+                products.forEach(product -> {
+                    try {
+                        writer.write(productMapper.fromProductToQuery(product));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    entityManager.detach(product);
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @Benchmark
+    public void projection() throws IOException {
+        productController.exportAll(null).getBody().writeTo(OutputStream.nullOutputStream());
+    }
+}
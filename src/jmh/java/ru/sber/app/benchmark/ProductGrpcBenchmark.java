@@ -0,0 +1,153 @@
+package ru.sber.app.benchmark;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.grpc.ManagedChannel;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.sber.app.infrastructure.grpc.GrpcServerLifecycle;
+import ru.sber.app.presentation.grpc.product.proto.ProductProto;
+import ru.sber.app.presentation.grpc.product.proto.ProductServiceGrpc;
+import ru.sber.app.presentation.web.controller.product.dto.commands.ProductCommand;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductQuery;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same product operations over the JSON API and over gRPC, through real sockets on loopback, including
+ * the client side: JSON is parsed with Jackson, protobuf messages by the generated stubs. {@code bytes} is
+ * reported next to each throughput: bytes of request and response bodies per second, so
+ * {@code bytes / ops} is the payload of one call. {@code list} reads the whole seeded catalog, as NDJSON from
+ * {@code /export} and as a server stream.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ProductGrpcBenchmark {
+    private static final ProductCommand COMMAND =
+            new ProductCommand("benchmark sofa", "benchmark description", 10.5F, null);
+    private static final ProductProto.ProductCommand COMMAND_MESSAGE = ProductProto.ProductCommand.newBuilder()
+            .setTitle("benchmark sofa").setDescription("benchmark description").setPrice(10.5F).build();
+
+    private BenchmarkApplication application;
+    private ObjectMapper objectMapper;
+    private HttpClient httpClient;
+    private String baseUrl;
+    private ManagedChannel channel;
+    private ProductServiceGrpc.ProductServiceBlockingStub stub;
+    private List<Integer> ids;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Payload {
+        public long bytes;
+    }
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        application = BenchmarkApplication.start(WebApplicationType.SERVLET, "management.tracing.enabled=false");
+        objectMapper = application.getBean(ObjectMapper.class);
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        int httpPort = ((WebServerApplicationContext) application.context()).getWebServer().getPort();
+        baseUrl = "http://localhost:" + httpPort + "/api/v1/product";
+        channel = NettyChannelBuilder.forAddress("localhost", application.getBean(GrpcServerLifecycle.class).getPort())
+                .usePlaintext()
+                .build();
+        stub = ProductServiceGrpc.newBlockingStub(channel);
+        ids = application.productIds();
+    }
+
+    /**
+     * Removes the products created by the iteration, so both list benchmarks read the same catalog.
+     */
+    @TearDown(Level.Iteration)
+    public void removeCreated() {
+        application.getBean(JdbcTemplate.class).update("delete from products where id > ?", ids.get(ids.size() - 1));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        application.close();
+    }
+
+    @Benchmark
+    public ProductQuery restGet(Payload payload) throws Exception {
+        byte[] body = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + "/" + randomId())).build(),
+                HttpResponse.BodyHandlers.ofByteArray()).body();
+        payload.bytes += body.length;
+        return objectMapper.readValue(body, ProductQuery.class);
+    }
+
+    @Benchmark
+    public ProductProto.Product grpcGet(Payload payload) {
+        ProductProto.Product product = stub.getProduct(
+                ProductProto.GetProductRequest.newBuilder().setId(randomId()).build());
+        payload.bytes += product.getSerializedSize();
+        return product;
+    }
+
+    @Benchmark
+    public ProductQuery restCreate(Payload payload) throws Exception {
+        byte[] request = objectMapper.writeValueAsBytes(COMMAND);
+        byte[] body = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(request))
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray()).body();
+        payload.bytes += request.length + body.length;
+        return objectMapper.readValue(body, ProductQuery.class);
+    }
+
+    @Benchmark
+    public ProductProto.Product grpcCreate(Payload payload) {
+        ProductProto.Product product = stub.createProduct(COMMAND_MESSAGE);
+        payload.bytes += COMMAND_MESSAGE.getSerializedSize() + product.getSerializedSize();
+        return product;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void restList(Payload payload, Blackhole blackhole) throws Exception {
+        HttpResponse<byte[]> response = httpClient.send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "/export")).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        payload.bytes += response.body().length;
+        try (MappingIterator<ProductQuery> products = objectMapper.readerFor(ProductQuery.class)
+                .readValues(response.body())) {
+            products.forEachRemaining(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void grpcList(Payload payload, Blackhole blackhole) {
+        Iterator<ProductProto.ProductPage> pages = stub.listProducts(
+                ProductProto.ListProductsRequest.newBuilder().setPageSize(1000).build());
+        while (pages.hasNext()) {
+            ProductProto.ProductPage page = pages.next();
+            payload.bytes += page.getSerializedSize();
+            page.getProductsList().forEach(blackhole::consume);
+        }
+    }
+
+    private int randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
@@ -0,0 +1,34 @@
+package ru.sber.app.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductQuery;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductJsonBenchmark {
+    @Param({"1000", "100000"})
+    int size;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<ProductQuery> queries;
+
+    @Setup
+    public void setUp() {
+        queries = BenchmarkApplication.productQueries(size);
+    }
+
+    @Benchmark
+    public void serializeList() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), queries);
+    }
+}
@@ -0,0 +1,34 @@
+package ru.sber.app.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.sber.app.application.product.mapper.ProductMapper;
+import ru.sber.app.application.product.mapper.ProductMapperImpl;
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductQuery;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductMapperBenchmark {
+    @Param({"1000", "100000"})
+    int size;
+
+    private final ProductMapper mapper = new ProductMapperImpl();
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        products = BenchmarkApplication.products(size);
+    }
+
+    @Benchmark
+    public List<ProductQuery> fromProductsToQueries() {
+        return mapper.fromProductsToQueries(products);
+    }
+}
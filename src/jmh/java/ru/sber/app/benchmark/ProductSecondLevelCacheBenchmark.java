@@ -0,0 +1,99 @@
+package ru.sber.app.benchmark;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.data.domain.Slice;
+import ru.sber.app.application.product.ProductService;
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.infrastructure.repository.ProductSortField;
+import ru.sber.app.presentation.web.controller.product.dto.commands.ProductSearchCommand;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductQuery;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Product reads with the Hibernate second-level and query caches on and off. The Spring cache is disabled,
+ * so every call reaches Hibernate. Besides the time, every iteration prints the number of SQL statements
+ * per request taken from Hibernate statistics.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductSecondLevelCacheBenchmark {
+    private static final int HOT_PRODUCTS = 100;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"true", "false"})
+    boolean secondLevelCache;
+
+    private final AtomicLong requests = new AtomicLong();
+    private BenchmarkApplication application;
+    private ProductService productService;
+    private Statistics statistics;
+    private List<Integer> ids;
+    private long statementsBefore;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        application = BenchmarkApplication.start(WebApplicationType.NONE,
+                "spring.cache.type=none",
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=" + secondLevelCache,
+                "spring.jpa.properties.hibernate.cache.use_query_cache=" + secondLevelCache);
+        productService = application.getBean(ProductService.class);
+        statistics = application.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        ids = application.productIds().subList(0, HOT_PRODUCTS);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounters() {
+        requests.set(0);
+        statementsBefore = statistics.getPrepareStatementCount();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportStatements() {
+        long statements = statistics.getPrepareStatementCount() - statementsBefore;
+        System.out.printf("%nSQL statements per request: %.2f%n", (double) statements / Math.max(1, requests.get()));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        application.close();
+    }
+
+    @Benchmark
+    public Product findById() {
+        requests.incrementAndGet();
+        return productService.findById(randomId());
+    }
+
+    @Benchmark
+    public Slice<Product> findPage() {
+        requests.incrementAndGet();
+        return productService.findAll(randomId(), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Slice<ProductQuery> search() {
+        requests.incrementAndGet();
+        return productService.search(ProductSearchCommand.builder()
+                .text("product " + randomId())
+                .sort(ProductSortField.PRICE)
+                .limit(PAGE_SIZE)
+                .build());
+    }
+
+    private Integer randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
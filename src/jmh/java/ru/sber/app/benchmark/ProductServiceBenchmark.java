@@ -0,0 +1,65 @@
+package ru.sber.app.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import ru.sber.app.application.product.ProductService;
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.presentation.web.controller.product.dto.commands.ProductCommand;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductServiceBenchmark {
+    /**
+     * Reads go to a small hot set of products, so that warmed up iterations measure cache hits when caching is on.
+     */
+    private static final int HOT_PRODUCTS = 100;
+
+    @Param({"caffeine", "none"})
+    String cacheType;
+
+    private final ProductCommand command = ProductCommand.builder()
+            .title("benchmark sofa").description("benchmark description").price(10.5F).build();
+    private BenchmarkApplication application;
+    private ProductService productService;
+    private List<Integer> ids;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        application = BenchmarkApplication.start(WebApplicationType.NONE, "spring.cache.type=" + cacheType);
+        productService = application.getBean(ProductService.class);
+        ids = application.productIds().subList(0, HOT_PRODUCTS);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        application.close();
+    }
+
+    @Benchmark
+    public Product findById() {
+        return productService.findById(randomId());
+    }
+
+    @Benchmark
+    public Product create() {
+        return productService.create(command);
+    }
+
+    @Benchmark
+    public Product update() {
+        return productService.update(randomId(), command);
+    }
+
+    private Integer randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
@@ -0,0 +1,195 @@
+package ru.sber.app.benchmark;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+
+/**
+ * Time from launching the service in a new process to its first successful {@code /actuator/health}, and the
+ * resident memory of the process at that moment ({@code rssMegabytes}, Linux only; JMH sums the counter over the
+ * measured starts, divide it by {@code Cnt}), for every way to package it:
+ * <ul>
+ *     <li>{@code jar} - {@code java -jar} of the Spring Boot jar;</li>
+ *     <li>{@code aot} - the same jar built with {@code -Pnative}, started with {@code -Dspring.aot.enabled=true};</li>
+ *     <li>{@code cds} - the plain jar with the class data sharing archive of {@code -Pcds};</li>
+ *     <li>{@code native} - the executable of {@code mvn -Pnative native:compile}.</li>
+ * </ul>
+ * {@code profile} {@code prod} adds {@code application-prod.yml}. Artifacts are taken from {@code target}, a
+ * missing one fails its runs with the command that builds it, e.g.
+ * {@code mvn -Pnative,cds,benchmark verify -Djmh.args=ProductStartupBenchmark}. The warmup start migrates the
+ * database, the measured ones find the schema up to date, as an instance added by the autoscaler does.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+public class ProductStartupBenchmark {
+    private static final Path TARGET = Path.of("target");
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    @Param({"jar", "aot", "cds", "native"})
+    public String mode;
+
+    @Param({"default", "prod"})
+    public String profile;
+
+    private EmbeddedPostgres postgres;
+    private HttpClient httpClient;
+    private List<String> command;
+    private Path workingDirectory;
+    private Process process;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Memory {
+        public long rssMegabytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rssMegabytes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        command = new ArrayList<>();
+        workingDirectory = TARGET;
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        switch (mode) {
+            case "jar" -> command.addAll(List.of(java, "-jar", bootJar().toString()));
+            case "aot" -> {
+                Path jar = bootJar();
+                try (JarFile file = new JarFile(jar.toFile())) {
+                    if (file.getManifest().getMainAttributes().getValue("Spring-Boot-Native-Processed") == null) {
+                        throw new IllegalStateException(jar + " has no AOT classes, build it with mvn -Pnative package");
+                    }
+                }
+                command.addAll(List.of(java, "-Dspring.aot.enabled=true", "-jar", jar.toString()));
+            }
+            case "cds" -> {
+                workingDirectory = TARGET.resolve("cds");
+                Path jar = find(workingDirectory, "*-cds.jar", "mvn -Pcds package");
+                find(workingDirectory, "app.jsa", "mvn -Pcds package");
+                // the archive is only used with the classpath it was dumped with, relative to target/cds
+                command.addAll(List.of(java, "-XX:SharedArchiveFile=app.jsa", "-jar", jar.getFileName().toString()));
+            }
+            case "native" -> command.add(find(TARGET, "app", "mvn -Pnative native:compile").toAbsolutePath().toString());
+            default -> throw new IllegalArgumentException(mode);
+        }
+        postgres = EmbeddedPostgres.start();
+        command.addAll(List.of(
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=postgres",
+                // the R2DBC connection factory is part of /actuator/health
+                "--spring.r2dbc.url=r2dbc:postgresql://localhost:" + postgres.getPort() + "/postgres",
+                "--spring.r2dbc.username=postgres",
+                "--spring.r2dbc.password=postgres",
+                "--app.grpc.port=0",
+                "--management.tracing.enabled=false"));
+        if (!"default".equals(profile)) {
+            command.add("--spring.profiles.active=" + profile);
+        }
+        httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        postgres.close();
+    }
+
+    @Benchmark
+    public void startup(Memory memory) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> arguments = new ArrayList<>(command);
+        arguments.add("--server.port=" + port);
+        Path log = TARGET.resolve("startup-" + mode + "-" + profile + ".log");
+        process = new ProcessBuilder(arguments)
+                .directory(workingDirectory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        HttpRequest health = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health"))
+                .timeout(Duration.ofSeconds(1))
+                .build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (true) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Startup failed with exit code " + process.exitValue() + ", see " + log);
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                throw new IllegalStateException("Not started within " + STARTUP_TIMEOUT + ", see " + log);
+            }
+            try {
+                if (httpClient.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    break;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(10);
+        }
+        memory.rssMegabytes = rssKilobytes(process.pid()) / 1024;
+    }
+
+    /**
+     * Stops the instance gracefully, its shutdown is not part of the measurement.
+     */
+    @TearDown(Level.Invocation)
+    public void shutdown() throws InterruptedException {
+        if (process != null) {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+            process = null;
+        }
+    }
+
+    private static long rssKilobytes(long pid) throws IOException {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status)) {
+            return 0;
+        }
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D", ""));
+            }
+        }
+        return 0;
+    }
+
+    private static Path bootJar() throws IOException {
+        return find(TARGET, "*.jar", "mvn package").toAbsolutePath();
+    }
+
+    private static Path find(Path directory, String glob, String build) throws IOException {
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, glob)) {
+                for (Path path : paths) {
+                    return path;
+                }
+            }
+        }
+        throw new IllegalStateException(directory.resolve(glob) + " not found, build it with " + build);
+    }
+}
@@ -0,0 +1,67 @@
+package ru.sber.app.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.sber.app.application.product.ProductStatsService;
+import ru.sber.app.infrastructure.config.ProductStatsProperties;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catalog statistics from the maintained totals against the same figures computed by a scan of the active
+ * products, the cheapest form of what dashboards did by downloading the catalog. The scan grows with
+ * {@code rows}, the totals do not.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductStatsBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    private BenchmarkApplication application;
+    private ProductStatsService productStatsService;
+    private JdbcTemplate jdbcTemplate;
+    private Float[] bounds;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        application = BenchmarkApplication.start(WebApplicationType.NONE, "management.tracing.enabled=false");
+        productStatsService = application.getBean(ProductStatsService.class);
+        jdbcTemplate = application.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("""
+                insert into products (title, description, price)
+                select 'product ' || i, 'description of product ' || i, (i % 5000) + 0.5
+                from generate_series(1, ?) as i""", rows - BenchmarkApplication.SEED_ROWS);
+        productStatsService.compact();
+        jdbcTemplate.execute("vacuum analyze products");
+        bounds = application.getBean(ProductStatsProperties.class).getPriceBuckets().toArray(Float[]::new);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        application.close();
+    }
+
+    @Benchmark
+    public Object stats() {
+        return productStatsService.getStats();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> scan() {
+        return jdbcTemplate.queryForList("""
+                select width_bucket(price, ?) as bucket, count(*) as products, min(price) as min_price,
+                       max(price) as max_price, sum(price::double precision) as price_sum
+                from products where status = 'ACTIVE'
+                group by 1 order by 1""", (Object) bounds);
+    }
+}
@@ -0,0 +1,94 @@
+package ru.sber.app.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the real Tomcat server over HTTP with more concurrent clients than the 200 default workers:
+ * most clients read a hot, cached product while the rest read uncached pages that hold a connection each.
+ * With platform threads the slow database requests occupy the workers and the cached reads queue behind them;
+ * with virtual threads only the database requests wait, on the connection semaphore.
+ * <p>
+ * Every group method reports its own throughput; {@code errors} counts non-200 responses (503 on pool timeouts)
+ * and requests that did not complete within {@code REQUEST_TIMEOUT}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Djdk.httpclient.keepalive.timeout=600")
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+public class ProductThreadingBenchmark {
+    private static final int HOT_PRODUCTS = 100;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    @Param({"false", "true"})
+    String virtualThreads;
+
+    private BenchmarkApplication application;
+    private HttpClient client;
+    private String baseUrl;
+    private List<Integer> ids;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Responses {
+        public long errors;
+    }
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        application = BenchmarkApplication.start(WebApplicationType.SERVLET,
+                "spring.threads.virtual.enabled=" + virtualThreads);
+        int port = ((WebServerApplicationContext) application.context()).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + "/api/v1/product";
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        ids = application.productIds();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        client.close();
+        application.close();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(200)
+    public int cachedRead(Responses responses) throws Exception {
+        return send("/" + ids.get(ThreadLocalRandom.current().nextInt(HOT_PRODUCTS)), responses);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(50)
+    public int databaseRead(Responses responses) throws Exception {
+        return send("?limit=100&after=" + ids.get(ThreadLocalRandom.current().nextInt(ids.size())), responses);
+    }
+
+    private int send(String path, Responses responses) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT).build();
+        try {
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (status != 200) {
+                responses.errors++;
+            }
+            return status;
+        } catch (HttpTimeoutException e) {
+            responses.errors++;
+            return 0;
+        }
+    }
+}
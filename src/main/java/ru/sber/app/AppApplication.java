@@ -2,8 +2,13 @@ package ru.sber.app;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import ru.sber.app.infrastructure.aot.AppRuntimeHints;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@ImportRuntimeHints(AppRuntimeHints.class)
 public class AppApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,12 @@
+package ru.sber.app.application.product;
+
+/**
+ * An {@code Idempotency-Key} sent again with a request other than the one whose response it stores; answered
+ * with {@code 422}, the stored response belongs to another product.
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,80 @@
+package ru.sber.app.application.product;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.sber.app.infrastructure.cache.ProductCacheInvalidationPublisher;
+import ru.sber.app.infrastructure.config.CacheConfig;
+import ru.sber.app.infrastructure.config.ProductArchivalProperties;
+import ru.sber.app.infrastructure.repository.ProductCacheInvalidator;
+import ru.sber.app.infrastructure.repository.ProductEventRepository;
+import ru.sber.app.infrastructure.repository.ProductRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Moves products not changed for {@code app.product.archival.cold-after} to the archived partition, in batches of
+ * {@code batch-size} products per transaction, so the active partition and its indexes only hold the live catalog.
+ * Each batch records {@code DELETED} events and tells other instances to evict the products, like a delete.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductArchiver {
+    private final ProductRepository productRepository;
+    private final ProductEventRepository productEventRepository;
+    private final ProductCacheInvalidator productCacheInvalidator;
+    private final ProductCacheInvalidationPublisher productCacheInvalidationPublisher;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductArchivalProperties properties;
+
+    /**
+     * Archives cold products batch by batch until a batch comes out short.
+     *
+     * @return the number of archived products
+     */
+    public int archiveCold() {
+        Instant before = Instant.now().minus(properties.getColdAfter());
+        int archived = 0;
+        List<Integer> batch;
+        do {
+            batch = archiveBatch(before);
+            archived += batch.size();
+        } while (batch.size() == properties.getBatchSize());
+        if (archived > 0) {
+            log.info("ProductArchiver | archiveCold | Archived " + archived + " products not changed since " + before);
+        }
+        return archived;
+    }
+
+    private List<Integer> archiveBatch(Instant before) {
+        List<Integer> archived = transactionTemplate.execute(status -> {
+            List<Integer> ids = productRepository.lockArchivable(before, properties.getBatchSize());
+            if (ids.isEmpty()) {
+                return ids;
+            }
+            ids.forEach(productCacheInvalidator::beforeWrite);
+            List<Integer> moved = productRepository.archiveAll(ids.toArray(Integer[]::new));
+            productEventRepository.appendDeleted(moved);
+            productCacheInvalidationPublisher.publish(moved);
+            return moved;
+        });
+        if (archived == null || archived.isEmpty()) {
+            return List.of();
+        }
+        Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+        if (products != null) {
+            archived.forEach(products::evict);
+        }
+        Cache pages = cacheManager.getCache(CacheConfig.PRODUCT_PAGES);
+        if (pages != null) {
+            pages.clear();
+        }
+        return archived;
+    }
+}
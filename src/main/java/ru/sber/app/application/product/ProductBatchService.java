@@ -0,0 +1,189 @@
+package ru.sber.app.application.product;
+
+import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.sber.app.application.product.mapper.ProductMapper;
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.domain.event.ProductEventType;
+import ru.sber.app.infrastructure.cache.ProductCacheInvalidationPublisher;
+import ru.sber.app.infrastructure.config.CacheConfig;
+import ru.sber.app.infrastructure.config.ProductBatchProperties;
+import ru.sber.app.infrastructure.repository.ProductEventRepository;
+import ru.sber.app.infrastructure.repository.ProductRepository;
+import ru.sber.app.presentation.web.controller.product.dto.commands.ProductBatchUpdateCommand;
+import ru.sber.app.presentation.web.controller.product.dto.commands.ProductCommand;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductBatchResultQuery;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductBatchStatus;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk product writes. Items are consumed from an iterator in chunks of {@code app.product.batch.chunk-size};
+ * every chunk is written with JDBC batching and committed in its own transaction. When a chunk fails,
+ * its items are retried one by one so that only the offending items are reported as failed.
+ * The change events of a chunk are recorded, and other instances are told to evict the written products,
+ * with one statement each in the chunk transaction. Pending prices of updated and deleted products are dropped
+ * from the {@link ProductPriceBuffer}.
+ */
+@Service
+@Observed(name = "product.batch.service")
+@Slf4j
+@RequiredArgsConstructor
+public class ProductBatchService {
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductBatchProperties properties;
+    private final ProductEventRepository productEventRepository;
+    private final ProductCacheInvalidationPublisher productCacheInvalidationPublisher;
+    private final ProductPriceBuffer productPriceBuffer;
+
+    /**
+     * Creates products from the given commands.
+     *
+     * @param commands the commands, possibly read lazily from a request stream
+     * @return a result for every command, in input order
+     */
+    @CacheEvict(cacheNames = CacheConfig.PRODUCT_PAGES, allEntries = true)
+    public List<ProductBatchResultQuery> createAll(Iterator<ProductCommand> commands) {
+        return processInChunks(commands, this::createChunk);
+    }
+
+    /**
+     * Updates the products referenced by the given commands.
+     *
+     * @param commands the commands carrying the product ID and its new state
+     * @return a result for every command, in input order
+     */
+    @CacheEvict(cacheNames = {CacheConfig.PRODUCTS, CacheConfig.PRODUCT_PAGES}, allEntries = true)
+    public List<ProductBatchResultQuery> updateAll(Iterator<ProductBatchUpdateCommand> commands) {
+        return processInChunks(commands, this::updateChunk);
+    }
+
+    /**
+     * Deletes the products with the given IDs.
+     *
+     * @param productIds the IDs of the products to delete
+     * @return a result for every ID, in input order
+     */
+    @CacheEvict(cacheNames = {CacheConfig.PRODUCTS, CacheConfig.PRODUCT_PAGES}, allEntries = true)
+    public List<ProductBatchResultQuery> deleteAll(Iterator<Integer> productIds) {
+        return processInChunks(productIds, this::deleteChunk);
+    }
+
+    private <T> List<ProductBatchResultQuery> processInChunks(Iterator<T> items,
+                                                             Function<List<T>, List<ProductBatchResultQuery>> writer) {
+        List<ProductBatchResultQuery> results = new ArrayList<>();
+        List<T> chunk = new ArrayList<>(properties.getChunkSize());
+        while (items.hasNext()) {
+            chunk.add(items.next());
+            if (chunk.size() == properties.getChunkSize() || !items.hasNext()) {
+                int offset = results.size();
+                writeChunk(chunk, writer).forEach(result -> {
+                    result.setIndex(offset + result.getIndex());
+                    results.add(result);
+                });
+                chunk.clear();
+            }
+        }
+        return results;
+    }
+
+    private <T> List<ProductBatchResultQuery> writeChunk(List<T> chunk,
+                                                        Function<List<T>, List<ProductBatchResultQuery>> writer) {
+        try {
+            return transactionTemplate.execute(status -> writer.apply(chunk));
+        } catch (RuntimeException chunkException) {
+            log.error("ProductBatchService | writeChunk | Chunk of " + chunk.size()
+                    + " items failed, retrying item by item: " + chunkException.getMessage());
+            List<ProductBatchResultQuery> results = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                T item = chunk.get(i);
+                ProductBatchResultQuery result;
+                try {
+                    result = transactionTemplate.execute(status -> writer.apply(List.of(item)).get(0));
+                } catch (RuntimeException itemException) {
+                    result = ProductBatchResultQuery.builder()
+                            .status(ProductBatchStatus.FAILED)
+                            .message(itemException.getMessage())
+                            .build();
+                }
+                result.setIndex(i);
+                results.add(result);
+            }
+            return results;
+        }
+    }
+
+    private List<ProductBatchResultQuery> createChunk(List<ProductCommand> commands) {
+        List<Product> products = commands.stream().map(productMapper::fromCommandToProduct).toList();
+        products.forEach(entityManager::persist);
+        entityManager.flush();
+        entityManager.clear();
+        List<Integer> ids = products.stream().map(Product::getId).toList();
+        productEventRepository.appendSnapshots(ProductEventType.CREATED, ids);
+        productCacheInvalidationPublisher.publish(ids);
+        List<ProductBatchResultQuery> results = new ArrayList<>(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            results.add(new ProductBatchResultQuery(i, products.get(i).getId(), ProductBatchStatus.CREATED, null));
+        }
+        return results;
+    }
+
+    private List<ProductBatchResultQuery> updateChunk(List<ProductBatchUpdateCommand> commands) {
+        Set<Integer> ids = commands.stream().map(ProductBatchUpdateCommand::getId).collect(Collectors.toSet());
+        ids.forEach(productPriceBuffer::discard);
+        Map<Integer, Product> products = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<ProductBatchResultQuery> results = new ArrayList<>(commands.size());
+        for (int i = 0; i < commands.size(); i++) {
+            ProductBatchUpdateCommand command = commands.get(i);
+            Product product = products.get(command.getId());
+            if (product == null) {
+                results.add(notFound(i, command.getId()));
+                continue;
+            }
+            productMapper.updateProductFromCommand(command, product);
+            results.add(new ProductBatchResultQuery(i, product.getId(), ProductBatchStatus.UPDATED, null));
+        }
+        // the rows are locked by the flush, so the events below follow any concurrent change of the same products
+        entityManager.flush();
+        entityManager.clear();
+        if (!products.isEmpty()) {
+            productEventRepository.appendSnapshots(ProductEventType.UPDATED, products.keySet());
+            productCacheInvalidationPublisher.publish(products.keySet());
+        }
+        return results;
+    }
+
+    private List<ProductBatchResultQuery> deleteChunk(List<Integer> productIds) {
+        productIds.forEach(productPriceBuffer::discard);
+        Set<Integer> existing = new HashSet<>(productRepository.findIdsByIdIn(productIds));
+        if (!existing.isEmpty()) {
+            productRepository.deleteAllByIdInBatch(existing);
+            productEventRepository.appendDeleted(existing);
+            productCacheInvalidationPublisher.publish(existing);
+        }
+        List<ProductBatchResultQuery> results = new ArrayList<>(productIds.size());
+        for (int i = 0; i < productIds.size(); i++) {
+            Integer productId = productIds.get(i);
+            results.add(existing.contains(productId)
+                    ? new ProductBatchResultQuery(i, productId, ProductBatchStatus.DELETED, null)
+                    : notFound(i, productId));
+        }
+        return results;
+    }
+
+    private ProductBatchResultQuery notFound(int index, Integer productId) {
+        return new ProductBatchResultQuery(index, productId, ProductBatchStatus.NOT_FOUND,
+                "Продукт с id: " + productId + " не найден");
+    }
+}
@@ -0,0 +1,164 @@
+package ru.sber.app.application.product;
+
+import io.micrometer.observation.annotation.Observed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.sber.app.domain.event.ProductEventType;
+import ru.sber.app.infrastructure.cache.ProductCacheInvalidationPublisher;
+import ru.sber.app.infrastructure.config.CacheConfig;
+import ru.sber.app.infrastructure.repository.ProductCacheInvalidator;
+import ru.sber.app.infrastructure.repository.ProductDumpImport;
+import ru.sber.app.infrastructure.repository.ProductDumpRepository;
+import ru.sber.app.infrastructure.repository.ProductEventRepository;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductDumpResultQuery;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Product dumps for backups and seeding of other environments. A dump is
+ * <ol>
+ *     <li>the 8 ASCII bytes {@code PRODUMP1};</li>
+ *     <li>the watermark, a big-endian {@code int64}: the position of the last product event contained in the dump;</li>
+ *     <li>the watermark the dump is incremental to, a big-endian {@code int64}, {@code 0} for a full dump;</li>
+ *     <li>a gzip stream of a PostgreSQL binary {@code COPY} stream of the rows described in
+ *     {@link ProductDumpRepository}.</li>
+ * </ol>
+ * An incremental dump holds the products changed after its base watermark and relies on the change events
+ * published by the outbox relay; once the events after the base watermark are purged, only a full dump is possible.
+ */
+@Service
+@Observed(name = "product.dump.service")
+@Slf4j
+@RequiredArgsConstructor
+public class ProductDumpService {
+    public static final String MEDIA_TYPE = "application/vnd.product-dump";
+
+    private static final byte[] MAGIC = "PRODUMP1".getBytes(StandardCharsets.US_ASCII);
+    static final int HEADER_SIZE = MAGIC.length + 2 * Long.BYTES;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ProductDumpRepository productDumpRepository;
+    private final ProductEventRepository productEventRepository;
+    private final ProductCacheInvalidator productCacheInvalidator;
+    private final ProductCacheInvalidationPublisher productCacheInvalidationPublisher;
+
+    /**
+     * Checks that an incremental dump from the given watermark is still possible.
+     *
+     * @throws IllegalArgumentException if the events after the watermark are no longer kept
+     */
+    @Transactional(readOnly = true)
+    public void checkSince(long since) {
+        if (since < 0) {
+            log.error("ProductDumpService | checkSince | Invalid watermark: " + since);
+            throw new IllegalArgumentException("Параметр since не может быть отрицательным");
+        }
+        Long earliest = since == 0 ? null : productEventRepository.findEarliestSeq();
+        if (since > 0 && (earliest == null || earliest > since + 1)) {
+            log.error("ProductDumpService | checkSince | Events after " + since + " are purged");
+            throw new IllegalArgumentException("Изменения после позиции " + since
+                    + " больше не хранятся, требуется полная выгрузка");
+        }
+    }
+
+    /**
+     * Writes a dump of the products changed after {@code since}, or of all products when it is {@code 0}.
+     * The watermark and the rows are read from the same snapshot. The channel is not closed.
+     *
+     * @return the watermark of the dump, to pass as {@code since} of the next incremental dump
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public long export(long since, WritableByteChannel channel) {
+        checkSince(since);
+        long watermark = productEventRepository.findLatestSeq();
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).put(MAGIC).putLong(watermark).putLong(since).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            GZIPOutputStream out = new GZIPOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+            long rows = productDumpRepository.copyOut(since, out);
+            out.finish();
+            out.flush();
+            log.info("ProductDumpService | export | Exported " + rows + " products since " + since
+                    + " up to " + watermark);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return watermark;
+    }
+
+    /**
+     * Applies a dump: its products are created or overwritten, keeping their IDs, and the products it marks
+     * as deleted are deleted. Change events are recorded as for any other write. The channel is not closed.
+     *
+     * @param reuseIssuedIds whether products may be created with IDs the ID sequence has already issued, which is
+     *                       safe only while no instance writes products, see {@link ProductDumpRepository#copyIn}
+     * @throws IllegalArgumentException if the channel does not hold a valid dump, the dump repeats a product, or it
+     *                                  would create a product with an issued ID and {@code reuseIssuedIds} is off
+     */
+    @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.PRODUCTS, CacheConfig.PRODUCT_PAGES}, allEntries = true)
+    public ProductDumpResultQuery importDump(ReadableByteChannel channel, boolean reuseIssuedIds) {
+        ProductDumpImport result;
+        long watermark;
+        try {
+            watermark = readHeader(channel);
+            productCacheInvalidator.beforeBulkWrite();
+            result = productDumpRepository.copyIn(
+                    new GZIPInputStream(Channels.newInputStream(channel), BUFFER_SIZE), reuseIssuedIds);
+        } catch (IOException | UncheckedIOException e) {
+            log.error("ProductDumpService | importDump | Unreadable dump: " + e.getMessage());
+            throw new IllegalArgumentException("Выгрузка продуктов повреждена: " + e.getMessage());
+        }
+        if (!result.created().isEmpty()) {
+            productEventRepository.appendSnapshots(ProductEventType.CREATED, result.created());
+        }
+        if (!result.updated().isEmpty()) {
+            productEventRepository.appendSnapshots(ProductEventType.UPDATED, result.updated());
+        }
+        if (!result.deleted().isEmpty()) {
+            productEventRepository.appendDeleted(result.deleted());
+        }
+        List<Integer> written = new ArrayList<>(result.created());
+        written.addAll(result.updated());
+        written.addAll(result.deleted());
+        productCacheInvalidationPublisher.publish(written);
+        return new ProductDumpResultQuery(watermark, result.created().size(), result.updated().size(),
+                result.deleted().size());
+    }
+
+    /**
+     * @return the watermark of the dump read from the channel
+     */
+    private static long readHeader(ReadableByteChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining() && channel.read(header) >= 0) {
+            // a channel in blocking mode reads at least one byte or reaches the end
+        }
+        byte[] magic = new byte[MAGIC.length];
+        if (!header.hasRemaining()) {
+            header.flip().get(magic);
+        }
+        if (!Arrays.equals(magic, MAGIC)) {
+            log.error("ProductDumpService | readHeader | Not a product dump");
+            throw new IllegalArgumentException("Файл не является выгрузкой продуктов");
+        }
+        return header.getLong();
+    }
+}
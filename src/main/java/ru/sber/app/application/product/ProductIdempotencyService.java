@@ -0,0 +1,193 @@
+package ru.sber.app.application.product;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.sber.app.application.product.mapper.ProductMapper;
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.infrastructure.config.ProductIdempotencyProperties;
+import ru.sber.app.infrastructure.repository.IdempotencyKeyRepository;
+import ru.sber.app.infrastructure.repository.IdempotentResponse;
+import ru.sber.app.presentation.web.controller.product.dto.commands.ProductCommand;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductQuery;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Creates a product at most once per {@code Idempotency-Key}: a client retrying a request that timed out gets the
+ * product of its first attempt instead of a duplicate.
+ * <p>
+ * The key is claimed in the transaction that creates the product and completed with the response before the
+ * commit. A request with the same key on another instance waits on the claimed row and replays the response once
+ * it is committed; if the first request rolls back, the waiting one claims the key and creates the product itself.
+ * Requests with the same key on this instance wait for the first one in memory, without holding a connection.
+ * Recent responses are replayed from memory, others from the {@code idempotency_keys} table; keys are purged
+ * after {@code app.product.idempotency.ttl}.
+ */
+@Slf4j
+@Component
+public class ProductIdempotencyService {
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ProductService productService;
+    private final ProductMapper productMapper;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductIdempotencyProperties properties;
+    private final Cache<String, IdempotentResponse> responses;
+    private final ConcurrentMap<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter memoryReplays;
+    private final Counter databaseReplays;
+
+    public ProductIdempotencyService(IdempotencyKeyRepository idempotencyKeyRepository, ProductService productService,
+                                     ProductMapper productMapper, ObjectMapper objectMapper,
+                                     TransactionTemplate transactionTemplate, ProductIdempotencyProperties properties,
+                                     MeterRegistry meterRegistry) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.productService = productService;
+        this.productMapper = productMapper;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(properties.getCacheSize())
+                .expireAfterWrite(properties.getTtl())
+                .build();
+        this.memoryReplays = replays(meterRegistry, "memory");
+        this.databaseReplays = replays(meterRegistry, "database");
+    }
+
+    private static Counter replays(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("product.idempotency.replays")
+                .description("Product creations answered with the stored response of their Idempotency-Key")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    /**
+     * The response of a product creation.
+     *
+     * @param product      the created product
+     * @param lastModified the modification time of the created product
+     * @param replayed     whether the response was stored by an earlier request with the same key
+     */
+    public record Result(ProductQuery product, Instant lastModified, boolean replayed) {
+    }
+
+    /**
+     * Creates a product unless a product was already created with the given key, then returns its response.
+     *
+     * @param key     the {@code Idempotency-Key} of the request
+     * @param command the command containing the information for creating the product
+     * @return the created or the replayed product
+     * @throws IllegalArgumentException if the key is blank or longer than {@code MAX_KEY_LENGTH}
+     * @throws IdempotencyKeyReusedException if the key was used with another command
+     */
+    public Result create(String key, ProductCommand command) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            log.error("ProductIdempotencyService | create | Invalid idempotency key: " + key);
+            throw new IllegalArgumentException("Заголовок Idempotency-Key должен содержать от 1 до "
+                    + MAX_KEY_LENGTH + " символов");
+        }
+        byte[] requestHash = hash(command);
+        while (true) {
+            IdempotentResponse cached = responses.getIfPresent(key);
+            if (cached != null) {
+                memoryReplays.increment();
+                return replay(key, requestHash, cached);
+            }
+            CompletableFuture<Void> own = new CompletableFuture<>();
+            CompletableFuture<Void> existing = inFlight.putIfAbsent(key, own);
+            if (existing == null) {
+                try {
+                    return claimAndCreate(key, command, requestHash);
+                } finally {
+                    inFlight.remove(key, own);
+                    own.complete(null);
+                }
+            }
+            // the first request has stored its response now, or failed and left the key to this one
+            existing.join();
+        }
+    }
+
+    /**
+     * Removes keys older than the TTL, their requests are no longer deduplicated.
+     *
+     * @return the number of removed keys
+     */
+    public int purge() {
+        int deleted = idempotencyKeyRepository.deleteCreatedBefore(Instant.now().minus(properties.getTtl()));
+        if (deleted > 0) {
+            log.info("ProductIdempotencyService | purge | Deleted " + deleted + " expired idempotency keys");
+        }
+        return deleted;
+    }
+
+    private Result claimAndCreate(String key, ProductCommand command, byte[] requestHash) {
+        Result result = transactionTemplate.execute(status -> {
+            while (!idempotencyKeyRepository.claim(key, requestHash)) {
+                Optional<IdempotentResponse> stored = idempotencyKeyRepository.find(key);
+                if (stored.isPresent()) {
+                    databaseReplays.increment();
+                    responses.put(key, stored.get());
+                    return replay(key, requestHash, stored.get());
+                }
+                // purged between the two statements, the key is free again
+            }
+            Product product = productService.create(command);
+            ProductQuery query = productMapper.fromProductToQuery(product);
+            idempotencyKeyRepository.complete(key, product.getId(), write(query), product.getUpdatedAt());
+            return new Result(query, product.getUpdatedAt(), false);
+        });
+        if (!result.replayed()) {
+            // only a committed response may be replayed
+            responses.put(key, new IdempotentResponse(requestHash, write(result.product()), result.lastModified()));
+        }
+        return result;
+    }
+
+    private Result replay(String key, byte[] requestHash, IdempotentResponse stored) {
+        if (!Arrays.equals(requestHash, stored.requestHash())) {
+            log.error("ProductIdempotencyService | replay | Idempotency key reused with another request: " + key);
+            throw new IdempotencyKeyReusedException("Ключ Idempotency-Key: " + key
+                    + " уже использован с другим телом запроса");
+        }
+        try {
+            return new Result(objectMapper.readValue(stored.body(), ProductQuery.class), stored.lastModified(), true);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private byte[] hash(ProductCommand command) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(command));
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String write(ProductQuery query) {
+        try {
+            return objectMapper.writeValueAsString(query);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
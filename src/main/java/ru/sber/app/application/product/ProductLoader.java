@@ -0,0 +1,156 @@
+package ru.sber.app.application.product;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.infrastructure.config.ProductLoaderProperties;
+import ru.sber.app.infrastructure.jdbc.ReadYourWrites;
+import ru.sber.app.infrastructure.repository.ProductRepository;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Loads products by ID so that concurrent lookups share database round trips. A lookup of a product that is
+ * already being loaded waits for that load instead of issuing its own query (single flight). Loads are shared
+ * by every caller, whether it requires the primary ({@code ReadYourWrites}) or not, because they always read
+ * the primary.
+ * <p>
+ * With {@code app.product.loader.batch-window} the first lookup waits up to the window for lookups of other
+ * products and loads all of them with one {@code id = any(?)} query; a batch of {@code max-batch-size} products
+ * is loaded at once. The window adds up to its length to the latency of every lookup that misses the cache,
+ * {@code product.loader.batch.*} metrics show what it buys in database load.
+ */
+@Component
+public class ProductLoader {
+    private final ProductRepository productRepository;
+    private final ProductLoaderProperties properties;
+    private final ConcurrentMap<Integer, CompletableFuture<Optional<Product>>> inFlight = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private Batch pending;
+
+    private final DistributionSummary batchSize;
+    private final Timer batchWait;
+    private final Counter coalesced;
+
+    public ProductLoader(ProductRepository productRepository, ProductLoaderProperties properties,
+                         MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.properties = properties;
+        this.batchSize = DistributionSummary.builder("product.loader.batch.size")
+                .description("Distinct products loaded by one query")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.batchWait = Timer.builder("product.loader.batch.wait")
+                .description("Time from the first lookup of a batch until its query starts")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("product.loader.coalesced")
+                .description("Lookups served by a query issued for another lookup of the same product")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the product with the given ID, or an empty optional if there is none
+     */
+    public Optional<Product> load(Integer productId) {
+        CompletableFuture<Optional<Product>> own = new CompletableFuture<>();
+        CompletableFuture<Optional<Product>> existing = inFlight.putIfAbsent(productId, own);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+        if (properties.getBatchWindow().isZero()) {
+            Batch batch = new Batch();
+            batch.futures.put(productId, own);
+            run(batch);
+        } else {
+            enqueue(productId, own);
+        }
+        return await(own);
+    }
+
+    private void enqueue(Integer productId, CompletableFuture<Optional<Product>> future) {
+        Batch batch;
+        boolean leader = false;
+        synchronized (lock) {
+            if (pending == null) {
+                pending = new Batch();
+                leader = true;
+            }
+            batch = pending;
+            batch.futures.put(productId, future);
+            if (batch.futures.size() >= properties.getMaxBatchSize()) {
+                pending = null;
+                batch.closed.countDown();
+            }
+        }
+        if (leader) {
+            try {
+                batch.closed.await(properties.getBatchWindow().toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (lock) {
+                if (pending == batch) {
+                    pending = null;
+                }
+            }
+            run(batch);
+        }
+    }
+
+    private void run(Batch batch) {
+        batchWait.record(System.nanoTime() - batch.started, TimeUnit.NANOSECONDS);
+        batchSize.record(batch.futures.size());
+        Map<Integer, Product> products;
+        try {
+            // the products are cached, so a replica that has not replayed the last write must not serve them
+            List<Product> loaded = ReadYourWrites.onPrimary(() -> batch.futures.size() == 1
+                    ? productRepository.findById(batch.futures.keySet().iterator().next()).stream().toList()
+                    : productRepository.findAllByIdAny(batch.futures.keySet().toArray(Integer[]::new)));
+            products = loaded.stream().collect(Collectors.toMap(Product::getId, Function.identity()));
+        } catch (RuntimeException e) {
+            batch.futures.forEach((productId, future) -> {
+                inFlight.remove(productId, future);
+                future.completeExceptionally(e);
+            });
+            return;
+        }
+        // later lookups start a new load, so they see writes committed after this one
+        batch.futures.forEach((productId, future) -> {
+            inFlight.remove(productId, future);
+            future.complete(Optional.ofNullable(products.get(productId)));
+        });
+    }
+
+    private static Optional<Product> await(CompletableFuture<Optional<Product>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Batch {
+        private final long started = System.nanoTime();
+        private final Map<Integer, CompletableFuture<Optional<Product>>> futures = new LinkedHashMap<>();
+        private final CountDownLatch closed = new CountDownLatch(1);
+    }
+}
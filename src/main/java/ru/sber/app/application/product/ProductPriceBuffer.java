@@ -0,0 +1,341 @@
+package ru.sber.app.application.product;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.sber.app.domain.event.ProductEventType;
+import ru.sber.app.infrastructure.admission.AdmissionRejectedException;
+import ru.sber.app.infrastructure.cache.ProductCacheInvalidationPublisher;
+import ru.sber.app.infrastructure.config.CacheConfig;
+import ru.sber.app.infrastructure.config.ProductPriceBufferProperties;
+import ru.sber.app.infrastructure.repository.ProductCacheInvalidator;
+import ru.sber.app.infrastructure.repository.ProductEventRepository;
+import ru.sber.app.infrastructure.repository.ProductRepository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for price updates. Prices are kept in memory per product, a later price replaces an earlier
+ * one, and every {@code app.product.price-buffer.flush-interval} all of them are written with one statement in one
+ * transaction that also records the {@code UPDATED} events and tells other instances to evict the products.
+ * <p>
+ * The buffer holds at most {@code capacity} products: a full buffer is flushed at once and updates of further
+ * products wait for it up to {@code offer-timeout}, then fail with 503. A failed flush keeps its prices for the
+ * next one. The buffer stops after the web server, so the last flush sees every accepted update.
+ * <p>
+ * Pending prices live in this instance only: {@link #findPending} lets reads here see them, other instances
+ * see a price once it is flushed. A full update or a delete of a product drops its pending price, see
+ * {@link #discard}.
+ */
+@Slf4j
+@Component
+public class ProductPriceBuffer implements SmartLifecycle {
+    static final String THREAD_NAME = "product-price-buffer";
+
+    private final ProductRepository productRepository;
+    private final ProductEventRepository productEventRepository;
+    private final ProductCacheInvalidator productCacheInvalidator;
+    private final ProductCacheInvalidationPublisher productCacheInvalidationPublisher;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductPriceBufferProperties properties;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition flushDue = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    private Map<Integer, Float> pending = new HashMap<>();
+    private Map<Integer, Float> flushing = Map.of();
+    private volatile Thread thread;
+
+    private final Counter coalesced;
+    private final Counter rejected;
+    private final Timer flushes;
+
+    public ProductPriceBuffer(ProductRepository productRepository, ProductEventRepository productEventRepository,
+                              ProductCacheInvalidator productCacheInvalidator,
+                              ProductCacheInvalidationPublisher productCacheInvalidationPublisher,
+                              CacheManager cacheManager, TransactionTemplate transactionTemplate,
+                              ProductPriceBufferProperties properties, MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.productEventRepository = productEventRepository;
+        this.productCacheInvalidator = productCacheInvalidator;
+        this.productCacheInvalidationPublisher = productCacheInvalidationPublisher;
+        this.cacheManager = cacheManager;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        Gauge.builder("product.price.buffer.pending", this, ProductPriceBuffer::size)
+                .description("Products with a price not yet written to the database")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("product.price.buffer.coalesced")
+                .description("Price updates that replaced a pending price of the same product")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("product.price.buffer.rejected")
+                .description("Price updates rejected because the buffer stayed full")
+                .register(meterRegistry);
+        this.flushes = Timer.builder("product.price.buffer.flush")
+                .description("Writes of the pending prices to the database")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Accepts a new price of a product, to be written with the next flush.
+     *
+     * @throws IllegalArgumentException if the price is missing
+     * @throws AdmissionRejectedException if the buffer stays full for {@code offer-timeout} or is stopped
+     */
+    public void put(Integer productId, Float price) {
+        if (price == null) {
+            log.error("ProductPriceBuffer | put | Price of product with id: " + productId + " is missing");
+            throw new IllegalArgumentException("Цена товара не задана");
+        }
+        lock.lock();
+        try {
+            long nanos = properties.getOfferTimeout().toNanos();
+            while (!pending.containsKey(productId) && pending.size() >= properties.getCapacity()) {
+                flushDue.signal();
+                if (nanos <= 0 || thread == null) {
+                    rejected.increment();
+                    log.error("ProductPriceBuffer | put | Buffer is full, price of product with id: "
+                            + productId + " rejected");
+                    throw new AdmissionRejectedException(HttpStatus.SERVICE_UNAVAILABLE,
+                            properties.getFlushInterval(), "Слишком много необработанных изменений цен");
+                }
+                nanos = awaitNanos(notFull, nanos);
+            }
+            if (thread == null) {
+                // the last flush has run or is running, a price accepted now could be lost
+                throw new AdmissionRejectedException(HttpStatus.SERVICE_UNAVAILABLE,
+                        properties.getFlushInterval(), "Изменения цен не принимаются");
+            }
+            if (pending.put(productId, price) != null) {
+                coalesced.increment();
+            }
+            if (pending.size() >= properties.getCapacity()) {
+                flushDue.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the price of the product that is accepted but may not be written yet, or {@code null} if there is none
+     */
+    public Float findPending(Integer productId) {
+        lock.lock();
+        try {
+            Float price = pending.get(productId);
+            return price != null ? price : flushing.get(productId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops the pending price of a product before it is written in full or deleted, so that the older price does
+     * not overwrite the newer write. Waits for a flush that is writing the product already.
+     */
+    public void discard(Integer productId) {
+        lock.lock();
+        try {
+            pending.remove(productId);
+            while (flushing.containsKey(productId)) {
+                flushed.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes all pending prices now.
+     *
+     * @return whether the write succeeded; on failure the prices stay pending
+     */
+    public boolean flush() {
+        Map<Integer, Float> batch;
+        lock.lock();
+        try {
+            // the next flush waits for this one, so a product is never written by two transactions at once
+            while (!flushing.isEmpty()) {
+                flushed.awaitUninterruptibly();
+            }
+            if (pending.isEmpty()) {
+                return true;
+            }
+            batch = pending;
+            flushing = batch;
+            pending = new HashMap<>();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        boolean written = false;
+        try {
+            flushes.record(() -> write(batch));
+            written = true;
+        } catch (RuntimeException e) {
+            log.error("ProductPriceBuffer | flush | Prices of " + batch.size() + " products not written: "
+                    + e.getMessage());
+        } finally {
+            lock.lock();
+            try {
+                if (!written) {
+                    batch.forEach(pending::putIfAbsent);
+                }
+                flushing = Map.of();
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return written;
+    }
+
+    private void write(Map<Integer, Float> batch) {
+        // rows are locked in ID order, so concurrent flushes on several instances cannot deadlock
+        Map<Integer, Float> prices = new TreeMap<>(batch);
+        List<Integer> updated = transactionTemplate.execute(status -> {
+            prices.keySet().forEach(productCacheInvalidator::beforeWrite);
+            List<Integer> ids = productRepository.updatePrices(prices.keySet().toArray(Integer[]::new),
+                    prices.values().toArray(Float[]::new));
+            if (!ids.isEmpty()) {
+                productEventRepository.appendSnapshots(ProductEventType.UPDATED, ids);
+                productCacheInvalidationPublisher.publish(ids);
+            }
+            return ids;
+        });
+        if (updated != null && !updated.isEmpty()) {
+            Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+            if (products != null) {
+                updated.forEach(products::evict);
+            }
+            Cache pages = cacheManager.getCache(CacheConfig.PRODUCT_PAGES);
+            if (pages != null) {
+                pages.clear();
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        // assigned before the thread starts: run() exits as soon as it is not the current flusher
+        Thread flusher = Thread.ofPlatform().name(THREAD_NAME).daemon().unstarted(this::run);
+        thread = flusher;
+        flusher.start();
+    }
+
+    /**
+     * Stops the periodic flushes and writes what is still pending, retrying for {@code shutdown-timeout}.
+     * Prices that could not be written are logged.
+     */
+    @Override
+    public void stop() {
+        Thread running = thread;
+        lock.lock();
+        try {
+            thread = null;
+            flushDue.signal();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (running != null) {
+            try {
+                running.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        long deadline = System.nanoTime() + properties.getShutdownTimeout().toNanos();
+        while (!flush()) {
+            if (System.nanoTime() - deadline >= 0 || !sleep()) {
+                lock.lock();
+                try {
+                    log.error("ProductPriceBuffer | stop | Prices not written at shutdown: " + pending);
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return thread != null;
+    }
+
+    /**
+     * Started before and stopped after the web server, whose phase is above this one.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return pending.size() + flushing.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        while (thread == Thread.currentThread()) {
+            lock.lock();
+            try {
+                if (pending.size() < properties.getCapacity()) {
+                    awaitNanos(flushDue, properties.getFlushInterval().toNanos());
+                }
+                if (thread != Thread.currentThread()) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (!flush() && !sleep()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Waits one interval after a failed flush, so that a full buffer does not retry in a busy loop.
+     */
+    private boolean sleep() {
+        try {
+            Thread.sleep(properties.getFlushInterval());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static long awaitNanos(Condition condition, long nanos) {
+        try {
+            return condition.awaitNanos(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package ru.sber.app.application.product;
+
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.sber.app.application.product.mapper.ProductMapper;
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.infrastructure.cache.ProductCacheEvictor;
+import ru.sber.app.infrastructure.repository.ProductReactiveRepository;
+import ru.sber.app.presentation.web.controller.product.dto.commands.ProductCommand;
+
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link ProductService} over R2DBC, with the same validation and errors.
+ * Writes bypass the caches {@link ProductService} reads through, so after every successful write the product is
+ * evicted from the caches of this instance; other instances are notified by the write statement itself.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ProductReactiveService {
+    private final ProductReactiveRepository productReactiveRepository;
+    private final ProductMapper productMapper;
+    private final ProductCacheEvictor productCacheEvictor;
+    private final ProductPriceBuffer productPriceBuffer;
+
+    /**
+     * Retrieves one page of products ordered by ID using keyset pagination.
+     *
+     * @param after the ID of the last product of the previous page, or {@code null} for the first page
+     * @param limit the maximum number of products in the page
+     * @return a slice of products with IDs greater than {@code after}
+     * @throws IllegalArgumentException if the limit is outside of {@code [1, MAX_PAGE_SIZE]}
+     */
+    public Mono<Slice<Product>> findAll(Integer after, int limit){
+        if (limit < 1 || limit > ProductService.MAX_PAGE_SIZE) {
+            log.error("ProductReactiveService | findAll | Invalid page limit: " + limit);
+            return Mono.error(new IllegalArgumentException(
+                    "Параметр limit должен быть в диапазоне от 1 до " + ProductService.MAX_PAGE_SIZE));
+        }
+        return productReactiveRepository.findByIdGreaterThanOrderByIdAsc(after == null ? 0 : after, limit + 1)
+                .collectList()
+                .map(products -> {
+                    boolean hasNext = products.size() > limit;
+                    List<Product> content = hasNext ? products.subList(0, limit) : products;
+                    return new SliceImpl<>(content, Pageable.ofSize(limit), hasNext);
+                });
+    }
+
+    /**
+     * Streams all products ordered by ID. Rows are read from the database only as fast as the subscriber
+     * requests them, so a slow client holds back the query instead of making the server buffer the table.
+     *
+     * @return all products ordered by ID
+     */
+    public Flux<Product> exportAll(){
+        return productReactiveRepository.streamAllOrderById();
+    }
+
+    /**
+     * Retrieves a product by its ID.
+     *
+     * @param productId the ID of the product to retrieve
+     * @return the product with the specified ID
+     * @throws EntityNotFoundException if the product with the given ID is not found
+     */
+    public Mono<Product> findById(Integer productId){
+        return productReactiveRepository.findById(productId)
+                .switchIfEmpty(Mono.error(() -> {
+                    log.error("ProductReactiveService | findById | Product with id: " + productId + " not found");
+                    return new EntityNotFoundException("Продукт с id: " + productId + " не найден");
+                }));
+    }
+
+    /**
+     * Creates a new product based on the provided command.
+     *
+     * @param command the command containing the information for creating the product
+     * @return the newly created product
+     */
+    public Mono<Product> create(ProductCommand command) {
+        return productReactiveRepository.insert(productMapper.fromCommandToProduct(command))
+                .doOnNext(product -> productCacheEvictor.evict(product.getId()));
+    }
+
+    /**
+     * Updates the product with the specified ID in a single UPDATE ... RETURNING statement.
+     * If the command carries a version, the update only succeeds while the stored version still matches it.
+     * A pending price of the product is dropped.
+     *
+     * @param productId the ID of the product to update
+     * @param command the command containing the information for updating the product
+     * @return the updated product
+     * @throws EntityNotFoundException if the product with the given ID is not found
+     * @throws ObjectOptimisticLockingFailureException if the product was modified after the given version
+     */
+    public Mono<Product> update(Integer productId, ProductCommand command){
+        return discardPendingPrice(productId)
+                .then(productReactiveRepository.updateReturning(productId, command.getTitle(),
+                        command.getDescription(), command.getPrice(), command.getVersion()))
+                .doOnNext(product -> productCacheEvictor.evict(productId))
+                .switchIfEmpty(Mono.defer(() -> command.getVersion() == null
+                        ? Mono.just(false)
+                        : productReactiveRepository.existsById(productId))
+                        .flatMap(exists -> {
+                            if (exists) {
+                                log.error("ProductReactiveService | update | Product with id: " + productId
+                                        + " was modified after version " + command.getVersion());
+                                return Mono.error(new ObjectOptimisticLockingFailureException(Product.class, productId));
+                            }
+                            log.error("ProductReactiveService | update | Product with id: " + productId + " not found");
+                            return Mono.error(new EntityNotFoundException("Продукт с id: " + productId + " не найден"));
+                        }));
+    }
+
+    /**
+     * Deletes the product with the specified ID with a single DELETE statement. A pending price of the product
+     * is dropped.
+     *
+     * @param productId the ID of the product to delete
+     * @throws EntityNotFoundException if the product with the given ID is not found
+     */
+    public Mono<Void> delete(Integer productId){
+        return discardPendingPrice(productId)
+                .then(productReactiveRepository.deleteProductById(productId))
+                .flatMap(deleted -> {
+                    if (deleted == 0) {
+                        log.error("ProductReactiveService | delete | Product with id: " + productId + " not found");
+                        return Mono.error(new EntityNotFoundException("Продукт с id: " + productId + " не найден"));
+                    }
+                    productCacheEvictor.evict(productId);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Drops a pending price of the product before it is written. Discarding waits for a flush of the product
+     * in progress, so it runs off the event loop.
+     */
+    private Mono<Void> discardPendingPrice(Integer productId) {
+        return Mono.<Void>fromRunnable(() -> productPriceBuffer.discard(productId))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -1,39 +1,154 @@
 package ru.sber.app.application.product;
 
+import io.micrometer.observation.annotation.Observed;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.sber.app.application.product.mapper.ProductMapper;
 import ru.sber.app.domain.entity.Product;
+import ru.sber.app.domain.event.ProductEventType;
+import ru.sber.app.infrastructure.cache.ProductCacheInvalidationPublisher;
+import ru.sber.app.infrastructure.config.CacheConfig;
+import ru.sber.app.infrastructure.jdbc.ReadYourWrites;
+import ru.sber.app.infrastructure.repository.ProductCacheInvalidator;
+import ru.sber.app.infrastructure.repository.ProductEventRepository;
+import ru.sber.app.infrastructure.repository.ProductKeyset;
 import ru.sber.app.infrastructure.repository.ProductRepository;
+import ru.sber.app.infrastructure.repository.ProductSortField;
+import ru.sber.app.infrastructure.repository.ProductSpecifications;
+import ru.sber.app.infrastructure.repository.ProductVersion;
 import ru.sber.app.presentation.web.controller.product.dto.commands.ProductCommand;
+import ru.sber.app.presentation.web.controller.product.dto.commands.ProductSearchCommand;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductQuery;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
 @Service
+@Observed(name = "product.service")
 @Slf4j
 @RequiredArgsConstructor
 public class ProductService {
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final CacheManager cacheManager;
+    private final ProductEventRepository productEventRepository;
+    private final ProductCacheInvalidator productCacheInvalidator;
+    private final ProductCacheInvalidationPublisher productCacheInvalidationPublisher;
+    private final ProductLoader productLoader;
+    private final ProductPriceBuffer productPriceBuffer;
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int MIN_SEARCH_TEXT_LENGTH = 3;
+
     /**
-     * Retrieves all products from the repository.
+     * Retrieves one page of products ordered by ID using keyset pagination.
+     * The first page of each size is cached until the next write; other pages are served by the Hibernate query cache.
+     * Both caches are filled from the primary, never from a replica that has not replayed the last write yet.
      *
-     * @return a list of all products
+     * @param after the ID of the last product of the previous page, or {@code null} for the first page
+     * @param limit the maximum number of products in the page
+     * @return a slice of products with IDs greater than {@code after}
+     * @throws IllegalArgumentException if the limit is outside of {@code [1, MAX_PAGE_SIZE]}
      */
-    public List<Product> findAll(){
-        return productRepository.findAll();
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.PRODUCT_PAGES, key = "#limit", condition = "#after == null", sync = true)
+    public Slice<Product> findAll(Integer after, int limit){
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            log.error("ProductService | findAll | Invalid page limit: " + limit);
+            throw new IllegalArgumentException("Параметр limit должен быть в диапазоне от 1 до " + MAX_PAGE_SIZE);
+        }
+        List<Product> products = ReadYourWrites.onPrimary(() -> productRepository.findByIdGreaterThanOrderByIdAsc(
+                after == null ? 0 : after, Limit.of(limit + 1)));
+        boolean hasNext = products.size() > limit;
+        List<Product> content = hasNext ? products.subList(0, limit) : products;
+        return new SliceImpl<>(content, Pageable.ofSize(limit), hasNext);
     }
 
     /**
-     * Retrieves a product by its ID from the repository.
+     * Searches products by text and price range with keyset pagination over the requested sort order.
+     * Text shorter than {@code MIN_SEARCH_TEXT_LENGTH} is rejected because the trigram index cannot serve it.
+     * Parameters passed empty fall back to their defaults: {@code DEFAULT_PAGE_SIZE} products sorted by ID ascending.
+     *
+     * @param command the search filters, sort order, page size and the cursor of the previous page
+     * @return a slice of matching products projected to {@link ProductQuery}
+     * @throws IllegalArgumentException if the limit, the text or the cursor is invalid
+     */
+    @Transactional(readOnly = true)
+    public Slice<ProductQuery> search(ProductSearchCommand command){
+        int limit = command.getLimit() != null ? command.getLimit() : DEFAULT_PAGE_SIZE;
+        ProductSortField sortField = command.getSort() != null ? command.getSort() : ProductSortField.ID;
+        Sort.Direction direction = command.getDirection() != null ? command.getDirection() : Sort.Direction.ASC;
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            log.error("ProductService | search | Invalid page limit: " + limit);
+            throw new IllegalArgumentException("Параметр limit должен быть в диапазоне от 1 до " + MAX_PAGE_SIZE);
+        }
+        String text = command.getText();
+        if (text != null && !text.isBlank() && text.trim().length() < MIN_SEARCH_TEXT_LENGTH) {
+            log.error("ProductService | search | Search text is too short: " + text);
+            throw new IllegalArgumentException("Поисковая строка должна содержать не менее "
+                    + MIN_SEARCH_TEXT_LENGTH + " символов");
+        }
+        ProductKeyset after = command.getCursor() == null ? null
+                : ProductKeyset.decode(command.getCursor(), sortField);
+        Sort sort = sortField == ProductSortField.ID
+                ? Sort.by(direction, "id")
+                : Sort.by(direction, sortField.getAttribute(), "id");
+        List<ProductQuery> products = productRepository.search(Specification.allOf(
+                ProductSpecifications.textContains(text),
+                ProductSpecifications.priceFrom(command.getMinPrice()),
+                ProductSpecifications.priceTo(command.getMaxPrice()),
+                ProductSpecifications.after(after, direction)), sort, limit + 1);
+        boolean hasNext = products.size() > limit;
+        List<ProductQuery> content = hasNext ? products.subList(0, limit) : products;
+        return new SliceImpl<>(content, Pageable.ofSize(limit), hasNext);
+    }
+
+    /**
+     * Streams all products ordered by ID from a database cursor to the given consumer.
+     * Rows are projected to {@link ProductQuery} without loading entities, so memory usage does not grow with
+     * the table size and every row costs one small object.
+     *
+     * @param consumer the consumer receiving products one by one
+     */
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<ProductQuery> consumer){
+        try (Stream<ProductQuery> products = productRepository.streamAllQueriesOrderById()) {
+            products.forEach(consumer);
+        }
+    }
+
+    /**
+     * Retrieves a product by its ID from the cache or, on a miss, through the {@link ProductLoader}.
+     * Concurrent misses for the same ID are served by a single repository call, misses for different IDs
+     * may share one query when the loader batches. The cache lookup is not synchronized: the loader already
+     * coalesces the misses, and a synchronized Caffeine lookup would hold a lock of the cache map through the
+     * batch window.
      *
      * @param productId the ID of the product to retrieve
      * @return the product with the specified ID
      * @throws EntityNotFoundException if the product with the given ID is not found
      */
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS, key = "#productId")
     public Product findById(Integer productId){
-        Product product = productRepository.findById(productId).orElseThrow(() -> {
+        Product product = productLoader.load(productId).orElseThrow(() -> {
             log.error("ProductService | findById | Product with id: " + productId + " not found");
             return new EntityNotFoundException("Продукт с id: " + productId + " не найден");
             }
@@ -41,48 +156,147 @@ public class ProductService {
         return product;
 
     }
+    /**
+     * Retrieves the version and the modification time of a product, so clients can revalidate their copy cheaply.
+     * A cached product answers directly; otherwise only these two columns are read and the cache is left untouched.
+     *
+     * @param productId the ID of the product
+     * @return the current version of the product
+     * @throws EntityNotFoundException if the product with the given ID is not found
+     */
+    public ProductVersion findVersion(Integer productId){
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS);
+        Product cached = cache == null ? null : cache.get(productId, Product.class);
+        if (cached != null) {
+            return new ProductVersion(cached.getVersion(), cached.getUpdatedAt());
+        }
+        return productRepository.findVersionById(productId).orElseThrow(() -> {
+            log.error("ProductService | findVersion | Product with id: " + productId + " not found");
+            return new EntityNotFoundException("Продукт с id: " + productId + " не найден");
+        });
+    }
     /**
      * Creates a new product based on the provided command and saves it to the repository.
+     * A {@code CREATED} event is recorded and other instances are told to drop their cached pages
+     * in the same transaction.
      *
      * @param command the command containing the information for creating the product
      * @return the newly created product
      */
+    @Transactional
+    @Caching(
+            put = @CachePut(cacheNames = CacheConfig.PRODUCTS, key = "#result.id"),
+            evict = @CacheEvict(cacheNames = CacheConfig.PRODUCT_PAGES, allEntries = true)
+    )
     public Product create(ProductCommand command) {
-        Product product = productMapper.fromCommandToProduct(command);
-        return productRepository.save(product);
+        Product product = productRepository.saveAndFlush(productMapper.fromCommandToProduct(command));
+        productEventRepository.appendSnapshots(ProductEventType.CREATED, List.of(product.getId()));
+        productCacheInvalidationPublisher.publish(List.of(product.getId()));
+        return product;
     }
     /**
-     * Updates the product with the specified ID based on the provided command and saves it to the repository.
+     * Updates the product with the specified ID in a single UPDATE ... RETURNING statement.
+     * If the command carries a version, the update only succeeds while the stored version still matches it.
+     * An {@code UPDATED} event is recorded and other instances are told to evict the product in the same
+     * transaction. The statement bypasses Hibernate, so the second-level cache is invalidated explicitly.
+     * A price of the product still pending in the {@link ProductPriceBuffer} is dropped, this write replaces it.
      *
      * @param productId the ID of the product to update
      * @param command the command containing the information for updating the product
      * @return the updated product
      * @throws EntityNotFoundException if the product with the given ID is not found
+     * @throws ObjectOptimisticLockingFailureException if the product was modified after the given version
      */
+    @Transactional
+    @Caching(
+            put = @CachePut(cacheNames = CacheConfig.PRODUCTS, key = "#productId"),
+            evict = @CacheEvict(cacheNames = CacheConfig.PRODUCT_PAGES, allEntries = true)
+    )
     public Product update(Integer productId, ProductCommand command ){
-        Product product = productRepository.findById(productId).orElseThrow(() -> {
+        productPriceBuffer.discard(productId);
+        productCacheInvalidator.beforeWrite(productId);
+        Product product = productRepository.updateReturning(productId, command.getTitle(), command.getDescription(),
+                command.getPrice(), command.getVersion()).orElseThrow(() -> {
+                    if (command.getVersion() != null && productRepository.existsById(productId)) {
+                        log.error("ProductService | update | Product with id: " + productId
+                                + " was modified after version " + command.getVersion());
+                        return new ObjectOptimisticLockingFailureException(Product.class, productId);
+                    }
                     log.error("ProductService | update | Product with id: " + productId + " not found");
                     return new EntityNotFoundException("Продукт с id: " + productId + " не найден");
                 }
         );
-        Product updateProduct = productMapper.fromCommandToProduct(command);
-        updateProduct.setId(productId);
-        log.debug(updateProduct.toString());
-        return productRepository.save(updateProduct);
+        productEventRepository.appendSnapshots(ProductEventType.UPDATED, List.of(productId));
+        productCacheInvalidationPublisher.publish(List.of(productId));
+        return product;
     }
     /**
-     * Deletes the product with the specified ID from the repository.
+     * Deletes the product with the specified ID from the repository with a single DELETE statement.
+     * A {@code DELETED} event is recorded and other instances are told to evict the product in the same
+     * transaction. A price of the product still pending in the {@link ProductPriceBuffer} is dropped.
      *
      * @param productId the ID of the product to delete
      * @throws EntityNotFoundException if the product with the given ID is not found
      */
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#productId"),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_PAGES, allEntries = true)
+    })
     public void delete(Integer productId){
-        Product product = productRepository.findById(productId).orElseThrow(() -> {
-                    log.error("ProductService | delete | Product with id: " + productId + " not found");
-                    return new EntityNotFoundException("Продукт с id: " + productId + " не найден");
-                }
-        );
-        productRepository.delete(product);
+        productPriceBuffer.discard(productId);
+        if (productRepository.deleteProductById(productId) == 0) {
+            log.error("ProductService | delete | Product with id: " + productId + " not found");
+            throw new EntityNotFoundException("Продукт с id: " + productId + " не найден");
+        }
+        productEventRepository.appendDeleted(List.of(productId));
+        productCacheInvalidationPublisher.publish(List.of(productId));
+    }
+    /**
+     * Moves the active product with the specified ID to the archived partition, where reads no longer see it.
+     * For consumers of the event stream the product is gone, so a {@code DELETED} event is recorded and other
+     * instances are told to evict the product in the same transaction. A pending price of the product is dropped.
+     *
+     * @param productId the ID of the product to archive
+     * @throws EntityNotFoundException if there is no active product with the given ID
+     */
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#productId"),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_PAGES, allEntries = true)
+    })
+    public void archive(Integer productId){
+        productPriceBuffer.discard(productId);
+        productCacheInvalidator.beforeWrite(productId);
+        if (productRepository.archiveAll(new Integer[]{productId}).isEmpty()) {
+            log.error("ProductService | archive | Product with id: " + productId + " not found");
+            throw new EntityNotFoundException("Продукт с id: " + productId + " не найден");
+        }
+        productEventRepository.appendDeleted(List.of(productId));
+        productCacheInvalidationPublisher.publish(List.of(productId));
+    }
+    /**
+     * Moves the archived product with the specified ID back to the active partition with a new version.
+     * The product reappears in the event stream with a {@code CREATED} event.
+     *
+     * @param productId the ID of the product to restore
+     * @return the restored product
+     * @throws EntityNotFoundException if there is no archived product with the given ID
+     */
+    @Transactional
+    @Caching(
+            put = @CachePut(cacheNames = CacheConfig.PRODUCTS, key = "#productId"),
+            evict = @CacheEvict(cacheNames = CacheConfig.PRODUCT_PAGES, allEntries = true)
+    )
+    public Product restore(Integer productId){
+        productCacheInvalidator.beforeWrite(productId);
+        Product product = productRepository.restoreById(productId).orElseThrow(() -> {
+            log.error("ProductService | restore | Archived product with id: " + productId + " not found");
+            return new EntityNotFoundException("Архивный продукт с id: " + productId + " не найден");
+        });
+        productEventRepository.appendSnapshots(ProductEventType.CREATED, List.of(productId));
+        productCacheInvalidationPublisher.publish(List.of(productId));
+        return product;
     }
 
 
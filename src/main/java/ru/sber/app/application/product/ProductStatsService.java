@@ -0,0 +1,119 @@
+package ru.sber.app.application.product;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.sber.app.infrastructure.config.ProductStatsProperties;
+import ru.sber.app.infrastructure.repository.ProductPriceBucket;
+import ru.sber.app.infrastructure.repository.ProductPriceRange;
+import ru.sber.app.infrastructure.repository.ProductStatsRepository;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductPriceBucketQuery;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductStatsQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Catalog statistics for dashboards: the number of active products, their price range, average price and price
+ * histogram. Every write to {@code products} records its change of the per-bucket totals in its own transaction,
+ * so reading the statistics costs the same for any catalog size and never lags behind the committed writes.
+ * <p>
+ * The statistics are built with the bounds of {@code app.product.stats.price-buckets} before the web server starts;
+ * until then, and after a change of the bounds until the build, they stay with the bounds they were built with.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ProductStatsService implements SmartLifecycle {
+    private final ProductStatsRepository productStatsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductStatsProperties properties;
+    private volatile boolean running;
+
+    /**
+     * Returns the statistics of the active products, read from one snapshot.
+     *
+     * @return the product count, price range, average price and the histogram with a bucket per bound
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public ProductStatsQuery getStats() {
+        List<Float> bounds = productStatsRepository.findPriceBounds().orElse(List.of());
+        long[] counts = new long[bounds.size() + 1];
+        long products = 0;
+        double priceSum = 0;
+        for (ProductPriceBucket bucket : productStatsRepository.findBuckets()) {
+            counts[bucket.bucket()] = bucket.products();
+            products += bucket.products();
+            priceSum += bucket.priceSum();
+        }
+        List<ProductPriceBucketQuery> histogram = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            histogram.add(new ProductPriceBucketQuery(i == 0 ? null : bounds.get(i - 1),
+                    i == bounds.size() ? null : bounds.get(i), counts[i]));
+        }
+        ProductPriceRange range = productStatsRepository.findPriceRange();
+        return new ProductStatsQuery(products, range.min(), range.max(),
+                products == 0 ? null : priceSum / products, histogram);
+    }
+
+    /**
+     * Builds the statistics with the configured bucket bounds unless they are built with them already.
+     * A build scans the active products once and makes writes wait for it.
+     *
+     * @throws IllegalArgumentException if the bounds are not in ascending order
+     */
+    public void build() {
+        List<Float> bounds = properties.getPriceBuckets();
+        for (int i = 1; i < bounds.size(); i++) {
+            if (!(bounds.get(i - 1) < bounds.get(i))) {
+                log.error("ProductStatsService | build | Price bucket bounds are not ascending: " + bounds);
+                throw new IllegalArgumentException("Границы корзин цен app.product.stats.price-buckets должны "
+                        + "возрастать: " + bounds);
+            }
+        }
+        // checked without a lock first, the statistics are built already on every start but the first
+        Optional<List<Float>> built = productStatsRepository.findPriceBounds();
+        if (built.isPresent() && built.get().equals(bounds)) {
+            return;
+        }
+        if (Boolean.TRUE.equals(transactionTemplate.execute(status -> productStatsRepository.rebuild(bounds)))) {
+            log.info("ProductStatsService | build | Built product statistics with price buckets " + bounds);
+        }
+    }
+
+    /**
+     * Folds the changes recorded by writes into the totals, so readers add up only the recent ones.
+     */
+    public void compact() {
+        productStatsRepository.compact();
+    }
+
+    @Override
+    public void start() {
+        build();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Started before the web server, whose phase is above this one.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
@@ -0,0 +1,23 @@
+package ru.sber.app.application.product.event;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import ru.sber.app.domain.event.ProductEvent;
+import ru.sber.app.domain.event.ProductEventsPublished;
+
+import java.util.List;
+
+/**
+ * Delivers published events to in-process subscribers as a {@link ProductEventsPublished} application event.
+ */
+@Component
+@RequiredArgsConstructor
+public class ApplicationProductEventSink implements ProductEventSink {
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    @Override
+    public void publish(List<ProductEvent> events) {
+        applicationEventPublisher.publishEvent(new ProductEventsPublished(events));
+    }
+}
@@ -0,0 +1,216 @@
+package ru.sber.app.application.product.event;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.sber.app.domain.event.ProductEvent;
+import ru.sber.app.domain.event.ProductEventsPublished;
+import ru.sber.app.infrastructure.repository.ProductEventRepository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read side of the published product event stream: pages of events by stream position, live subscriptions
+ * and consumer offsets. Subscriptions are served by one dispatcher thread, woken up when this instance publishes
+ * a batch and by {@link #refresh()} for batches published by other instances. Subscribers at the same position
+ * share one database read per dispatch. Deliveries do not block the dispatcher: a subscriber still busy with
+ * earlier events is passed over and later catches up from the database.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductEventFeed {
+    public static final int MAX_LIMIT = 1000;
+
+    private final ProductEventRepository productEventRepository;
+
+    private final Set<ProductEventSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final AtomicLong latestSeq = new AtomicLong(-1);
+    private final AtomicBoolean dispatchPending = new AtomicBoolean();
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("product-event-feed").daemon().factory());
+
+    /**
+     * Retrieves published events following the given stream position.
+     *
+     * @param after the stream position of the last event the client has received
+     * @param limit the maximum number of events
+     * @return the events ordered by stream position
+     * @throws IllegalArgumentException if the limit is outside of {@code [1, MAX_LIMIT]}
+     * @throws ProductEventsPurgedException if events following the position are purged
+     */
+    public List<ProductEvent> findAfter(long after, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            log.error("ProductEventFeed | findAfter | Invalid limit: " + limit);
+            throw new IllegalArgumentException("Параметр limit должен быть в диапазоне от 1 до " + MAX_LIMIT);
+        }
+        List<ProductEvent> events = productEventRepository.findPublishedAfter(after, limit);
+        // a page continuing right after the position has skipped nothing
+        if (events.isEmpty() || events.get(0).seq() != after + 1) {
+            checkRetained(after);
+        }
+        return events;
+    }
+
+    /**
+     * Resolves where a client starts reading: an explicit position, the committed offset of a named consumer
+     * (the beginning of the retained stream for a new one) or, for anonymous clients, the end of the stream.
+     */
+    public long startPosition(Long after, String consumer) {
+        if (after != null) {
+            return after;
+        }
+        if (consumer != null) {
+            return productEventRepository.findOffset(consumer).orElse(0L);
+        }
+        return refreshLatestSeq();
+    }
+
+    /**
+     * Registers a subscription and delivers the events it has missed so far.
+     *
+     * @throws IllegalArgumentException if the subscription limit is outside of {@code [1, MAX_LIMIT]}
+     * @throws ProductEventsPurgedException if events following the subscription position are purged
+     */
+    public void subscribe(ProductEventSubscription subscription) {
+        if (subscription.limit() < 1 || subscription.limit() > MAX_LIMIT) {
+            log.error("ProductEventFeed | subscribe | Invalid limit: " + subscription.limit());
+            throw new IllegalArgumentException("Параметр limit должен быть в диапазоне от 1 до " + MAX_LIMIT);
+        }
+        checkRetained(subscription.after());
+        if (latestSeq.get() < 0) {
+            refreshLatestSeq();
+        }
+        subscriptions.add(subscription);
+        scheduleDispatch();
+    }
+
+    public void unsubscribe(ProductEventSubscription subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    /**
+     * Asks for another dispatch once a subscription passed over as not ready has caught up.
+     */
+    public void resume(ProductEventSubscription subscription) {
+        if (subscriptions.contains(subscription)) {
+            scheduleDispatch();
+        }
+    }
+
+    /**
+     * Picks up events published by other instances. Does nothing while there are no subscriptions.
+     */
+    public void refresh() {
+        if (!subscriptions.isEmpty()) {
+            refreshLatestSeq();
+            scheduleDispatch();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPublished(ProductEventsPublished published) {
+        List<ProductEvent> events = published.events();
+        if (!events.isEmpty()) {
+            latestSeq.accumulateAndGet(events.get(events.size() - 1).seq(), Math::max);
+            if (!subscriptions.isEmpty()) {
+                scheduleDispatch();
+            }
+        }
+    }
+
+    /**
+     * Retrieves the committed offset of a consumer.
+     *
+     * @throws EntityNotFoundException if the consumer has not committed an offset yet
+     */
+    public long findOffset(String consumer) {
+        return productEventRepository.findOffset(consumer).orElseThrow(() -> {
+            log.error("ProductEventFeed | findOffset | Offset of consumer: " + consumer + " not found");
+            return new EntityNotFoundException("Смещение потребителя " + consumer + " не найдено");
+        });
+    }
+
+    /**
+     * Commits the position a consumer has processed up to. An offset behind the committed one is ignored.
+     *
+     * @return the committed offset
+     * @throws IllegalArgumentException if the offset is negative
+     */
+    public long commitOffset(String consumer, long seq) {
+        if (seq < 0) {
+            log.error("ProductEventFeed | commitOffset | Invalid offset: " + seq);
+            throw new IllegalArgumentException("Смещение не может быть отрицательным");
+        }
+        return productEventRepository.saveOffset(consumer, seq);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdownNow();
+    }
+
+    /**
+     * Rejects a position older than the retained events, like {@code ProductDumpService.checkSince}. Position
+     * {@code 0} is the beginning of the retained stream, where new consumers start.
+     */
+    private void checkRetained(long after) {
+        if (after == 0) {
+            return;
+        }
+        Long earliest = productEventRepository.findEarliestSeq();
+        if (earliest == null || earliest > after + 1) {
+            log.error("ProductEventFeed | checkRetained | Events after " + after + " are purged");
+            throw new ProductEventsPurgedException("События после позиции " + after
+                    + " больше не хранятся, требуется полная синхронизация");
+        }
+    }
+
+    private long refreshLatestSeq() {
+        return latestSeq.accumulateAndGet(productEventRepository.findLatestSeq(), Math::max);
+    }
+
+    private void scheduleDispatch() {
+        if (dispatchPending.compareAndSet(false, true)) {
+            dispatcher.execute(this::dispatch);
+        }
+    }
+
+    private void dispatch() {
+        dispatchPending.set(false);
+        long latest = latestSeq.get();
+        Map<Long, List<ProductEvent>> pages = new HashMap<>();
+        for (ProductEventSubscription subscription : subscriptions) {
+            try {
+                while (subscription.after() < latest && subscription.isReady()) {
+                    List<ProductEvent> events = pages.computeIfAbsent(subscription.after(),
+                            after -> productEventRepository.findPublishedAfter(after, MAX_LIMIT));
+                    if (events.isEmpty()) {
+                        break;
+                    }
+                    List<ProductEvent> page = events.size() > subscription.limit()
+                            ? events.subList(0, subscription.limit())
+                            : events;
+                    if (!subscription.deliver(page)) {
+                        subscriptions.remove(subscription);
+                        break;
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.error("ProductEventFeed | dispatch | Subscription dropped: " + e.getMessage());
+                subscriptions.remove(subscription);
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package ru.sber.app.application.product.event;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.sber.app.domain.event.ProductEvent;
+import ru.sber.app.infrastructure.config.ProductEventProperties;
+import ru.sber.app.infrastructure.repository.ProductEventRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Publishes outbox events to every {@link ProductEventSink}. Each batch is numbered and handed to the sinks
+ * in one transaction under a database lock, so stream positions follow commit order across all instances.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductEventRelay {
+    private final ProductEventRepository productEventRepository;
+    private final List<ProductEventSink> sinks;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductEventProperties properties;
+
+    /**
+     * Publishes pending events batch by batch until the outbox is drained.
+     */
+    public void relay() {
+        int published;
+        do {
+            published = relayBatch();
+        } while (published == properties.getBatchSize());
+    }
+
+    /**
+     * Removes published events older than the retention.
+     */
+    public void purge() {
+        int deleted = productEventRepository.deletePublishedBefore(Instant.now().minus(properties.getRetention()));
+        if (deleted > 0) {
+            log.info("ProductEventRelay | purge | Deleted " + deleted + " published events");
+        }
+    }
+
+    private int relayBatch() {
+        List<ProductEvent> events = transactionTemplate.execute(status -> {
+            if (!productEventRepository.tryLockRelay()) {
+                return List.of();
+            }
+            List<ProductEvent> batch = productEventRepository.assignSequence(properties.getBatchSize());
+            if (!batch.isEmpty()) {
+                sinks.forEach(sink -> sink.publish(batch));
+            }
+            return batch;
+        });
+        return events == null ? 0 : events.size();
+    }
+}
@@ -0,0 +1,18 @@
+package ru.sber.app.application.product.event;
+
+import ru.sber.app.domain.event.ProductEvent;
+
+import java.util.List;
+
+/**
+ * Destination of published product events. Sinks are called by the relay inside its transaction:
+ * a failing sink rolls the batch back and it is published again, to every sink, on the next run.
+ * Sinks therefore see each event at least once and consumers deduplicate by {@link ProductEvent#id()}.
+ */
+public interface ProductEventSink {
+
+    /**
+     * @param events a batch of events ordered by their stream position
+     */
+    void publish(List<ProductEvent> events);
+}
@@ -0,0 +1,38 @@
+package ru.sber.app.application.product.event;
+
+import ru.sber.app.domain.event.ProductEvent;
+
+import java.util.List;
+
+/**
+ * A client tailing the product event stream through {@link ProductEventFeed}.
+ * Deliveries to one subscription never overlap.
+ */
+public interface ProductEventSubscription {
+
+    /**
+     * @return the stream position of the last event the client has received
+     */
+    long after();
+
+    /**
+     * @return the maximum number of events per delivery
+     */
+    int limit();
+
+    /**
+     * @return {@code false} while earlier deliveries are still being processed: the dispatcher passes the
+     * subscription over until it asks for another dispatch through {@link ProductEventFeed#resume}
+     */
+    default boolean isReady() {
+        return true;
+    }
+
+    /**
+     * Must not block the dispatcher: a slow client is served from a queue of its own.
+     *
+     * @param events the events following {@link #after()}, ordered by stream position
+     * @return {@code false} if the subscription is finished and should be removed
+     */
+    boolean deliver(List<ProductEvent> events);
+}
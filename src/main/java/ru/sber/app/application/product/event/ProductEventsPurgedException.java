@@ -0,0 +1,12 @@
+package ru.sber.app.application.product.event;
+
+/**
+ * A stream position older than the retained events: the events following it are purged, so reading on would
+ * silently skip them. Answered with {@code 410}, the client has to resynchronize, e.g. from a full export.
+ */
+public class ProductEventsPurgedException extends RuntimeException {
+
+    public ProductEventsPurgedException(String message) {
+        super(message);
+    }
+}
@@ -1,9 +1,14 @@
 package ru.sber.app.application.product.mapper;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
 import org.mapstruct.ReportingPolicy;
 import ru.sber.app.domain.entity.Product;
+import ru.sber.app.domain.event.ProductEvent;
+import ru.sber.app.presentation.web.controller.product.dto.commands.ProductBatchUpdateCommand;
 import ru.sber.app.presentation.web.controller.product.dto.commands.ProductCommand;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductEventQuery;
 import ru.sber.app.presentation.web.controller.product.dto.queries.ProductQuery;
 
 import java.util.List;
@@ -15,5 +20,13 @@ public interface ProductMapper {
 
     List<ProductQuery> fromProductsToQueries(List<Product> products);
 
+    @Mapping(target = "version", ignore = true)
     Product fromCommandToProduct(ProductCommand command);
+
+    @Mapping(target = "id", ignore = true)
+    void updateProductFromCommand(ProductBatchUpdateCommand command, @MappingTarget Product product);
+
+    ProductEventQuery fromEventToQuery(ProductEvent event);
+
+    List<ProductEventQuery> fromEventsToQueries(List<ProductEvent> events);
 }
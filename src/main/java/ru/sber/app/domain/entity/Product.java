@@ -2,6 +2,12 @@ package ru.sber.app.domain.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 
 @Entity
 @Getter
@@ -11,9 +17,19 @@ import lombok.*;
 @ToString
 @NoArgsConstructor
 @Table(name = "products")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product")
+// archived products are invisible to entity loads and queries, which also keeps them to the active partition
+@SQLRestriction("status = 'ACTIVE'")
 public class Product {
+    /**
+     * Ids reserved by one {@code nextval} of {@code products_seq}; the increment of the sequence must match it.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Integer id;
     @Column(nullable = false, length = 100)
     private String title;
@@ -21,5 +37,15 @@ public class Product {
     private String description;
     @Column(nullable = false)
     private Float price;
+    @Version
+    @Column(nullable = false)
+    private Integer version;
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private Instant updatedAt;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    @Builder.Default
+    private ProductStatus status = ProductStatus.ACTIVE;
 
 }
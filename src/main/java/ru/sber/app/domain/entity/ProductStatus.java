@@ -0,0 +1,15 @@
+package ru.sber.app.domain.entity;
+
+/**
+ * Lifecycle of a product, also the partition of {@code products} its row is stored in.
+ */
+public enum ProductStatus {
+    /**
+     * In the catalog: served by reads and open to writes.
+     */
+    ACTIVE,
+    /**
+     * Taken out of the catalog, kept in the cold partition until it is restored.
+     */
+    ARCHIVED
+}
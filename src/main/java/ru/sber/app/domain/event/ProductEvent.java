@@ -0,0 +1,17 @@
+package ru.sber.app.domain.event;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.Instant;
+
+/**
+ * A change of one product recorded in the outbox.
+ *
+ * @param seq       position in the published stream, {@code null} until the relay publishes the event
+ * @param id        outbox row ID, stable across redeliveries
+ * @param version   product version after the change, {@code null} for {@link ProductEventType#DELETED}
+ * @param payload   JSON snapshot of the product after the change, {@code null} for {@link ProductEventType#DELETED}
+ */
+public record ProductEvent(Long seq, Long id, Integer productId, ProductEventType type, Integer version,
+                           @JsonRawValue String payload, Instant createdAt) {
+}
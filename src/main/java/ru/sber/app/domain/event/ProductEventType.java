@@ -0,0 +1,7 @@
+package ru.sber.app.domain.event;
+
+public enum ProductEventType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,10 @@
+package ru.sber.app.domain.event;
+
+import java.util.List;
+
+/**
+ * Application event carrying one batch of published product events to in-process subscribers.
+ * Listeners that must only see committed batches use {@code @TransactionalEventListener}.
+ */
+public record ProductEventsPublished(List<ProductEvent> events) {
+}
@@ -0,0 +1,128 @@
+package ru.sber.app.infrastructure.admission;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limit on concurrent requests that follows their latency, after TCP Vegas. Latencies are averaged over windows of
+ * {@code window}; the lowest window average, drifting slowly upwards so that lasting changes are accepted, is the
+ * latency without queueing. From the ratio of the two the limit estimates how many requests are queued (in the
+ * database, the pool or on the CPU) and grows while that queue is short and the limit is actually used, shrinks
+ * when it grows long, and backs off multiplicatively when requests fail with overload (503, 504).
+ * <p>
+ * Averaging over windows keeps a fixed mix of fast cached and slow database requests from looking like congestion.
+ */
+public class AdaptiveConcurrencyLimit {
+    /**
+     * Share of the distance to the window average the baseline moves up by every window.
+     */
+    private static final double BASELINE_DRIFT = 0.002;
+    private static final int ALPHA = 3;
+    private static final int BETA = 6;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long windowNanos;
+    private final double backoffRatio;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    private long windowStart = System.nanoTime();
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private boolean windowDropped;
+    private double baselineNanos;
+
+    /**
+     * @param backoffRatio the factor the limit is multiplied by after a window with overload failures
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, Duration window,
+                                    double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowNanos = window.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * @return the number of requests in flight including this one, or {@code -1} if the limit is reached
+     */
+    public int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Releases a request without a latency sample, e.g. one that continues asynchronously.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Releases a request and accounts for its latency.
+     *
+     * @param rttNanos      how long the request took
+     * @param inFlightAtStart what {@link #tryAcquire()} returned for it
+     * @param dropped       whether it failed because something downstream was overloaded
+     */
+    public void release(long rttNanos, int inFlightAtStart, boolean dropped) {
+        inFlight.decrementAndGet();
+        synchronized (this) {
+            windowRttSum += rttNanos;
+            windowSamples++;
+            windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtStart);
+            windowDropped |= dropped;
+            long now = System.nanoTime();
+            if (now - windowStart >= windowNanos) {
+                update((double) windowRttSum / windowSamples);
+                windowStart = now;
+                windowRttSum = 0;
+                windowSamples = 0;
+                windowMaxInFlight = 0;
+                windowDropped = false;
+            }
+        }
+    }
+
+    private void update(double rtt) {
+        if (baselineNanos == 0 || rtt < baselineNanos) {
+            baselineNanos = rtt;
+        } else {
+            baselineNanos += (rtt - baselineNanos) * BASELINE_DRIFT;
+        }
+        int current = limit;
+        int step = (int) Math.max(1, Math.log10(current));
+        int next;
+        if (windowDropped) {
+            next = (int) (current * backoffRatio);
+        } else {
+            double queue = current * (1 - baselineNanos / rtt);
+            if (queue > BETA * step) {
+                next = current - step;
+            } else if (queue < ALPHA * step && windowMaxInFlight * 2 >= current) {
+                next = current + step;
+            } else {
+                next = current;
+            }
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,23 @@
+package ru.sber.app.infrastructure.admission;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+
+/**
+ * A request turned away under overload: {@code 429} when its client exceeded its rate, {@code 503} when the
+ * instance is at its concurrency limit or a write buffer stays full.
+ */
+@Getter
+public class AdmissionRejectedException extends RuntimeException {
+    private final HttpStatus status;
+    private final Duration retryAfter;
+
+    public AdmissionRejectedException(HttpStatus status, Duration retryAfter, String message) {
+        // thrown on every rejection under overload, the stack trace is never used
+        super(message, null, false, false);
+        this.status = status;
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,65 @@
+package ru.sber.app.infrastructure.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A token bucket per client: every client may send {@code burst} requests at once and {@code rate} requests per
+ * second on average. Buckets of clients that stay away long enough to refill are dropped.
+ */
+public class TokenBuckets {
+    private static final long MAX_CLIENTS = 100_000;
+
+    private final double rate;
+    private final double burst;
+    private final Cache<String, Bucket> buckets;
+
+    /**
+     * @param rate  tokens added per second, {@code 0} for no limit
+     * @param burst the capacity of a bucket
+     */
+    public TokenBuckets(double rate, int burst) {
+        this.rate = rate;
+        this.burst = Math.max(1, burst);
+        long refillNanos = rate > 0 ? (long) (this.burst / rate * TimeUnit.SECONDS.toNanos(1)) : 0;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(MAX_CLIENTS)
+                .expireAfterAccess(Duration.ofNanos(Math.max(refillNanos, TimeUnit.SECONDS.toNanos(1))))
+                .build();
+    }
+
+    /**
+     * Takes a token from the bucket of the client.
+     *
+     * @return {@link Duration#ZERO} if a token was taken, otherwise how long until the next one is available
+     */
+    public Duration tryConsume(String client) {
+        if (rate <= 0) {
+            return Duration.ZERO;
+        }
+        return buckets.get(client, key -> new Bucket(burst)).tryConsume(rate, burst);
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        private Bucket(double tokens) {
+            this.tokens = tokens;
+        }
+
+        private synchronized Duration tryConsume(double rate, double burst) {
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - refilledAt) * rate / TimeUnit.SECONDS.toNanos(1));
+            refilledAt = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return Duration.ZERO;
+            }
+            return Duration.ofNanos((long) Math.ceil((1 - tokens) / rate * TimeUnit.SECONDS.toNanos(1)));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ru.sber.app.infrastructure.aot;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import ru.sber.app.presentation.grpc.product.proto.ProductProto;
+
+/**
+ * What a native image of the application reaches only by reflection or as a resource, beyond what Spring AOT
+ * and the GraalVM reachability metadata of the libraries already cover:
+ * <ul>
+ *     <li>protobuf messages, whose field accessors are looked up by name from the descriptors;</li>
+ *     <li>the Hibernate second-level cache: the JCache provider is instantiated by class name and reads its
+ *     regions from {@code hibernate-cache.conf}.</li>
+ * </ul>
+ */
+public class AppRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        registerMessages(hints, ProductProto.class);
+        hints.reflection().registerType(CaffeineCachingProvider.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.resources().registerPattern("hibernate-cache.conf");
+    }
+
+    /**
+     * Registers the messages, builders and enums nested in a generated outer class.
+     */
+    private static void registerMessages(RuntimeHints hints, Class<?> type) {
+        for (Class<?> nested : type.getDeclaredClasses()) {
+            hints.reflection().registerType(nested, MemberCategory.INVOKE_PUBLIC_METHODS,
+                    MemberCategory.INVOKE_DECLARED_METHODS);
+            registerMessages(hints, nested);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package ru.sber.app.infrastructure.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.infrastructure.config.CacheConfig;
+
+/**
+ * Evicts products from all caches of this instance: the {@code products} and {@code productPages} caches and
+ * the Hibernate second-level and query caches. Used for writes the caches do not see, products written by other
+ * instances ({@link ProductCacheInvalidationListener}) and by the reactive API, which bypasses Spring's cache
+ * advice and Hibernate.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductCacheEvictor {
+    private final CacheManager cacheManager;
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Evicts the product and all cached pages and queries, which may contain it.
+     *
+     * @param productId the ID of the written product
+     */
+    public void evict(Integer productId) {
+        Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+        if (products != null) {
+            products.evict(productId);
+        }
+        entityManagerFactory.getCache().evict(Product.class, productId);
+        evictQueries();
+    }
+
+    /**
+     * Evicts all products, pages and queries.
+     */
+    public void evictAll() {
+        clear(CacheConfig.PRODUCTS);
+        entityManagerFactory.getCache().evict(Product.class);
+        evictQueries();
+    }
+
+    private void evictQueries() {
+        clear(CacheConfig.PRODUCT_PAGES);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictDefaultQueryRegion();
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package ru.sber.app.infrastructure.cache;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.stereotype.Component;
+import ru.sber.app.infrastructure.config.ProductCacheInvalidationProperties;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Evicts products written by other instances from the local caches, see {@link ProductCacheEvictor}.
+ * <p>
+ * Notifications sent while an instance is not listening are lost, so after every (re)connection the listener
+ * clears the caches entirely before it trusts notifications again. While the database is unreachable the caches
+ * are cleared on every reconnection attempt, which bounds their staleness by {@code reconnect-delay}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.product.cache.invalidation", name = "enabled", matchIfMissing = true)
+public class ProductCacheInvalidationListener implements SmartLifecycle, MeterBinder {
+    static final String APPLICATION_NAME = "product-cache-invalidation";
+
+    private final DataSource listenerDataSource;
+    private final ProductCacheInvalidationPublisher publisher;
+    private final ProductCacheEvictor productCacheEvictor;
+    private final ProductCacheInvalidationProperties properties;
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong resyncs = new AtomicLong();
+    private volatile boolean connected;
+    private volatile Thread thread;
+
+    public ProductCacheInvalidationListener(DataSource dataSource, ProductCacheInvalidationPublisher publisher,
+                                            ProductCacheEvictor productCacheEvictor,
+                                            ProductCacheInvalidationProperties properties) {
+        this.listenerDataSource = listenerDataSource(dataSource);
+        this.publisher = publisher;
+        this.productCacheEvictor = productCacheEvictor;
+        this.properties = properties;
+    }
+
+    /**
+     * The listener holds its connection for the life of the application, so it connects with the settings
+     * of the Hikari pool but outside of it.
+     */
+    private static DataSource listenerDataSource(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+                return new DriverManagerDataSource(pool.getJdbcUrl(), pool.getUsername(), pool.getPassword());
+            }
+        } catch (SQLException e) {
+            log.error("ProductCacheInvalidationListener | listenerDataSource | Pool settings unavailable: "
+                    + e.getMessage());
+        }
+        return dataSource;
+    }
+
+    @Override
+    public void start() {
+        thread = Thread.ofPlatform().name(APPLICATION_NAME).daemon().start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        Thread running = thread;
+        thread = null;
+        if (running != null) {
+            running.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return thread != null;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("product.cache.invalidation.connected", this, listener -> listener.connected ? 1 : 0)
+                .description("Whether invalidations from other instances are being received")
+                .register(registry);
+        FunctionCounter.builder("product.cache.invalidation.received", received, AtomicLong::get)
+                .description("Invalidations received from other instances")
+                .register(registry);
+        FunctionCounter.builder("product.cache.invalidation.resyncs", resyncs, AtomicLong::get)
+                .description("Full cache clears after (re)connecting or while disconnected")
+                .register(registry);
+    }
+
+    private void run() {
+        while (thread == Thread.currentThread()) {
+            try (Connection connection = listenerDataSource.getConnection()) {
+                listen(connection);
+            } catch (SQLException | RuntimeException e) {
+                if (thread == Thread.currentThread()) {
+                    log.error("ProductCacheInvalidationListener | run | Listener connection failed: " + e.getMessage());
+                }
+            } finally {
+                connected = false;
+            }
+            if (thread == Thread.currentThread()) {
+                resync();
+                try {
+                    Thread.sleep(properties.getReconnectDelay());
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void listen(Connection connection) throws SQLException {
+        connection.setClientInfo("ApplicationName", APPLICATION_NAME);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("listen " + ProductCacheInvalidationPublisher.CHANNEL);
+        }
+        // anything written before LISTEN took effect is covered by the clear, anything after it is notified
+        resync();
+        connected = true;
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        int timeout = (int) properties.getPollInterval().toMillis();
+        while (thread == Thread.currentThread()) {
+            PGNotification[] notifications = pgConnection.getNotifications(timeout);
+            if (notifications != null && notifications.length > 0) {
+                for (PGNotification notification : notifications) {
+                    evict(notification.getParameter());
+                }
+            } else if (!connection.isValid(timeout / 1000 + 1)) {
+                throw new SQLException("Соединение слушателя инвалидаций кэша разорвано");
+            }
+        }
+    }
+
+    private void evict(String payload) {
+        if (publisher.isOwn(payload)) {
+            return;
+        }
+        received.incrementAndGet();
+        String ids = payload.substring(payload.indexOf(':') + 1);
+        if (ids.equals(ProductCacheInvalidationPublisher.ALL)) {
+            resync();
+            return;
+        }
+        for (String id : ids.split(",")) {
+            productCacheEvictor.evict(Integer.valueOf(id));
+        }
+    }
+
+    private void resync() {
+        resyncs.incrementAndGet();
+        productCacheEvictor.evictAll();
+    }
+}
@@ -0,0 +1,67 @@
+package ru.sber.app.infrastructure.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Announces product writes to the other instances over PostgreSQL {@code NOTIFY}. A notification sent in a
+ * transaction is delivered only when it commits, so instances never evict for a write that is rolled back and
+ * never miss one that is committed while they are listening, see {@link ProductCacheInvalidationListener}.
+ * <p>
+ * The payload is {@code <instance>:<id>,<id>,...}, or {@code <instance>:*} when all products are affected.
+ */
+@Component
+public class ProductCacheInvalidationPublisher {
+    public static final String CHANNEL = "product_cache";
+    public static final String ALL = "*";
+
+    /**
+     * PostgreSQL rejects payloads of 8000 bytes and more; larger writes invalidate everything instead.
+     */
+    private static final int MAX_PAYLOAD_LENGTH = 7900;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String instanceId;
+
+    @Autowired
+    public ProductCacheInvalidationPublisher(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, UUID.randomUUID().toString().substring(0, 8));
+    }
+
+    ProductCacheInvalidationPublisher(JdbcTemplate jdbcTemplate, String instanceId) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.instanceId = instanceId;
+    }
+
+    /**
+     * Publishes the IDs of written products. Must be called in the writing transaction.
+     */
+    public void publish(Collection<Integer> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        String ids = productIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        String payload = instanceId + ":" + (ids.length() > MAX_PAYLOAD_LENGTH ? ALL : ids);
+        jdbcTemplate.query("select pg_notify(?, ?)", (ResultSetExtractor<Void>) rs -> null, CHANNEL, payload);
+    }
+
+    /**
+     * SQL expression publishing the product ID held by the given column, for writes that do not go through JDBC.
+     */
+    public String notifySql(String idColumn) {
+        return "pg_notify('" + CHANNEL + "', '" + instanceId + ":' || " + idColumn + ")";
+    }
+
+    /**
+     * @return whether this instance published the payload, so it has already evicted its own caches
+     */
+    boolean isOwn(String payload) {
+        return payload.startsWith(instanceId + ":");
+    }
+}
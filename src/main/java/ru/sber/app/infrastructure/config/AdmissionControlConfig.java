@@ -0,0 +1,73 @@
+package ru.sber.app.infrastructure.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.sber.app.infrastructure.admission.AdaptiveConcurrencyLimit;
+import ru.sber.app.infrastructure.admission.TokenBuckets;
+import ru.sber.app.presentation.web.interceptor.AdmissionControlInterceptor;
+
+import java.util.List;
+
+/**
+ * Admission control of the {@code /api/**} endpoints, see {@link AdmissionControlInterceptor}. The concurrency limits
+ * of both budgets are published as {@code http.server.admission.*} metrics next to the counts of rejected requests.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "app.admission", name = "enabled", matchIfMissing = true)
+public class AdmissionControlConfig {
+
+    @Bean
+    AdmissionControlInterceptor admissionControlInterceptor(AdmissionControlProperties properties,
+                                                            MeterRegistry meterRegistry) {
+        return new AdmissionControlInterceptor(budget("read", properties.getRead(), properties),
+                budget("write", properties.getWrite(), properties), properties.getClientHeader(), meterRegistry);
+    }
+
+    private static AdmissionControlInterceptor.Budget budget(String name, AdmissionControlProperties.Budget budget,
+                                                             AdmissionControlProperties properties) {
+        return new AdmissionControlInterceptor.Budget(name,
+                new TokenBuckets(budget.getRate(), budget.getBurst()),
+                new AdaptiveConcurrencyLimit(budget.getInitialLimit(), budget.getMinLimit(), budget.getMaxLimit(),
+                        properties.getWindow(), properties.getBackoffRatio()));
+    }
+
+    @Bean
+    WebMvcConfigurer admissionControlWebMvcConfigurer(AdmissionControlInterceptor admissionControlInterceptor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                // rejected requests must not reach the other interceptors
+                registry.addInterceptor(admissionControlInterceptor)
+                        .addPathPatterns("/api/**")
+                        .order(Ordered.HIGHEST_PRECEDENCE);
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder admissionControlMetrics(AdmissionControlInterceptor admissionControlInterceptor) {
+        return registry -> {
+            for (AdmissionControlInterceptor.Budget budget : List.of(admissionControlInterceptor.getRead(),
+                    admissionControlInterceptor.getWrite())) {
+                Gauge.builder("http.server.admission.limit", budget.limit(), AdaptiveConcurrencyLimit::getLimit)
+                        .description("Concurrent requests admitted before new ones are rejected with 503")
+                        .tag("budget", budget.name())
+                        .register(registry);
+                Gauge.builder("http.server.admission.in.flight", budget.limit(),
+                                AdaptiveConcurrencyLimit::getInFlight)
+                        .description("Admitted requests in progress")
+                        .tag("budget", budget.name())
+                        .register(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,64 @@
+package ru.sber.app.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.admission")
+public class AdmissionControlProperties {
+    /**
+     * Whether API requests over the per-client rate or the concurrency limit are rejected with 429 or 503.
+     */
+    private boolean enabled = true;
+    /**
+     * Request header identifying the client, e.g. set by the gateway. The remote address is used without it.
+     */
+    private String clientHeader;
+    /**
+     * Period over which request latencies are averaged before the concurrency limits are adjusted.
+     */
+    private Duration window = Duration.ofMillis(100);
+    /**
+     * Factor a concurrency limit is multiplied by after requests failed with 503 or 504.
+     */
+    private double backoffRatio = 0.9;
+    /**
+     * Budget of GET, HEAD and OPTIONS requests.
+     */
+    private Budget read = new Budget(200, 400, 50, 10, 500);
+    /**
+     * Budget of all other requests, so a burst of writes cannot starve reads.
+     */
+    private Budget write = new Budget(50, 100, 20, 5, 200);
+
+    @Data
+    public static class Budget {
+        /**
+         * Requests per second a client may send on average, 0 for no limit.
+         */
+        private double rate;
+        /**
+         * Requests a client may send at once.
+         */
+        private int burst;
+        /**
+         * Concurrency limit before any latency was observed.
+         */
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+
+        public Budget() {
+        }
+
+        Budget(double rate, int burst, int initialLimit, int minLimit, int maxLimit) {
+            this.rate = rate;
+            this.burst = burst;
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+        }
+    }
+}
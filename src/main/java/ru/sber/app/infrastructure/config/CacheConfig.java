@@ -0,0 +1,18 @@
+package ru.sber.app.infrastructure.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Enables the in-process product cache. Caches are created by Caffeine from {@code spring.cache.*}
+ * settings; hit, miss and eviction counters are published as {@code cache.*} metrics by Actuator.
+ * The cache interceptor wraps the transaction interceptor: a cache hit opens no transaction, and results are
+ * put into the cache only after the transaction has committed, never for a rolled-back one.
+ */
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+    public static final String PRODUCTS = "products";
+    public static final String PRODUCT_PAGES = "productPages";
+}
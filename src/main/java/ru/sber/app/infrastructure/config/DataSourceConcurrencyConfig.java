@@ -0,0 +1,73 @@
+package ru.sber.app.infrastructure.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.sber.app.infrastructure.jdbc.ConcurrencyLimitedDataSource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * With {@code spring.threads.virtual.enabled} every request runs on its own virtual thread, so the number of callers
+ * competing for a connection is no longer capped by the Tomcat worker pool. The Hikari pool is then wrapped
+ * in a {@link ConcurrencyLimitedDataSource} sized to the pool, and its permits are published as
+ * {@code db.concurrency.*} metrics next to Hikari's own {@code hikaricp.connections.*}.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class DataSourceConcurrencyConfig {
+
+    @Bean
+    static BeanPostProcessor concurrencyLimitedDataSourcePostProcessor(
+            ObjectProvider<DataSourceConcurrencyProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // the pool may already be wrapped, e.g. by the JDBC observation proxy
+                HikariDataSource hikariDataSource = bean instanceof DataSource dataSource
+                        && !(bean instanceof ConcurrencyLimitedDataSource) ? unwrapHikari(dataSource) : null;
+                if (hikariDataSource == null) {
+                    return bean;
+                }
+                DataSourceConcurrencyProperties limits = properties.getObject();
+                int maxConcurrent = limits.getMaxConcurrent() != null
+                        ? limits.getMaxConcurrent() : hikariDataSource.getMaximumPoolSize();
+                return new ConcurrencyLimitedDataSource((DataSource) bean, maxConcurrent, limits.getAcquireTimeout());
+            }
+        };
+    }
+
+    private static HikariDataSource unwrapHikari(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    @Bean
+    MeterBinder dataSourceConcurrencyMetrics(DataSource dataSource) {
+        return registry -> {
+            ConcurrencyLimitedDataSource limitedDataSource;
+            try {
+                limitedDataSource = dataSource.unwrap(ConcurrencyLimitedDataSource.class);
+            } catch (SQLException e) {
+                return;
+            }
+            Gauge.builder("db.concurrency.permits.available", limitedDataSource,
+                            ConcurrencyLimitedDataSource::getAvailablePermits)
+                    .description("Connections that can still be borrowed without waiting")
+                    .register(registry);
+            Gauge.builder("db.concurrency.waiting", limitedDataSource, ConcurrencyLimitedDataSource::getWaitingThreads)
+                    .description("Threads waiting for a connection permit")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package ru.sber.app.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.datasource.concurrency")
+public class DataSourceConcurrencyProperties {
+    /**
+     * Maximum number of connections borrowed at the same time. Defaults to the maximum size of the Hikari pool.
+     */
+    private Integer maxConcurrent;
+    /**
+     * How long a caller waits for a permit before the request fails with 503.
+     */
+    private Duration acquireTimeout = Duration.ofSeconds(2);
+}
@@ -0,0 +1,24 @@
+package ru.sber.app.infrastructure.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Spring Boot backs off its JDBC {@code DataSource} as soon as the R2DBC {@code ConnectionFactory} of the reactive
+ * API exists, while Flyway and the JPA services still need it. The pool is declared here from the same
+ * {@code spring.datasource.*} and {@code spring.datasource.hikari.*} properties.
+ */
+@Configuration
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+}
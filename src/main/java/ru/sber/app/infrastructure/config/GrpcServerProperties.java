@@ -0,0 +1,28 @@
+package ru.sber.app.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.grpc")
+public class GrpcServerProperties {
+    /**
+     * Whether the gRPC server is started next to the web server.
+     */
+    private boolean enabled = true;
+    /**
+     * Port of the gRPC server; 0 picks a free one.
+     */
+    private int port = 9090;
+    /**
+     * Largest message a client may send, a bulk create is streamed as many small messages.
+     */
+    private DataSize maxInboundMessageSize = DataSize.ofMegabytes(4);
+    /**
+     * How long the shutdown waits for running calls before cancelling them.
+     */
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+}
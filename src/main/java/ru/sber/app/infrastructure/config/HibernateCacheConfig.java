@@ -0,0 +1,32 @@
+package ru.sber.app.infrastructure.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+
+/**
+ * JCache manager of the Hibernate second-level cache with the regions of {@code hibernate-cache.conf}.
+ * Hibernate gets the instance instead of resolving {@code hibernate.javax.cache.uri} itself: inside the
+ * packaged jar it resolves the file to a {@code jar:} URL, which Caffeine ignores, and the unconfigured
+ * regions then fail the startup.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    CacheManager hibernateCacheManager() {
+        return Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("classpath:hibernate-cache.conf"), HibernateCacheConfig.class.getClassLoader());
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
@@ -0,0 +1,20 @@
+package ru.sber.app.infrastructure.config;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Jackson fails on a class with a {@code @JsonFilter} unless it finds the filter; by default the application
+ * {@code ObjectMapper} finds none and writes every property. A response selects fields by passing its own filters,
+ * see {@code ProductFieldsAdvice}.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    Jackson2ObjectMapperBuilderCustomizer defaultFilterProvider() {
+        return builder -> builder.filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+}
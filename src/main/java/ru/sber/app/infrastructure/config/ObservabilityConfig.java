@@ -0,0 +1,42 @@
+package ru.sber.app.infrastructure.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.sber.app.infrastructure.jdbc.StatementCountInspector;
+import ru.sber.app.presentation.web.interceptor.StatementCountInterceptor;
+
+/**
+ * Per-request SQL statement counting. Timers of {@code @Observed} services, Spring Data repositories, HTTP requests,
+ * JDBC and the Hikari pool, Hibernate statistics and tracing are set up by Spring Boot from {@code application.yml}.
+ */
+@Configuration
+public class ObservabilityConfig {
+
+    @Bean
+    StatementCountInspector statementCountInspector() {
+        return new StatementCountInspector();
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer statementCountInspectorCustomizer(StatementCountInspector statementCountInspector) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementCountInspector);
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    WebMvcConfigurer statementCountWebMvcConfigurer(StatementCountInspector statementCountInspector,
+                                                    MeterRegistry meterRegistry) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new StatementCountInterceptor(statementCountInspector, meterRegistry));
+            }
+        };
+    }
+}
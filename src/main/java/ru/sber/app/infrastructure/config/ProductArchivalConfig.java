@@ -0,0 +1,27 @@
+package ru.sber.app.infrastructure.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import ru.sber.app.application.product.ProductArchiver;
+
+/**
+ * Schedules the archival of cold products with the interval from {@code app.product.archival.interval}
+ * when {@code app.product.archival.enabled} is set.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(prefix = "app.product.archival", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ProductArchivalConfig implements SchedulingConfigurer {
+    private final ProductArchiver productArchiver;
+    private final ProductArchivalProperties properties;
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(productArchiver::archiveCold, properties.getInterval());
+    }
+}
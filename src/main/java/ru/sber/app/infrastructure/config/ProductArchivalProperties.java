@@ -0,0 +1,28 @@
+package ru.sber.app.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.product.archival")
+public class ProductArchivalProperties {
+    /**
+     * Whether this instance moves cold products to the archived partition. Batches lock their rows with
+     * {@code skip locked}, so several instances may run it at once.
+     */
+    private boolean enabled = false;
+    /**
+     * How long a product stays unchanged before it is archived.
+     */
+    private Duration coldAfter = Duration.ofDays(365);
+    /**
+     * Number of products archived in one transaction.
+     */
+    private int batchSize = 1000;
+    /**
+     * Pause between archival runs; a run archives batches until no cold product is left.
+     */
+    private Duration interval = Duration.ofHours(1);
+}
@@ -0,0 +1,13 @@
+package ru.sber.app.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.product.batch")
+public class ProductBatchProperties {
+    /**
+     * Number of items written and committed in one transaction by the bulk endpoints.
+     */
+    private int chunkSize = 500;
+}
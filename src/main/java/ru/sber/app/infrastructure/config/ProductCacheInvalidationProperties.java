@@ -0,0 +1,24 @@
+package ru.sber.app.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.product.cache.invalidation")
+public class ProductCacheInvalidationProperties {
+    /**
+     * Whether this instance listens for product cache invalidations published by other instances.
+     */
+    private boolean enabled = true;
+    /**
+     * How long the listener waits for notifications before it checks its connection.
+     */
+    private Duration pollInterval = Duration.ofSeconds(1);
+    /**
+     * Pause between reconnection attempts. While disconnected, the local caches are cleared on every attempt,
+     * so they are never staler than this.
+     */
+    private Duration reconnectDelay = Duration.ofSeconds(5);
+}
@@ -0,0 +1,31 @@
+package ru.sber.app.infrastructure.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import ru.sber.app.application.product.event.ProductEventFeed;
+import ru.sber.app.application.product.event.ProductEventRelay;
+
+/**
+ * Schedules the outbox relay, the removal of old events and the stream refresh with the intervals
+ * from {@code app.product.events.*}.
+ */
+@Configuration
+@EnableScheduling
+@RequiredArgsConstructor
+public class ProductEventConfig implements SchedulingConfigurer {
+    private final ProductEventRelay productEventRelay;
+    private final ProductEventFeed productEventFeed;
+    private final ProductEventProperties properties;
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        if (properties.isRelayEnabled()) {
+            registrar.addFixedDelayTask(productEventRelay::relay, properties.getRelayInterval());
+            registrar.addFixedDelayTask(productEventRelay::purge, properties.getPurgeInterval());
+        }
+        registrar.addFixedDelayTask(productEventFeed::refresh, properties.getPollInterval());
+    }
+}
@@ -0,0 +1,55 @@
+package ru.sber.app.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.product.events")
+public class ProductEventProperties {
+    /**
+     * Whether this instance runs the outbox relay. Instances share the work through a database lock,
+     * so it is safe to leave it enabled everywhere.
+     */
+    private boolean relayEnabled = true;
+    /**
+     * Pause between relay runs once the outbox is drained.
+     */
+    private Duration relayInterval = Duration.ofMillis(200);
+    /**
+     * Number of events published in one relay transaction.
+     */
+    private int batchSize = 500;
+    /**
+     * How often stream subscribers check for events published by other instances.
+     */
+    private Duration pollInterval = Duration.ofSeconds(1);
+    /**
+     * How long published events are kept for consumers to catch up.
+     */
+    private Duration retention = Duration.ofDays(7);
+    /**
+     * Pause between removals of events older than the retention.
+     */
+    private Duration purgeInterval = Duration.ofHours(1);
+    /**
+     * Pages of events queued for one SSE client while earlier ones are still being sent.
+     */
+    private int streamBuffer = 4;
+    /**
+     * How long the queue of an SSE client may stay full before the stream is closed; the client reconnects
+     * with {@code Last-Event-ID} and catches up from the database.
+     */
+    private Duration streamStallTimeout = Duration.ofSeconds(30);
+    private FileSink file = new FileSink();
+
+    @Data
+    public static class FileSink {
+        /**
+         * NDJSON file every published event is appended to; the file sink is off when not set.
+         */
+        private Path path;
+    }
+}
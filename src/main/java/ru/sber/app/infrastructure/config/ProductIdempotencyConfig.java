@@ -0,0 +1,25 @@
+package ru.sber.app.infrastructure.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import ru.sber.app.application.product.ProductIdempotencyService;
+
+/**
+ * Schedules the removal of expired idempotency keys with the interval from
+ * {@code app.product.idempotency.purge-interval}.
+ */
+@Configuration
+@EnableScheduling
+@RequiredArgsConstructor
+public class ProductIdempotencyConfig implements SchedulingConfigurer {
+    private final ProductIdempotencyService productIdempotencyService;
+    private final ProductIdempotencyProperties properties;
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(productIdempotencyService::purge, properties.getPurgeInterval());
+    }
+}
@@ -0,0 +1,23 @@
+package ru.sber.app.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.product.idempotency")
+public class ProductIdempotencyProperties {
+    /**
+     * How long a response is replayed for its {@code Idempotency-Key}; longer than any client retries.
+     */
+    private Duration ttl = Duration.ofHours(24);
+    /**
+     * Number of recent responses kept in memory, replays of other keys read the database.
+     */
+    private int cacheSize = 10_000;
+    /**
+     * Pause between removals of keys older than the TTL.
+     */
+    private Duration purgeInterval = Duration.ofHours(1);
+}
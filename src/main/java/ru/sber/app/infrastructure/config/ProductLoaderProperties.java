@@ -0,0 +1,20 @@
+package ru.sber.app.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.product.loader")
+public class ProductLoaderProperties {
+    /**
+     * How long the first lookup of a batch waits for lookups of other products to join it. Zero turns batching
+     * off: concurrent lookups of the same product still share one query.
+     */
+    private Duration batchWindow = Duration.ZERO;
+    /**
+     * Number of distinct products after which a batch is loaded without waiting for the rest of the window.
+     */
+    private int maxBatchSize = 100;
+}
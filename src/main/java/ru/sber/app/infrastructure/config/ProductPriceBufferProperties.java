@@ -0,0 +1,29 @@
+package ru.sber.app.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.product.price-buffer")
+public class ProductPriceBufferProperties {
+    /**
+     * How often pending prices are written to the database. Updates of the same product within the interval
+     * are coalesced, only the last price is written.
+     */
+    private Duration flushInterval = Duration.ofMillis(200);
+    /**
+     * Number of products with a pending price after which the buffer is flushed without waiting for the interval
+     * and new products wait for room.
+     */
+    private int capacity = 10_000;
+    /**
+     * How long a price update waits for room in a full buffer before it is rejected with 503.
+     */
+    private Duration offerTimeout = Duration.ofSeconds(1);
+    /**
+     * How long the shutdown keeps retrying to write the pending prices when the database fails.
+     */
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+}
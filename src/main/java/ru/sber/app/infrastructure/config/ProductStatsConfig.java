@@ -0,0 +1,25 @@
+package ru.sber.app.infrastructure.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import ru.sber.app.application.product.ProductStatsService;
+
+/**
+ * Schedules the folding of recorded product changes into the statistics totals with the interval from
+ * {@code app.product.stats.compact-interval}.
+ */
+@Configuration
+@EnableScheduling
+@RequiredArgsConstructor
+public class ProductStatsConfig implements SchedulingConfigurer {
+    private final ProductStatsService productStatsService;
+    private final ProductStatsProperties properties;
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(productStatsService::compact, properties.getCompactInterval());
+    }
+}
@@ -0,0 +1,22 @@
+package ru.sber.app.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "app.product.stats")
+public class ProductStatsProperties {
+    /**
+     * Ascending bounds of the price histogram buckets. A change rebuilds the statistics at startup with one scan
+     * of the active products, writes wait for it; instances must share the bounds.
+     */
+    private List<Float> priceBuckets = List.of(100F, 500F, 1000F, 5000F, 10000F);
+    /**
+     * Pause between the runs that fold the recorded changes into the totals; readers add up the changes not
+     * folded yet, so the interval bounds their work, not the freshness of the statistics.
+     */
+    private Duration compactInterval = Duration.ofSeconds(10);
+}
@@ -0,0 +1,175 @@
+package ru.sber.app.infrastructure.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.ttddyy.dsproxy.proxy.ProxyConfig;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.support.MergedBeanDefinitionPostProcessor;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionMessage;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.OnPropertyListCondition;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.sber.app.infrastructure.jdbc.ReadReplicas;
+import ru.sber.app.presentation.web.interceptor.ReadYourWritesInterceptor;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * With {@code app.datasource.replicas.urls} the JDBC {@code DataSource} sends read-only transactions, such as
+ * {@code @Transactional(readOnly = true)} service methods and Spring Data finders, to the {@link ReadReplicas}.
+ * Every replica gets a Hikari pool with the settings of the primary one, its lag is checked every
+ * {@code health-check-interval} and published as {@code db.replica.*} metrics. After a write over HTTP the client
+ * reads from the primary for {@code read-your-writes-window}, see {@link ReadYourWritesInterceptor}.
+ */
+@Configuration
+@EnableScheduling
+@Conditional(ReplicaDataSourceConfig.OnReplicaUrls.class)
+public class ReplicaDataSourceConfig {
+
+    static class OnReplicaUrls extends OnPropertyListCondition {
+        OnReplicaUrls() {
+            super("app.datasource.replicas.urls", () -> ConditionMessage.forCondition("Read replicas"));
+        }
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariConfig replicaPoolConfig() {
+        return new HikariConfig();
+    }
+
+    @Bean(destroyMethod = "close")
+    ReadReplicas readReplicas(ReplicaDataSourceProperties properties, DataSourceProperties dataSourceProperties,
+                              HikariConfig replicaPoolConfig) {
+        Map<String, DataSource> pools = new LinkedHashMap<>();
+        List<String> urls = properties.getUrls();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            replicaPoolConfig.copyStateTo(config);
+            String name = (config.getPoolName() == null ? "pool" : config.getPoolName()) + "-replica-" + (i + 1);
+            config.setPoolName(name);
+            config.setJdbcUrl(urls.get(i));
+            config.setUsername(properties.getUsername() != null
+                    ? properties.getUsername() : dataSourceProperties.determineUsername());
+            config.setPassword(properties.getPassword() != null
+                    ? properties.getPassword() : dataSourceProperties.determinePassword());
+            // the routing proxy does not mark connections of the read-only data source
+            config.setReadOnly(true);
+            // an unreachable replica must not stop the application, it stays unhealthy until it answers
+            config.setInitializationFailTimeout(-1);
+            pools.put(name, new HikariDataSource(config));
+        }
+        return new ReadReplicas(pools, properties.getMaxLag());
+    }
+
+    @Bean
+    static BeanPostProcessor readReplicaRoutingPostProcessor(ObjectProvider<ReadReplicas> readReplicas) {
+        return new ReadReplicaRoutingPostProcessor(readReplicas);
+    }
+
+    @Bean
+    SchedulingConfigurer readReplicaHealthCheck(ReadReplicas readReplicas, ReplicaDataSourceProperties properties) {
+        return registrar -> registrar.addFixedDelayTask(readReplicas::checkHealth,
+                properties.getHealthCheckInterval());
+    }
+
+    @Bean
+    MeterBinder readReplicaMetrics(ReadReplicas readReplicas) {
+        return registry -> {
+            for (ReadReplicas.Replica replica : readReplicas.getReplicas()) {
+                if (replica.getDataSource() instanceof HikariDataSource pool) {
+                    pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+                }
+                Gauge.builder("db.replica.healthy", replica, r -> r.isHealthy() ? 1 : 0)
+                        .description("Whether read-only transactions are sent to the replica")
+                        .tag("replica", replica.getName())
+                        .register(registry);
+                TimeGauge.builder("db.replica.lag", replica, TimeUnit.MILLISECONDS,
+                                ReadReplicas.Replica::getLagMillis)
+                        .description("Replication lag measured by the last health check")
+                        .tag("replica", replica.getName())
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    WebMvcConfigurer readYourWritesWebMvcConfigurer(ReplicaDataSourceProperties properties) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new ReadYourWritesInterceptor(properties.getReadYourWritesWindow()));
+            }
+        };
+    }
+
+    /**
+     * The lazy routing proxy must be the outermost wrapper: the JDBC observation proxy reads the connection metadata
+     * on checkout, which would obtain the physical connection before the transaction marks it read-only.
+     * Post-processors that merge bean definitions are applied after all others, so this one implements it
+     * to wrap the data source last. The replicas are traced like the primary.
+     */
+    private record ReadReplicaRoutingPostProcessor(ObjectProvider<ReadReplicas> readReplicas)
+            implements MergedBeanDefinitionPostProcessor {
+
+        @Override
+        public void postProcessMergedBeanDefinition(RootBeanDefinition beanDefinition, Class<?> beanType,
+                                                    String beanName) {
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource && !(bean instanceof LazyConnectionDataSourceProxy)
+                    && isHikari(dataSource)) {
+                ProxyConfig tracing = tracingConfig(dataSource);
+                return readReplicas.getObject().routing(dataSource, replica -> {
+                    if (tracing == null) {
+                        return replica;
+                    }
+                    ProxyDataSource traced = new ProxyDataSource(replica);
+                    traced.setProxyConfig(tracing);
+                    return traced;
+                });
+            }
+            return bean;
+        }
+
+        private static boolean isHikari(DataSource dataSource) {
+            try {
+                return dataSource.isWrapperFor(HikariDataSource.class);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        private static ProxyConfig tracingConfig(DataSource dataSource) {
+            while (dataSource instanceof DelegatingDataSource delegating) {
+                dataSource = delegating.getTargetDataSource();
+            }
+            return dataSource instanceof ProxyDataSource proxy ? proxy.getProxyConfig() : null;
+        }
+    }
+}
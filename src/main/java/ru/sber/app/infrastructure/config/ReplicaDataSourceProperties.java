@@ -0,0 +1,34 @@
+package ru.sber.app.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "app.datasource.replicas")
+public class ReplicaDataSourceProperties {
+    /**
+     * JDBC URLs of the read replicas. Without replicas every query goes to {@code spring.datasource.url}.
+     */
+    private List<String> urls = new ArrayList<>();
+    /**
+     * Credentials of the replicas. Default to {@code spring.datasource.username} and {@code password}.
+     */
+    private String username;
+    private String password;
+    /**
+     * How often the replication lag of every replica is checked.
+     */
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+    /**
+     * Replicas lagging behind the primary by more than this are not read from until they catch up.
+     */
+    private Duration maxLag = Duration.ofSeconds(2);
+    /**
+     * How long after a write the same client keeps reading from the primary.
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+}
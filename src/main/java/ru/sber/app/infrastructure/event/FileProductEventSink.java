@@ -0,0 +1,53 @@
+package ru.sber.app.infrastructure.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.sber.app.application.product.event.ProductEventSink;
+import ru.sber.app.domain.event.ProductEvent;
+import ru.sber.app.infrastructure.config.ProductEventProperties;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends published events to a local NDJSON file, one line per event. Stands in for a message broker
+ * in local environments: the file is written and forced to disk before the relay commits the batch.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.product.events.file", name = "path")
+public class FileProductEventSink implements ProductEventSink {
+    private final ObjectWriter writer;
+    private final Path path;
+
+    public FileProductEventSink(ObjectMapper objectMapper, ProductEventProperties properties) {
+        this.writer = objectMapper.writerFor(ProductEvent.class);
+        this.path = properties.getFile().getPath();
+    }
+
+    @Override
+    public synchronized void publish(List<ProductEvent> events) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteArrayOutputStream lines = new ByteArrayOutputStream();
+            for (ProductEvent event : events) {
+                writer.writeValue(lines, event);
+                lines.write('\n');
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package ru.sber.app.infrastructure.grpc;
+
+import io.grpc.BindableService;
+import io.grpc.Server;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerInterceptors;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import ru.sber.app.infrastructure.config.GrpcServerProperties;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the gRPC services of the application on {@code app.grpc.port}, next to the web server and with the same
+ * lifecycle: started with the context, and on shutdown new calls are refused while running ones get
+ * {@code shutdown-timeout} to finish. Every service is wrapped with all {@link ServerInterceptor} beans.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.grpc", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class GrpcServerLifecycle implements SmartLifecycle {
+    private final List<BindableService> services;
+    private final List<ServerInterceptor> interceptors;
+    private final GrpcServerProperties properties;
+    private volatile Server server;
+
+    public GrpcServerLifecycle(List<BindableService> services, List<ServerInterceptor> interceptors,
+                               GrpcServerProperties properties) {
+        this.services = services;
+        this.interceptors = interceptors;
+        this.properties = properties;
+    }
+
+    @Override
+    public void start() {
+        NettyServerBuilder builder = NettyServerBuilder.forPort(properties.getPort())
+                .maxInboundMessageSize((int) properties.getMaxInboundMessageSize().toBytes());
+        services.forEach(service -> builder.addService(ServerInterceptors.intercept(service, interceptors)));
+        try {
+            server = builder.build().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("gRPC-сервер не запущен на порту " + properties.getPort(), e);
+        }
+        log.info("GrpcServerLifecycle | start | gRPC server started on port " + server.getPort());
+    }
+
+    @Override
+    public void stop() {
+        Server running = server;
+        server = null;
+        if (running == null) {
+            return;
+        }
+        running.shutdown();
+        try {
+            if (!running.awaitTermination(properties.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                log.error("GrpcServerLifecycle | stop | Calls still running after "
+                        + properties.getShutdownTimeout() + ", cancelling them");
+                running.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            running.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * Same phase as the web server, so both take and refuse calls at the same time and the
+     * {@code ProductPriceBuffer} stops after them.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2048;
+    }
+
+    /**
+     * @return the port the server listens on, or -1 while it is stopped
+     */
+    public int getPort() {
+        Server running = server;
+        return running == null ? -1 : running.getPort();
+    }
+}
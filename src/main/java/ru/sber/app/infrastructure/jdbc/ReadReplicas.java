@@ -0,0 +1,173 @@
+package ru.sber.app.infrastructure.jdbc;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+/**
+ * Read replicas of the product database. Read-only transactions are served by the healthy replicas in round-robin
+ * order, see {@link #routing(DataSource)}; writes, reads of a caller that must see its own writes
+ * ({@link ReadYourWrites}) and reads while no replica is healthy go to the primary.
+ * <p>
+ * A replica is healthy while it answers {@link #checkHealth()} and lags behind the primary by no more than
+ * {@code maxLag}, or until it fails to hand out a connection. Until the first check no replica is healthy.
+ */
+@Slf4j
+public class ReadReplicas implements Closeable {
+    /**
+     * Milliseconds since the last replayed transaction, or 0 when everything received has been replayed.
+     * A server that is not in recovery (a promoted replica or the primary itself) has no lag.
+     */
+    static final String LAG_SQL = """
+            select case when not pg_is_in_recovery() or pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                        else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                   end::bigint""";
+
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * @param replicas the data sources of the replicas by name, in the order they are tried
+     * @param maxLag   the replication lag above which a replica is not read from
+     */
+    public ReadReplicas(Map<String, DataSource> replicas, Duration maxLag) {
+        this.replicas = replicas.entrySet().stream().map(entry -> new Replica(entry.getKey(), entry.getValue()))
+                .toList();
+        this.maxLag = maxLag;
+    }
+
+    /**
+     * Wraps the primary so that connections of read-only transactions come from a replica. The physical connection
+     * is obtained on the first statement, when the transaction has already marked it read-only, so nothing that
+     * inspects the connection on checkout may wrap the result.
+     *
+     * @param primary   the data source of the primary
+     * @param decorator applied to every replica data source the way the primary is decorated, e.g. for tracing
+     */
+    public DataSource routing(DataSource primary, UnaryOperator<DataSource> decorator) {
+        List<DataSource> sources = replicas.stream().map(replica -> decorator.apply(replica.dataSource)).toList();
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy();
+        routing.setTargetDataSource(primary);
+        // the pool defaults, so the proxy does not borrow a connection to find them out
+        routing.setDefaultAutoCommit(true);
+        routing.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        routing.setReadOnlyDataSource(new DelegatingDataSource(primary) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                Connection connection = ReadYourWrites.isPrimaryRequired() ? null : borrow(sources);
+                return connection != null ? connection : super.getConnection();
+            }
+        });
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    /**
+     * @param sources the data sources of the replicas in the order of {@link #getReplicas()}
+     * @return a connection to the next healthy replica, or {@code null} if there is none
+     */
+    private Connection borrow(List<DataSource> sources) {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            int index = (start + i) % size;
+            Replica replica = replicas.get(index);
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                return sources.get(index).getConnection();
+            } catch (SQLException e) {
+                log.error("ReadReplicas | borrow | Replica " + replica.name + " is unavailable: " + e.getMessage());
+                replica.healthy = false;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Measures the replication lag of every replica and decides which of them are read from.
+     */
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(LAG_SQL)) {
+                resultSet.next();
+                replica.lagMillis = resultSet.getLong(1);
+                healthy = replica.lagMillis <= maxLag.toMillis();
+                if (!healthy && replica.healthy) {
+                    log.error("ReadReplicas | checkHealth | Replica " + replica.name + " lags by "
+                            + replica.lagMillis + " ms");
+                }
+            } catch (SQLException e) {
+                healthy = false;
+                if (replica.healthy) {
+                    log.error("ReadReplicas | checkHealth | Replica " + replica.name + " is unavailable: "
+                            + e.getMessage());
+                }
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public void close() {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.error("ReadReplicas | close | Replica " + replica.name + " was not closed: "
+                            + e.getMessage());
+                }
+            }
+        }
+    }
+
+    public static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+        private volatile long lagMillis;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        public long getLagMillis() {
+            return lagMillis;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package ru.sber.app.infrastructure.jdbc;
+
+import java.util.function.Supplier;
+
+/**
+ * Marks the current thread as one that must read from the primary, because the caller has just written
+ * and a replica may not have replayed the write yet, see {@link ReadReplicas}.
+ */
+public final class ReadYourWrites {
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static void requirePrimary() {
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+    }
+
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get() != null;
+    }
+
+    public static void clear() {
+        PRIMARY_REQUIRED.remove();
+    }
+
+    /**
+     * Runs a read on the primary, e.g. one whose result is cached: a lagging replica would put back the state
+     * the cache invalidation has just dropped. The read must obtain its connection inside the action, so it must
+     * not join a read-only transaction that has already run a statement.
+     */
+    public static <T> T onPrimary(Supplier<T> read) {
+        if (isPrimaryRequired()) {
+            return read.get();
+        }
+        requirePrimary();
+        try {
+            return read.get();
+        } finally {
+            clear();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package ru.sber.app.infrastructure.jdbc;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread between {@link #start()} and {@link #stop()}.
+ * A JDBC batch is prepared once, so a growing count for the same endpoint points to an N+1 query pattern.
+ */
+public class StatementCountInspector implements StatementInspector {
+    private final ThreadLocal<int[]> counter = new ThreadLocal<>();
+
+    public void start() {
+        counter.set(new int[1]);
+    }
+
+    /**
+     * @return the number of statements prepared since {@link #start()}, or 0 if counting was not started
+     */
+    public int stop() {
+        int[] count = counter.get();
+        counter.remove();
+        return count == null ? 0 : count[0];
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = counter.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+}
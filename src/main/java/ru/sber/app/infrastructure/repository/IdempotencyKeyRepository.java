@@ -0,0 +1,63 @@
+package ru.sber.app.infrastructure.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+/**
+ * Responses stored by {@code Idempotency-Key}. A key is claimed and completed in the transaction that creates the
+ * product, so a committed key always has its response.
+ */
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyKeyRepository {
+    private static final RowMapper<IdempotentResponse> ROW_MAPPER = (rs, rowNum) -> {
+        OffsetDateTime lastModified = rs.getObject("last_modified", OffsetDateTime.class);
+        return new IdempotentResponse(
+                rs.getBytes("request_hash"),
+                rs.getString("response"),
+                lastModified == null ? null : lastModified.toInstant());
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the key unless it exists. While another transaction holds an uncommitted claim of the same key,
+     * the insert waits for it to end: after a commit the key exists, after a rollback this claim succeeds.
+     *
+     * @return {@code true} if this transaction now owns the key
+     */
+    public boolean claim(String key, byte[] requestHash) {
+        return jdbcTemplate.update("""
+                insert into idempotency_keys (key, request_hash) values (?, ?)
+                on conflict (key) do nothing""", key, requestHash) == 1;
+    }
+
+    /**
+     * Stores the response of a key claimed by this transaction.
+     */
+    public void complete(String key, Integer productId, String response, Instant lastModified) {
+        jdbcTemplate.update("""
+                update idempotency_keys set product_id = ?, response = ?::jsonb, last_modified = ?
+                where key = ?""",
+                productId, response, lastModified == null ? null : Timestamp.from(lastModified), key);
+    }
+
+    public Optional<IdempotentResponse> find(String key) {
+        return jdbcTemplate.query("select request_hash, response, last_modified from idempotency_keys where key = ?",
+                ROW_MAPPER, key).stream().findFirst();
+    }
+
+    /**
+     * Removes keys created before the given time, their requests are no longer deduplicated.
+     */
+    public int deleteCreatedBefore(Instant createdBefore) {
+        return jdbcTemplate.update("delete from idempotency_keys where created_at < ?", Timestamp.from(createdBefore));
+    }
+}
@@ -0,0 +1,10 @@
+package ru.sber.app.infrastructure.repository;
+
+import java.time.Instant;
+
+/**
+ * The stored response of an {@code Idempotency-Key}: the JSON body and the {@code Last-Modified} of the created
+ * product, with the hash of the request that produced it.
+ */
+public record IdempotentResponse(byte[] requestHash, String body, Instant lastModified) {
+}
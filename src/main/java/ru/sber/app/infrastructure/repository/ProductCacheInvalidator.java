@@ -0,0 +1,79 @@
+package ru.sber.app.infrastructure.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import ru.sber.app.domain.entity.Product;
+
+/**
+ * Keeps the Hibernate second-level cache consistent with product rows written by native SQL, which Hibernate
+ * does not track. Follows the protocol Hibernate uses for its own writes: the cached entry is locked before
+ * the write, so no transaction can cache the old row meanwhile, and released after the transaction completes,
+ * together with the invalidation of cached query results over the {@code products} table.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductCacheInvalidator {
+    private final EntityManager entityManager;
+
+    /**
+     * Invalidates the cached product and product queries and detaches the product if this persistence context
+     * manages it: Hibernate resolves rows returned by a native query through the persistence context, so the
+     * managed instance would shadow the written row. Must be called in the writing transaction, before the write.
+     *
+     * @param productId the ID of the product about to be written
+     */
+    public void beforeWrite(Integer productId) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        SessionFactoryImplementor factory = session.getFactory();
+        EntityPersister persister = factory.getMappingMetamodel().getEntityDescriptor(Product.class);
+        Object managed = session.getPersistenceContextInternal().getEntity(session.generateEntityKey(productId, persister));
+        if (managed != null) {
+            session.detach(managed);
+        }
+        String[] spaces = (String[]) persister.getQuerySpaces();
+        TimestampsCache timestamps = factory.getCache().getTimestampsCache();
+        timestamps.preInvalidate(spaces, session);
+
+        EntityDataAccess access = persister.canWriteToCache() ? persister.getCacheAccessStrategy() : null;
+        Object key = access == null ? null : access.generateCacheKey(productId, persister, factory, null);
+        SoftLock lock = access == null ? null : access.lockItem(session, key, null);
+        session.getActionQueue().registerProcess((success, completed) -> {
+            if (access != null) {
+                access.unlockItem(completed, key, lock);
+            }
+            timestamps.invalidate(spaces, completed);
+        });
+    }
+
+    /**
+     * Invalidates all cached products and product queries, the way Hibernate handles its own bulk statements.
+     * Must be called in the writing transaction, before a write of arbitrary many products.
+     */
+    public void beforeBulkWrite() {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        SessionFactoryImplementor factory = session.getFactory();
+        EntityPersister persister = factory.getMappingMetamodel().getEntityDescriptor(Product.class);
+        String[] spaces = (String[]) persister.getQuerySpaces();
+        TimestampsCache timestamps = factory.getCache().getTimestampsCache();
+        timestamps.preInvalidate(spaces, session);
+
+        EntityDataAccess access = persister.canWriteToCache() ? persister.getCacheAccessStrategy() : null;
+        SoftLock lock = access == null ? null : access.lockRegion();
+        if (access != null) {
+            access.removeAll(session);
+        }
+        session.getActionQueue().registerProcess((success, completed) -> {
+            if (access != null) {
+                access.unlockRegion(lock);
+            }
+            timestamps.invalidate(spaces, completed);
+        });
+    }
+}
@@ -0,0 +1,9 @@
+package ru.sber.app.infrastructure.repository;
+
+import java.util.List;
+
+/**
+ * IDs of the products created, updated and deleted by an import.
+ */
+public record ProductDumpImport(List<Integer> created, List<Integer> updated, List<Integer> deleted) {
+}
@@ -0,0 +1,158 @@
+package ru.sber.app.infrastructure.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.sber.app.domain.entity.Product;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves {@code products} rows in and out of the database with {@code COPY} in the PostgreSQL binary format.
+ * Every row carries the columns {@code id integer, title varchar, description varchar, price real, version integer,
+ * updated_at timestamptz, deleted boolean}; a deleted row only carries its {@code id}. A dump holds the active
+ * products only: archiving a product shows up in an incremental dump as its deletion.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductDumpRepository {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_REPORTED_IDS = 10;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Writes all active products ordered by ID, or, with a positive {@code since}, the products changed by events
+     * published after that position, including the deleted and archived ones.
+     *
+     * @return the number of rows written
+     */
+    public long copyOut(long since, OutputStream out) {
+        String rows = since > 0 ? """
+                select e.product_id, p.title, p.description, p.price, p.version, p.updated_at, p.id is null
+                from (select distinct product_id from product_events where seq > %d) e
+                left join products p on p.id = e.product_id and p.status = 'ACTIVE'
+                order by e.product_id""".formatted(since) : """
+                select id, title, description, price, version, updated_at, false
+                from products
+                where status = 'ACTIVE'
+                order by id""";
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyOut("copy (" + rows + ") to stdout (format binary)", out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Upserts and deletes the rows read from the stream in one statement each. A row that already exists
+     * with different content gets the new state and a version above both the stored and the imported one,
+     * so clients holding the old version see the change; identical rows are left untouched. An archived product
+     * present in the dump is restored and counts as created, a deleted row removes an active product only.
+     * <p>
+     * A product is created with the id from the dump, which must not be one the sequence has already issued:
+     * running instances keep unused ids of their blocks and would later insert a product with the same id.
+     * Only while no instance writes products may such ids be reused, e.g. to restore deleted products from
+     * a backup.
+     *
+     * @param reuseIssuedIds whether new products may take ids the sequence has already issued
+     * @throws IllegalArgumentException if the dump repeats an id, or a new product would take an issued id and
+     *                                  {@code reuseIssuedIds} is off
+     */
+    public ProductDumpImport copyIn(InputStream in, boolean reuseIssuedIds) {
+        jdbcTemplate.execute("""
+                create temp table product_dump (
+                    id integer not null,
+                    title varchar(100),
+                    description varchar(255),
+                    price real,
+                    version integer,
+                    updated_at timestamp with time zone,
+                    deleted boolean not null
+                ) on commit drop""");
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyIn("copy product_dump from stdin (format binary)", in, BUFFER_SIZE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        // the upsert cannot touch one row twice, and which of the repeated rows is meant is unknown
+        List<Integer> repeated = jdbcTemplate.queryForList("""
+                select id from product_dump group by id having count(*) > 1 order by id limit ?""",
+                Integer.class, MAX_REPORTED_IDS);
+        if (!repeated.isEmpty()) {
+            throw rejected("Выгрузка содержит несколько строк с одним id: " + repeated);
+        }
+        if (!reuseIssuedIds) {
+            List<Integer> issued = jdbcTemplate.queryForList("""
+                    select d.id from product_dump d
+                    where not d.deleted and not exists (select 1 from products p where p.id = d.id)
+                      and d.id < (select case when is_called then last_value + ? else last_value end
+                                  from products_seq)
+                    order by d.id
+                    limit ?""", Integer.class, Product.ID_ALLOCATION_SIZE, MAX_REPORTED_IDS);
+            if (!issued.isEmpty()) {
+                throw rejected("Выгрузка создает продукты с id, уже выданными последовательностью: "
+                        + issued + "; такие id можно загрузить только при остановленной записи продуктов");
+            }
+        }
+        // restored first, so the upsert below finds them in the active partition and leaves them as they are
+        List<Integer> created = new ArrayList<>(jdbcTemplate.queryForList("""
+                update products as p
+                set status = 'ACTIVE', title = d.title, description = d.description, price = d.price,
+                    version = greatest(p.version + 1, d.version),
+                    updated_at = greatest(clock_timestamp(), p.updated_at)
+                from product_dump d
+                where p.id = d.id and p.status = 'ARCHIVED' and not d.deleted
+                returning p.id""", Integer.class));
+        List<Integer> updated = new ArrayList<>();
+        // the system column xmax cannot be returned from a partitioned table; the CTE still sees the rows
+        // as they were before the insert
+        jdbcTemplate.query("""
+                with existing as (
+                    select p.id from products p join product_dump d on d.id = p.id where p.status = 'ACTIVE'
+                )
+                insert into products as p (id, title, description, price, version, updated_at)
+                select id, title, description, price, version, updated_at from product_dump where not deleted
+                on conflict (id, status) do update
+                set title = excluded.title, description = excluded.description, price = excluded.price,
+                    version = greatest(p.version + 1, excluded.version),
+                    updated_at = greatest(clock_timestamp(), p.updated_at)
+                where (p.title, p.description, p.price)
+                    is distinct from (excluded.title, excluded.description, excluded.price)
+                returning id, id not in (select id from existing) as inserted""",
+                rs -> {
+                    (rs.getBoolean("inserted") ? created : updated).add(rs.getInt("id"));
+                });
+        List<Integer> deleted = jdbcTemplate.queryForList("""
+                delete from products
+                where status = 'ACTIVE' and id in (select id from product_dump where deleted)
+                returning id""", Integer.class);
+        if (!created.isEmpty()) {
+            // ids of the dump are kept, so the pooled sequence has to skip past them
+            jdbcTemplate.queryForList("""
+                    select setval('products_seq', greatest(max(id) + 1, (select last_value from products_seq) + ?),
+                                  false)
+                    from products""", Product.ID_ALLOCATION_SIZE);
+        }
+        jdbcTemplate.execute("drop table product_dump");
+        return new ProductDumpImport(created, updated, deleted);
+    }
+
+    private IllegalArgumentException rejected(String message) {
+        jdbcTemplate.execute("drop table product_dump");
+        return new IllegalArgumentException(message);
+    }
+}
@@ -0,0 +1,141 @@
+package ru.sber.app.infrastructure.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import ru.sber.app.domain.event.ProductEvent;
+import ru.sber.app.domain.event.ProductEventType;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Outbox of product changes. Events are appended with plain SQL in the transaction of the write, after the product
+ * row is written: a concurrent change of the same product waits for the row lock, so events of one product are
+ * always appended in commit order.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductEventRepository {
+    /**
+     * JSON snapshot of a {@code products} row, in the shape of the API representation of a product.
+     */
+    public static final String PAYLOAD_SQL = """
+            jsonb_build_object('id', id, 'title', title, 'description', description, 'price', price, \
+            'version', version)""";
+
+    private static final long RELAY_LOCK_KEY = 1_118_035_297L;
+
+    private static final RowMapper<ProductEvent> ROW_MAPPER = (rs, rowNum) -> new ProductEvent(
+            rs.getObject("seq", Long.class),
+            rs.getLong("id"),
+            rs.getInt("product_id"),
+            ProductEventType.valueOf(rs.getString("type")),
+            rs.getObject("version", Integer.class),
+            rs.getString("payload"),
+            rs.getObject("created_at", OffsetDateTime.class).toInstant());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Appends an event with the current state of every given product, in one statement.
+     */
+    public void appendSnapshots(ProductEventType type, Collection<Integer> productIds) {
+        jdbcTemplate.update("insert into product_events (product_id, type, version, payload) select id, ?, version, "
+                + PAYLOAD_SQL + " from products where id = any(?) order by id", ps -> {
+            ps.setString(1, type.name());
+            ps.setArray(2, ps.getConnection().createArrayOf("integer", productIds.toArray()));
+        });
+    }
+
+    public void appendDeleted(Collection<Integer> productIds) {
+        jdbcTemplate.update("insert into product_events (product_id, type) select id, ? from unnest(?) as id order by id",
+                ps -> {
+                    ps.setString(1, ProductEventType.DELETED.name());
+                    ps.setArray(2, ps.getConnection().createArrayOf("integer", productIds.toArray()));
+                });
+    }
+
+    /**
+     * Takes the relay lock until the end of the current transaction, so only one instance publishes at a time.
+     *
+     * @return {@code false} if another transaction holds the lock
+     */
+    public boolean tryLockRelay() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("select pg_try_advisory_xact_lock(?)",
+                Boolean.class, RELAY_LOCK_KEY));
+    }
+
+    /**
+     * Assigns stream positions to the oldest unpublished events. Must be called under the relay lock.
+     *
+     * @return the events with their positions, ordered by position
+     */
+    public List<ProductEvent> assignSequence(int limit) {
+        List<ProductEvent> events = jdbcTemplate.query("""
+                with batch as (
+                    select id, nextval('product_event_seq') as seq
+                    from (select id from product_events where seq is null order by id limit ?) unpublished
+                )
+                update product_events e set seq = batch.seq
+                from batch
+                where e.id = batch.id
+                returning e.*""", ROW_MAPPER, limit);
+        events.sort(Comparator.comparing(ProductEvent::seq));
+        return events;
+    }
+
+    public List<ProductEvent> findPublishedAfter(long seq, int limit) {
+        return jdbcTemplate.query("select * from product_events where seq > ? order by seq limit ?",
+                ROW_MAPPER, seq, limit);
+    }
+
+    /**
+     * @return the position of the last published event, or {@code 0} if nothing was published yet
+     */
+    public long findLatestSeq() {
+        return jdbcTemplate.queryForObject("select coalesce(max(seq), 0) from product_events", Long.class);
+    }
+
+    /**
+     * @return the position of the oldest event still kept, or {@code null} if nothing was published yet
+     */
+    public Long findEarliestSeq() {
+        return jdbcTemplate.queryForObject("select min(seq) from product_events", Long.class);
+    }
+
+    /**
+     * Removes published events created before the given time. The newest published event is always kept,
+     * so {@link #findLatestSeq()} never moves backwards.
+     */
+    public int deletePublishedBefore(Instant createdBefore) {
+        return jdbcTemplate.update("""
+                delete from product_events
+                where seq < (select max(seq) from product_events) and created_at < ?""",
+                Timestamp.from(createdBefore));
+    }
+
+    public Optional<Long> findOffset(String consumer) {
+        return jdbcTemplate.query("select seq from product_event_offsets where consumer = ?",
+                (rs, rowNum) -> rs.getLong("seq"), consumer).stream().findFirst();
+    }
+
+    /**
+     * Stores the position a consumer has processed up to. Offsets never move backwards.
+     *
+     * @return the stored offset
+     */
+    public long saveOffset(String consumer, long seq) {
+        return jdbcTemplate.queryForObject("""
+                insert into product_event_offsets (consumer, seq) values (?, ?)
+                on conflict (consumer) do update
+                set seq = greatest(product_event_offsets.seq, excluded.seq), updated_at = now()
+                returning seq""", Long.class, consumer, seq);
+    }
+}
@@ -0,0 +1,48 @@
+package ru.sber.app.infrastructure.repository;
+
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductQuery;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a search page: the value of the sort column plus the ID as a tie-breaker.
+ * Encoded for clients as an opaque URL-safe cursor string.
+ */
+public record ProductKeyset(ProductSortField sortField, Object value, Integer id) {
+
+    public static ProductKeyset of(ProductSortField sortField, ProductQuery product) {
+        Object value = switch (sortField) {
+            case ID -> product.getId();
+            case PRICE -> product.getPrice();
+            case TITLE -> product.getTitle();
+        };
+        return new ProductKeyset(sortField, value, product.getId());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for another sort field
+     */
+    public static ProductKeyset decode(String cursor, ProductSortField sortField) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 3);
+            if (parts.length != 3 || ProductSortField.valueOf(parts[0]) != sortField) {
+                throw new IllegalArgumentException();
+            }
+            Integer id = Integer.valueOf(parts[1]);
+            Object value = switch (sortField) {
+                case ID -> id;
+                case PRICE -> Float.valueOf(parts[2]);
+                case TITLE -> parts[2];
+            };
+            return new ProductKeyset(sortField, value, id);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Некорректный курсор: " + cursor);
+        }
+    }
+
+    public String encode() {
+        String raw = sortField.name() + ":" + id + ":" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
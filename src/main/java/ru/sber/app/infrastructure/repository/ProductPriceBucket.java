@@ -0,0 +1,8 @@
+package ru.sber.app.infrastructure.repository;
+
+/**
+ * Number and price sum of the active products in a price histogram bucket; bucket {@code i} holds the prices from
+ * the {@code i}-th bound up to the next one, bucket {@code 0} the prices below the first bound.
+ */
+public record ProductPriceBucket(int bucket, long products, double priceSum) {
+}
@@ -0,0 +1,7 @@
+package ru.sber.app.infrastructure.repository;
+
+/**
+ * The lowest and the highest price of the active products, both {@code null} when there are none.
+ */
+public record ProductPriceRange(Float min, Float max) {
+}
@@ -0,0 +1,139 @@
+package ru.sber.app.infrastructure.repository;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.Parameter;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.domain.entity.ProductStatus;
+import ru.sber.app.infrastructure.cache.ProductCacheInvalidationPublisher;
+
+import java.time.Instant;
+
+/**
+ * R2DBC counterpart of {@link ProductRepository} for the reactive API. Statements are written by hand because
+ * the JPA mapping of {@link Product} is not understood by Spring Data R2DBC. Like the JPA mapping, every statement
+ * sees the active products only. Writes record their
+ * {@link ProductEventRepository outbox} event and notify other instances to evict the product
+ * ({@link ProductCacheInvalidationPublisher}) in the same statement, so no reactive transaction is needed.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductReactiveRepository {
+    /**
+     * Rows fetched from the database cursor per demand signal while streaming the whole table.
+     */
+    public static final int STREAM_FETCH_SIZE = 500;
+
+    private final DatabaseClient databaseClient;
+    private final ProductCacheInvalidationPublisher productCacheInvalidationPublisher;
+
+    public Mono<Product> findById(Integer id) {
+        return databaseClient.sql("select * from products where id = :id and status = 'ACTIVE'")
+                .bind("id", id)
+                .map(ProductReactiveRepository::toProduct)
+                .one();
+    }
+
+    public Mono<Boolean> existsById(Integer id) {
+        return databaseClient.sql("select exists(select 1 from products where id = :id and status = 'ACTIVE')")
+                .bind("id", id)
+                .map(row -> row.get(0, Boolean.class))
+                .one();
+    }
+
+    public Flux<Product> findByIdGreaterThanOrderByIdAsc(Integer id, int limit) {
+        return databaseClient.sql("""
+                        select * from products where id > :id and status = 'ACTIVE' order by id limit :limit""")
+                .bind("id", id)
+                .bind("limit", limit)
+                .map(ProductReactiveRepository::toProduct)
+                .all();
+    }
+
+    /**
+     * Streams all products ordered by ID. Rows are read from a portal {@code STREAM_FETCH_SIZE} at a time
+     * and only as the subscriber requests them.
+     */
+    public Flux<Product> streamAllOrderById() {
+        return databaseClient.sql("select * from products where status = 'ACTIVE' order by id")
+                .filter(statement -> statement.fetchSize(STREAM_FETCH_SIZE))
+                .map(ProductReactiveRepository::toProduct)
+                .all();
+    }
+
+    public Mono<Product> insert(Product product) {
+        return databaseClient.sql("""
+                        with created as (
+                            insert into products (title, description, price)
+                            values (:title, :description, :price)
+                            returning *
+                        ), event as (
+                            insert into product_events (product_id, type, version, payload)
+                            select id, 'CREATED', version, %s from created
+                        )
+                        select created.* from created, lateral (select %s) notified""".formatted(
+                        ProductEventRepository.PAYLOAD_SQL, productCacheInvalidationPublisher.notifySql("created.id")))
+                .bind("title", Parameter.fromOrEmpty(product.getTitle(), String.class))
+                .bind("description", Parameter.fromOrEmpty(product.getDescription(), String.class))
+                .bind("price", Parameter.fromOrEmpty(product.getPrice(), Float.class))
+                .map(ProductReactiveRepository::toProduct)
+                .one();
+    }
+
+    /**
+     * Same update as {@link ProductRepository#updateReturning}: empty when the product does not exist
+     * or its version differs from the given one.
+     */
+    public Mono<Product> updateReturning(Integer id, String title, String description, Float price, Integer version) {
+        return databaseClient.sql("""
+                        with updated as (
+                            update products
+                            set title = :title, description = :description, price = :price, version = version + 1,
+                                updated_at = greatest(clock_timestamp(), updated_at)
+                            where id = :id and status = 'ACTIVE' and (cast(:version as integer) is null or version = :version)
+                            returning *
+                        ), event as (
+                            insert into product_events (product_id, type, version, payload)
+                            select id, 'UPDATED', version, %s from updated
+                        )
+                        select updated.* from updated, lateral (select %s) notified""".formatted(
+                        ProductEventRepository.PAYLOAD_SQL, productCacheInvalidationPublisher.notifySql("updated.id")))
+                .bind("id", id)
+                .bind("title", Parameter.fromOrEmpty(title, String.class))
+                .bind("description", Parameter.fromOrEmpty(description, String.class))
+                .bind("price", Parameter.fromOrEmpty(price, Float.class))
+                .bind("version", Parameter.fromOrEmpty(version, Integer.class))
+                .map(ProductReactiveRepository::toProduct)
+                .one();
+    }
+
+    public Mono<Long> deleteProductById(Integer id) {
+        return databaseClient.sql("""
+                        with deleted as (
+                            delete from products where id = :id and status = 'ACTIVE' returning id
+                        ), event as (
+                            insert into product_events (product_id, type) select id, 'DELETED' from deleted
+                        )
+                        select count(*) from deleted, lateral (select %s) notified""".formatted(
+                        productCacheInvalidationPublisher.notifySql("deleted.id")))
+                .bind("id", id)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    private static Product toProduct(Readable row) {
+        return Product.builder()
+                .id(row.get("id", Integer.class))
+                .title(row.get("title", String.class))
+                .description(row.get("description", String.class))
+                .price(row.get("price", Float.class))
+                .version(row.get("version", Integer.class))
+                .updatedAt(row.get("updated_at", Instant.class))
+                .status(ProductStatus.valueOf(row.get("status", String.class)))
+                .build();
+    }
+}
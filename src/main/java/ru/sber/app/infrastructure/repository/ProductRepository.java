@@ -1,10 +1,125 @@
 package ru.sber.app.infrastructure.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import ru.sber.app.domain.entity.Product;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductQuery;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Integer> {
+public interface ProductRepository extends JpaRepository<Product, Integer>, ProductSearchRepository {
+
+    @Query("select p.id from Product p where p.id in :ids")
+    List<Integer> findIdsByIdIn(Collection<Integer> ids);
+
+    /**
+     * Loads the active products with the given IDs with one array parameter, so every batch size shares one
+     * statement.
+     */
+    @Query(value = "select * from products where id = any(:ids) and status = 'ACTIVE'", nativeQuery = true)
+    List<Product> findAllByIdAny(Integer[] ids);
+
+    /**
+     * Updates an active product in a single statement and returns the new row without re-reading it.
+     * When {@code version} is not {@code null} the row is only updated if its version still matches.
+     * {@code updated_at} never moves backwards, even if the database clock is behind the one that inserted the row.
+     * The returned row is not put into the second-level cache before the transaction commits,
+     * see {@link ProductCacheInvalidator}.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE"))
+    @Query(value = """
+            update products
+            set title = :title, description = :description, price = :price, version = version + 1,
+                updated_at = greatest(clock_timestamp(), updated_at)
+            where id = :id and status = 'ACTIVE' and (cast(:version as integer) is null or version = :version)
+            returning *""", nativeQuery = true)
+    Optional<Product> updateReturning(Integer id, String title, String description, Float price, Integer version);
+
+    /**
+     * Sets the prices of the given active products with one statement for any number of them, skipping rows that already
+     * have the price. Versions and modification times move as with {@link #updateReturning}.
+     *
+     * @return the IDs of the products whose price changed
+     */
+    @Query(value = """
+            update products p
+            set price = v.price, version = p.version + 1, updated_at = greatest(clock_timestamp(), p.updated_at)
+            from unnest(:ids, :prices) as v(id, price)
+            where p.id = v.id and p.status = 'ACTIVE' and p.price is distinct from v.price
+            returning p.id""", nativeQuery = true)
+    List<Integer> updatePrices(Integer[] ids, Float[] prices);
+
+    /**
+     * Locks up to {@code limit} active products not changed since {@code before}, skipping rows locked by
+     * concurrent writes; those are picked up by a later batch.
+     */
+    @Query(value = """
+            select id from products
+            where status = 'ACTIVE' and updated_at < :before
+            order by id
+            limit :limit
+            for update skip locked""", nativeQuery = true)
+    List<Integer> lockArchivable(Instant before, int limit);
+
+    /**
+     * Moves the given active products to the archived partition.
+     *
+     * @return the IDs of the archived products
+     */
+    @Query(value = """
+            update products set status = 'ARCHIVED'
+            where id = any(:ids) and status = 'ACTIVE'
+            returning id""", nativeQuery = true)
+    List<Integer> archiveAll(Integer[] ids);
+
+    /**
+     * Moves an archived product back to the active partition. Its version and modification time move as with
+     * {@link #updateReturning}, so it is not archived again as cold right away.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE"))
+    @Query(value = """
+            update products
+            set status = 'ACTIVE', version = version + 1, updated_at = greatest(clock_timestamp(), updated_at)
+            where id = :id and status = 'ARCHIVED'
+            returning *""", nativeQuery = true)
+    Optional<Product> restoreById(Integer id);
+
+    /**
+     * Reads only the version and the modification time of a product, without loading the entity.
+     */
+    @Query("select new ru.sber.app.infrastructure.repository.ProductVersion(p.version, p.updatedAt) from Product p where p.id = :id")
+    Optional<ProductVersion> findVersionById(Integer id);
+
+    @Modifying
+    @Query("delete from Product p where p.id = :id and p.status = ru.sber.app.domain.entity.ProductStatus.ACTIVE")
+    int deleteProductById(Integer id);
+
+    /**
+     * Served from the query cache until the next write to {@code products}.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Product> findByIdGreaterThanOrderByIdAsc(Integer id, Limit limit);
 
+    /**
+     * Reads all products straight into {@link ProductQuery}, ordered by ID, for a full export. A constructor
+     * projection creates no managed entities, so neither the persistence context nor the second-level cache
+     * see the rows and there are no snapshots to keep for dirty checking.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            select new ru.sber.app.presentation.web.controller.product.dto.queries.ProductQuery(
+                p.id, p.title, p.description, p.price, p.version)
+            from Product p order by p.id""")
+    Stream<ProductQuery> streamAllQueriesOrderById();
 }
@@ -0,0 +1,17 @@
+package ru.sber.app.infrastructure.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductQuery;
+
+import java.util.List;
+
+public interface ProductSearchRepository {
+
+    /**
+     * Selects only the {@link ProductQuery} columns of the products matching the specification,
+     * without loading managed entities.
+     */
+    List<ProductQuery> search(Specification<Product> specification, Sort sort, int limit);
+}
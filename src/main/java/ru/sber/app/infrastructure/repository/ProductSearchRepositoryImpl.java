@@ -0,0 +1,39 @@
+package ru.sber.app.infrastructure.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductQuery;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ProductSearchRepositoryImpl implements ProductSearchRepository {
+    private final EntityManager entityManager;
+
+    @Override
+    public List<ProductQuery> search(Specification<Product> specification, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductQuery> query = cb.createQuery(ProductQuery.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(cb.construct(ProductQuery.class,
+                root.get("id"), root.get("title"), root.get("description"), root.get("price"), root.get("version")));
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .getResultList();
+    }
+}
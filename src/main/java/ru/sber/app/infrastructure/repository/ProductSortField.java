@@ -0,0 +1,17 @@
+package ru.sber.app.infrastructure.repository;
+
+public enum ProductSortField {
+    ID("id"),
+    PRICE("price"),
+    TITLE("title");
+
+    private final String attribute;
+
+    ProductSortField(String attribute) {
+        this.attribute = attribute;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+}
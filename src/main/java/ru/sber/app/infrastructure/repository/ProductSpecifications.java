@@ -0,0 +1,68 @@
+package ru.sber.app.infrastructure.repository;
+
+import jakarta.persistence.criteria.Path;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import ru.sber.app.domain.entity.Product;
+
+import java.util.Locale;
+
+/**
+ * Search filters for {@link Product}. Every factory returns {@code null} for an absent filter,
+ * so the results can be combined with {@link Specification#allOf} directly.
+ */
+public final class ProductSpecifications {
+    private static final char LIKE_ESCAPE = '\\';
+
+    private ProductSpecifications() {
+    }
+
+    /**
+     * Case-insensitive substring match on title or description, served by the trigram indexes on
+     * {@code lower(title)} and {@code lower(description)}.
+     */
+    public static Specification<Product> textContains(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        String pattern = "%" + escapeLike(text.trim().toLowerCase(Locale.ROOT)) + "%";
+        return (root, query, cb) -> cb.or(
+                cb.like(cb.lower(root.get("title")), pattern, LIKE_ESCAPE),
+                cb.like(cb.lower(root.get("description")), pattern, LIKE_ESCAPE));
+    }
+
+    public static Specification<Product> priceFrom(Float minPrice) {
+        return minPrice == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+    }
+
+    public static Specification<Product> priceTo(Float maxPrice) {
+        return maxPrice == null ? null : (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+    }
+
+    /**
+     * Rows strictly after the keyset in the given direction: {@code (value, id) > (:value, :id)} for ascending order.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<Product> after(ProductKeyset keyset, Sort.Direction direction) {
+        if (keyset == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            Path<Integer> id = root.get("id");
+            Path<Comparable> value = root.get(keyset.sortField().getAttribute());
+            Comparable keysetValue = (Comparable) keyset.value();
+            if (keyset.sortField() == ProductSortField.ID) {
+                return direction.isAscending() ? cb.greaterThan(id, keyset.id()) : cb.lessThan(id, keyset.id());
+            }
+            return direction.isAscending()
+                    ? cb.or(cb.greaterThan(value, keysetValue),
+                            cb.and(cb.equal(value, keysetValue), cb.greaterThan(id, keyset.id())))
+                    : cb.or(cb.lessThan(value, keysetValue),
+                            cb.and(cb.equal(value, keysetValue), cb.lessThan(id, keyset.id())));
+        };
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
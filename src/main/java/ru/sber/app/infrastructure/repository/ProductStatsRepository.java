@@ -0,0 +1,107 @@
+package ru.sber.app.infrastructure.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Statistics of the active products, maintained by the triggers of {@code V10__product_stats.sql}: every write
+ * statement records its change per price bucket, {@link #compact()} folds the changes into the totals.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductStatsRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return the bounds the statistics are built with, empty if they are not built yet
+     */
+    public Optional<List<Float>> findPriceBounds() {
+        return Optional.ofNullable(jdbcTemplate.queryForObject(
+                "select price_bounds from product_stats_settings", (rs, rowNum) -> floats(rs.getArray(1))));
+    }
+
+    /**
+     * Builds the statistics with the given bounds from a scan of the active products, unless they are built with
+     * these bounds already. Writes to {@code products} wait for the scan, so no change is counted twice or lost;
+     * must run in a transaction.
+     *
+     * @return {@code true} if the statistics were built
+     */
+    public boolean rebuild(List<Float> priceBounds) {
+        jdbcTemplate.execute("lock table products in share mode");
+        List<Float> current = jdbcTemplate.queryForObject("select price_bounds from product_stats_settings for update",
+                (rs, rowNum) -> floats(rs.getArray(1)));
+        if (priceBounds.equals(current)) {
+            return false;
+        }
+        Float[] bounds = priceBounds.toArray(Float[]::new);
+        jdbcTemplate.update("update product_stats_settings set price_bounds = ?",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("float4", bounds)));
+        jdbcTemplate.update("delete from product_stats_deltas");
+        jdbcTemplate.update("delete from product_stats");
+        jdbcTemplate.update("""
+                insert into product_stats (bucket, products, price_sum)
+                select width_bucket(price, ?), count(*), sum(price::double precision)
+                from products where status = 'ACTIVE'
+                group by 1""", ps -> ps.setArray(1, ps.getConnection().createArrayOf("float4", bounds)));
+        return true;
+    }
+
+    /**
+     * Folds the recorded changes into the totals. Runs on several instances at once: a change is deleted, and
+     * so folded, by one of them only.
+     *
+     * @return the number of folded changes
+     */
+    public int compact() {
+        Integer folded = jdbcTemplate.queryForObject("""
+                with folded as (
+                    delete from product_stats_deltas returning bucket, products, price_sum
+                ), totals as (
+                    insert into product_stats (bucket, products, price_sum)
+                    select bucket, sum(products), sum(price_sum) from folded
+                    group by bucket
+                    order by bucket
+                    on conflict (bucket) do update
+                    set products = product_stats.products + excluded.products,
+                        price_sum = product_stats.price_sum + excluded.price_sum
+                )
+                select count(*) from folded""", Integer.class);
+        return folded == null ? 0 : folded;
+    }
+
+    /**
+     * @return the product count and the price sum per bucket that has products, ordered by bucket
+     */
+    public List<ProductPriceBucket> findBuckets() {
+        return jdbcTemplate.query("""
+                select bucket, sum(products) as products, sum(price_sum) as price_sum
+                from (select bucket, products, price_sum from product_stats
+                      union all
+                      select bucket, products, price_sum from product_stats_deltas) as changes
+                group by bucket
+                having sum(products) <> 0
+                order by bucket""",
+                (rs, rowNum) -> new ProductPriceBucket(rs.getInt("bucket"), rs.getLong("products"),
+                        rs.getDouble("price_sum")));
+    }
+
+    /**
+     * @return the lowest and the highest price of the active products, two lookups in the price index
+     */
+    public ProductPriceRange findPriceRange() {
+        return jdbcTemplate.queryForObject("select min(price), max(price) from products where status = 'ACTIVE'",
+                (rs, rowNum) -> new ProductPriceRange(rs.getObject(1, Float.class), rs.getObject(2, Float.class)));
+    }
+
+    private static List<Float> floats(Array array) throws SQLException {
+        return array == null ? null : Arrays.asList((Float[]) array.getArray());
+    }
+}
@@ -0,0 +1,9 @@
+package ru.sber.app.infrastructure.repository;
+
+import java.time.Instant;
+
+/**
+ * Version and modification time of a product, enough to validate a client's cached copy.
+ */
+public record ProductVersion(Integer version, Instant updatedAt) {
+}
@@ -0,0 +1,77 @@
+package ru.sber.app.presentation.cli;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+import ru.sber.app.application.product.ProductDumpService;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductDumpResultQuery;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.List;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Exports or imports a product dump and exits instead of serving requests:
+ * <pre>
+ * java -jar app.jar --spring.main.web-application-type=none --product-export=products.dump [--since=&lt;watermark&gt;]
+ * java -jar app.jar --spring.main.web-application-type=none --product-import=products.dump [--reuse-ids]
+ * </pre>
+ * The watermark of the dump is printed to standard output. {@code --reuse-ids} lets the import create products
+ * with IDs the ID sequence has already issued; it is safe only while no instance writes products.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ProductDumpCommand implements ApplicationRunner {
+    public static final String EXPORT_OPTION = "product-export";
+    public static final String IMPORT_OPTION = "product-import";
+    public static final String SINCE_OPTION = "since";
+    public static final String REUSE_IDS_OPTION = "reuse-ids";
+
+    private final ProductDumpService productDumpService;
+    private final ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        String export = option(args, EXPORT_OPTION);
+        String dump = option(args, IMPORT_OPTION);
+        if (export == null && dump == null) {
+            return;
+        }
+        int exitCode = 0;
+        try {
+            if (export != null) {
+                String since = option(args, SINCE_OPTION);
+                try (FileChannel channel = FileChannel.open(Path.of(export), WRITE, CREATE, TRUNCATE_EXISTING)) {
+                    long watermark = productDumpService.export(since == null ? 0 : Long.parseLong(since), channel);
+                    System.out.println("watermark=" + watermark);
+                }
+            } else {
+                try (FileChannel channel = FileChannel.open(Path.of(dump), READ)) {
+                    ProductDumpResultQuery result = productDumpService.importDump(channel,
+                            args.containsOption(REUSE_IDS_OPTION));
+                    System.out.println("watermark=" + result.getWatermark() + " created=" + result.getCreated()
+                            + " updated=" + result.getUpdated() + " deleted=" + result.getDeleted());
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            log.error("ProductDumpCommand | run | " + e.getMessage());
+            exitCode = 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(context, (ExitCodeGenerator) () -> code));
+    }
+
+    private static String option(ApplicationArguments args, String name) {
+        List<String> values = args.getOptionValues(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+}
@@ -0,0 +1,112 @@
+package ru.sber.app.presentation.grpc.advice;
+
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import ru.sber.app.infrastructure.admission.AdmissionRejectedException;
+import ru.sber.app.presentation.web.controller.advice.ApiError;
+import ru.sber.app.presentation.web.controller.advice.ApiErrorResolver;
+import ru.sber.app.presentation.web.controller.advice.ExceptionAdvice;
+
+/**
+ * gRPC counterpart of {@link ExceptionAdvice}: an exception thrown by a service closes the call with the status
+ * code matching the HTTP status the {@link ApiErrorResolver} maps it to, and the error message as the description.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GrpcExceptionInterceptor implements ServerInterceptor {
+    /**
+     * Seconds after which a rejected call may be retried, like the {@code Retry-After} header.
+     */
+    public static final Metadata.Key<String> RETRY_AFTER =
+            Metadata.Key.of("retry-after", Metadata.ASCII_STRING_MARSHALLER);
+
+    private final ApiErrorResolver apiErrorResolver;
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        ServerCall.Listener<ReqT> listener;
+        try {
+            listener = next.startCall(call, headers);
+        } catch (RuntimeException e) {
+            close(call, e);
+            return new ServerCall.Listener<>() {
+            };
+        }
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onMessage(ReqT message) {
+                try {
+                    super.onMessage(message);
+                } catch (RuntimeException e) {
+                    close(call, e);
+                }
+            }
+
+            @Override
+            public void onHalfClose() {
+                try {
+                    super.onHalfClose();
+                } catch (RuntimeException e) {
+                    close(call, e);
+                }
+            }
+
+            @Override
+            public void onReady() {
+                try {
+                    super.onReady();
+                } catch (RuntimeException e) {
+                    close(call, e);
+                }
+            }
+        };
+    }
+
+    private void close(ServerCall<?, ?> call, RuntimeException exception) {
+        Metadata trailers = new Metadata();
+        Status status = toStatus(exception, trailers);
+        try {
+            call.close(status, trailers);
+        } catch (IllegalStateException e) {
+            log.error("GrpcExceptionInterceptor | close | Call " + call.getMethodDescriptor().getFullMethodName()
+                    + " already closed, status " + status.getCode() + " not sent");
+        }
+    }
+
+    Status toStatus(RuntimeException exception, Metadata trailers) {
+        if (exception instanceof AdmissionRejectedException rejected) {
+            trailers.put(RETRY_AFTER, String.valueOf(ApiErrorResolver.retryAfterSeconds(rejected)));
+        }
+        ApiError error = apiErrorResolver.resolve(exception);
+        return codeOf(error.getStatus()).toStatus().withDescription(error.getMessage());
+    }
+
+    /**
+     * Status codes for the HTTP statuses the API answers with, following the gRPC mapping guidelines;
+     * a conflict with a concurrent write is {@code ABORTED}, the client may retry the whole sequence.
+     */
+    static Status.Code codeOf(HttpStatus httpStatus) {
+        return switch (httpStatus) {
+            case BAD_REQUEST -> Status.Code.INVALID_ARGUMENT;
+            case UNAUTHORIZED -> Status.Code.UNAUTHENTICATED;
+            case FORBIDDEN -> Status.Code.PERMISSION_DENIED;
+            case NOT_FOUND -> Status.Code.NOT_FOUND;
+            case CONFLICT -> Status.Code.ABORTED;
+            case PRECONDITION_FAILED -> Status.Code.FAILED_PRECONDITION;
+            case TOO_MANY_REQUESTS -> Status.Code.RESOURCE_EXHAUSTED;
+            case SERVICE_UNAVAILABLE, BAD_GATEWAY, GATEWAY_TIMEOUT -> Status.Code.UNAVAILABLE;
+            case NOT_IMPLEMENTED -> Status.Code.UNIMPLEMENTED;
+            default -> httpStatus.is4xxClientError() ? Status.Code.INVALID_ARGUMENT : Status.Code.INTERNAL;
+        };
+    }
+}
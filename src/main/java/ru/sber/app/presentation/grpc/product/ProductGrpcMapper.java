@@ -0,0 +1,53 @@
+package ru.sber.app.presentation.grpc.product;
+
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.presentation.grpc.product.proto.ProductProto;
+import ru.sber.app.presentation.web.controller.product.dto.commands.ProductCommand;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductBatchResultQuery;
+
+/**
+ * Converts between the protobuf messages and the types of the JSON API. Written by hand: the generated builders
+ * reject nulls and expose presence through {@code has*} methods, which MapStruct does not map.
+ */
+final class ProductGrpcMapper {
+
+    private ProductGrpcMapper() {
+    }
+
+    /**
+     * @param pendingPrice a price accepted by the {@code ProductPriceBuffer} but not written yet, or {@code null}
+     */
+    static ProductProto.Product toMessage(Product product, Float pendingPrice) {
+        ProductProto.Product.Builder message = ProductProto.Product.newBuilder()
+                .setId(product.getId())
+                .setTitle(product.getTitle())
+                .setPrice(pendingPrice != null ? pendingPrice : product.getPrice())
+                .setVersion(product.getVersion());
+        if (product.getDescription() != null) {
+            message.setDescription(product.getDescription());
+        }
+        return message.build();
+    }
+
+    static ProductCommand toCommand(ProductProto.ProductCommand message) {
+        return ProductCommand.builder()
+                .title(message.hasTitle() ? message.getTitle() : null)
+                .description(message.hasDescription() ? message.getDescription() : null)
+                .price(message.hasPrice() ? message.getPrice() : null)
+                .version(message.hasVersion() ? message.getVersion() : null)
+                .build();
+    }
+
+    static ProductProto.ProductBatchResult toMessage(ProductBatchResultQuery result) {
+        ProductProto.ProductBatchResult.Builder message = ProductProto.ProductBatchResult.newBuilder()
+                .setIndex(result.getIndex())
+                .setStatus(ProductProto.ProductBatchResult.Status.valueOf(result.getStatus().name()));
+        if (result.getId() != null) {
+            message.setId(result.getId());
+        }
+        if (result.getMessage() != null) {
+            message.setMessage(result.getMessage());
+        }
+        return message.build();
+    }
+}
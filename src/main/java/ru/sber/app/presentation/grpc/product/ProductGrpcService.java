@@ -0,0 +1,166 @@
+package ru.sber.app.presentation.grpc.product;
+
+import com.google.protobuf.Empty;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import ru.sber.app.application.product.ProductBatchService;
+import ru.sber.app.application.product.ProductPriceBuffer;
+import ru.sber.app.application.product.ProductService;
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.infrastructure.config.ProductBatchProperties;
+import ru.sber.app.presentation.grpc.advice.GrpcExceptionInterceptor;
+import ru.sber.app.presentation.grpc.product.proto.ProductProto;
+import ru.sber.app.presentation.grpc.product.proto.ProductServiceGrpc;
+import ru.sber.app.presentation.web.controller.product.ProductController;
+import ru.sber.app.presentation.web.controller.product.dto.commands.ProductCommand;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * gRPC counterpart of {@link ProductController} for internal callers, served by the same {@link ProductService}
+ * and {@link ProductBatchService}, so caching, events and cache invalidation behave the same. Exceptions are
+ * turned into status codes by the {@link GrpcExceptionInterceptor}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductGrpcService extends ProductServiceGrpc.ProductServiceImplBase {
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    private final ProductService productService;
+    private final ProductBatchService productBatchService;
+    private final ProductPriceBuffer productPriceBuffer;
+    private final ProductBatchProperties productBatchProperties;
+
+    @Override
+    public void getProduct(ProductProto.GetProductRequest request,
+                           StreamObserver<ProductProto.Product> responseObserver) {
+        Product product = productService.findById(request.getId());
+        responseObserver.onNext(ProductGrpcMapper.toMessage(product, productPriceBuffer.findPending(request.getId())));
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Streams the products page by page. A page is read only when the transport has taken the previous one,
+     * so a slow client holds neither a database connection nor more than one page.
+     */
+    @Override
+    public void listProducts(ProductProto.ListProductsRequest request,
+                             StreamObserver<ProductProto.ProductPage> responseObserver) {
+        ProductPageStream stream = new ProductPageStream(
+                (ServerCallStreamObserver<ProductProto.ProductPage>) responseObserver,
+                request.hasAfter() ? request.getAfter() : null,
+                request.getPageSize() > 0 ? request.getPageSize() : DEFAULT_PAGE_SIZE);
+        stream.observer.setOnReadyHandler(stream);
+        stream.run();
+    }
+
+    @Override
+    public void createProduct(ProductProto.ProductCommand request,
+                              StreamObserver<ProductProto.Product> responseObserver) {
+        Product product = productService.create(ProductGrpcMapper.toCommand(request));
+        responseObserver.onNext(ProductGrpcMapper.toMessage(product, null));
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void updateProduct(ProductProto.UpdateProductRequest request,
+                              StreamObserver<ProductProto.Product> responseObserver) {
+        Product product = productService.update(request.getId(), ProductGrpcMapper.toCommand(request.getCommand()));
+        responseObserver.onNext(ProductGrpcMapper.toMessage(product, null));
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void deleteProduct(ProductProto.DeleteProductRequest request, StreamObserver<Empty> responseObserver) {
+        productService.delete(request.getId());
+        responseObserver.onNext(Empty.getDefaultInstance());
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Writes the commands in chunks of {@code app.product.batch.chunk-size} while they arrive, so the stream is
+     * never held in memory as a whole. Chunks written before the client fails stay written.
+     */
+    @Override
+    public StreamObserver<ProductProto.ProductCommand> createProducts(
+            StreamObserver<ProductProto.CreateProductsResponse> responseObserver) {
+        return new StreamObserver<>() {
+            private final List<ProductCommand> chunk = new ArrayList<>();
+            private final ProductProto.CreateProductsResponse.Builder response =
+                    ProductProto.CreateProductsResponse.newBuilder();
+
+            @Override
+            public void onNext(ProductProto.ProductCommand command) {
+                chunk.add(ProductGrpcMapper.toCommand(command));
+                if (chunk.size() >= productBatchProperties.getChunkSize()) {
+                    write();
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                log.error("ProductGrpcService | createProducts | Stream failed after "
+                        + response.getResultsCount() + " products: " + t.getMessage());
+            }
+
+            @Override
+            public void onCompleted() {
+                write();
+                responseObserver.onNext(response.build());
+                responseObserver.onCompleted();
+            }
+
+            private void write() {
+                if (chunk.isEmpty()) {
+                    return;
+                }
+                int offset = response.getResultsCount();
+                productBatchService.createAll(chunk.iterator()).forEach(result -> {
+                    result.setIndex(offset + result.getIndex());
+                    response.addResults(ProductGrpcMapper.toMessage(result));
+                });
+                chunk.clear();
+            }
+        };
+    }
+
+    /**
+     * Sends pages while the transport takes them. Runs on the call's executor, which never runs it concurrently.
+     */
+    private final class ProductPageStream implements Runnable {
+        private final ServerCallStreamObserver<ProductProto.ProductPage> observer;
+        private final int pageSize;
+        private Integer after;
+        private boolean completed;
+
+        private ProductPageStream(ServerCallStreamObserver<ProductProto.ProductPage> observer, Integer after,
+                                  int pageSize) {
+            this.observer = observer;
+            this.after = after;
+            this.pageSize = pageSize;
+        }
+
+        @Override
+        public void run() {
+            while (!completed && !observer.isCancelled() && observer.isReady()) {
+                Slice<Product> slice = productService.findAll(after, pageSize);
+                ProductProto.ProductPage.Builder page = ProductProto.ProductPage.newBuilder();
+                slice.forEach(product -> page.addProducts(ProductGrpcMapper.toMessage(product, null)));
+                if (page.getProductsCount() > 0) {
+                    after = slice.getContent().get(slice.getNumberOfElements() - 1).getId();
+                    observer.onNext(page.build());
+                }
+                if (!slice.hasNext()) {
+                    completed = true;
+                    observer.onCompleted();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package ru.sber.app.presentation.web.controller.advice;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.server.ResponseStatusException;
+import ru.sber.app.application.product.IdempotencyKeyReusedException;
+import ru.sber.app.application.product.event.ProductEventsPurgedException;
+import ru.sber.app.infrastructure.admission.AdmissionRejectedException;
+
+import java.nio.file.AccessDeniedException;
+
+/**
+ * The one mapping of exceptions to the errors the API answers with, shared by {@link ExceptionAdvice} and
+ * {@code GrpcExceptionInterceptor}, so REST and gRPC clients get the same status for the same failure.
+ * Every resolved error is counted in the {@code api.errors} metric, tagged with its type and HTTP status.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ApiErrorResolver {
+    public static final String ERRORS_METRIC_NAME = "api.errors";
+
+    private final MeterRegistry meterRegistry;
+
+    public ApiError resolve(Throwable exception) {
+        if (exception instanceof AdmissionRejectedException rejected) {
+            // not logged: rejections come in floods exactly when the instance is overloaded, the metric counts them
+            return error(ApiErrorType.OVERLOAD, rejected.getStatus(), rejected.getMessage());
+        }
+        log.error("exception caught by advice {} ", exception.getMessage());
+        if (exception instanceof ConstraintViolationException
+                || exception instanceof DataIntegrityViolationException
+                || exception instanceof InvalidDataAccessApiUsageException) {
+            Throwable reported = exception.getCause() != null ? exception.getCause() : exception;
+            return error(ApiErrorType.BUSINESS, HttpStatus.BAD_REQUEST, reported.getMessage());
+        }
+        if (exception instanceof EntityNotFoundException) {
+            return error(ApiErrorType.BUSINESS, HttpStatus.NOT_FOUND, exception.getMessage());
+        }
+        if (exception instanceof OptimisticLockingFailureException) {
+            return error(ApiErrorType.BUSINESS, HttpStatus.CONFLICT, exception.getMessage());
+        }
+        if (exception instanceof IdempotencyKeyReusedException) {
+            return error(ApiErrorType.BUSINESS, HttpStatus.UNPROCESSABLE_ENTITY, exception.getMessage());
+        }
+        if (exception instanceof ProductEventsPurgedException) {
+            return error(ApiErrorType.BUSINESS, HttpStatus.GONE, exception.getMessage());
+        }
+        if (exception instanceof IllegalArgumentException || exception instanceof AccessDeniedException) {
+            return error(ApiErrorType.BUSINESS, HttpStatus.BAD_REQUEST, exception.getMessage());
+        }
+        if (exception instanceof ResponseStatusException responseStatus) {
+            return error(ApiErrorType.BUSINESS, HttpStatus.valueOf(responseStatus.getStatusCode().value()),
+                    responseStatus.getReason());
+        }
+        if (exception instanceof CannotCreateTransactionException
+                || exception instanceof CannotGetJdbcConnectionException) {
+            return error(ApiErrorType.SYSTEM, HttpStatus.SERVICE_UNAVAILABLE,
+                    "Сервис перегружен, повторите запрос позже");
+        }
+        return error(ApiErrorType.SYSTEM, HttpStatus.INTERNAL_SERVER_ERROR, exception.getMessage());
+    }
+
+    /**
+     * @return the whole seconds after which a rejected request may be retried, at least one
+     */
+    public static long retryAfterSeconds(AdmissionRejectedException exception) {
+        return Math.max(1, (exception.getRetryAfter().toMillis() + 999) / 1000);
+    }
+
+    private ApiError error(ApiErrorType type, HttpStatus status, String message) {
+        Counter.builder(ERRORS_METRIC_NAME)
+                .description("Errors returned by the API")
+                .tag("type", type.name().toLowerCase())
+                .tag("status", String.valueOf(status.value()))
+                .register(meterRegistry)
+                .increment();
+        return ApiError.builder()
+                .status(status)
+                .message(message)
+                .type(type)
+                .build();
+    }
+}
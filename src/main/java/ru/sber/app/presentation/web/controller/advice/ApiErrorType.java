@@ -8,7 +8,9 @@ public enum ApiErrorType {
     @JsonProperty("business")
     BUSINESS,
     @JsonProperty("system")
-    SYSTEM;
+    SYSTEM,
+    @JsonProperty("overload")
+    OVERLOAD;
     private ApiErrorType(){
 
     }
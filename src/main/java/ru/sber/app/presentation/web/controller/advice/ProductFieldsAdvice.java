@@ -0,0 +1,37 @@
+package ru.sber.app.presentation.web.controller.advice;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+import ru.sber.app.presentation.web.controller.product.ProductController;
+import ru.sber.app.presentation.web.controller.product.ProductFields;
+
+/**
+ * Writes only the product fields selected with {@code ?fields=} in the JSON responses of {@link ProductController}:
+ * single products and the items of pages and search results. Errors are written in full, their handlers belong to
+ * other classes.
+ */
+@RestControllerAdvice(assignableTypes = ProductController.class)
+public class ProductFieldsAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+            return;
+        }
+        HttpServletRequest httpRequest = servletRequest.getServletRequest();
+        ProductFields fields = ProductFields.parse(httpRequest.getParameter(ProductFields.PARAMETER));
+        if (!fields.isAll()) {
+            bodyContainer.setFilters(new SimpleFilterProvider().addFilter(ProductFields.FILTER, fields.filter()));
+        }
+    }
+}
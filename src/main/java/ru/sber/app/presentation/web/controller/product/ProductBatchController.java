@@ -0,0 +1,55 @@
+package ru.sber.app.presentation.web.controller.product;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import ru.sber.app.application.product.ProductBatchService;
+import ru.sber.app.presentation.web.controller.product.dto.commands.ProductBatchUpdateCommand;
+import ru.sber.app.presentation.web.controller.product.dto.commands.ProductCommand;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductBatchResultQuery;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/product/batch")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ProductBatchController {
+    private final ProductBatchService productBatchService;
+    private final ObjectMapper objectMapper;
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public List<ProductBatchResultQuery> createProducts(@RequestBody List<ProductCommand> commands){
+        return productBatchService.createAll(commands.iterator());
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public List<ProductBatchResultQuery> createProducts(InputStream body) throws IOException {
+        try (MappingIterator<ProductCommand> commands = objectMapper.readerFor(ProductCommand.class).readValues(body)) {
+            return productBatchService.createAll(commands);
+        }
+    }
+
+    @PutMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public List<ProductBatchResultQuery> updateProducts(@RequestBody List<ProductBatchUpdateCommand> commands){
+        return productBatchService.updateAll(commands.iterator());
+    }
+
+    @PutMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public List<ProductBatchResultQuery> updateProducts(InputStream body) throws IOException {
+        try (MappingIterator<ProductBatchUpdateCommand> commands =
+                     objectMapper.readerFor(ProductBatchUpdateCommand.class).readValues(body)) {
+            return productBatchService.updateAll(commands);
+        }
+    }
+
+    @DeleteMapping
+    public List<ProductBatchResultQuery> deleteProducts(@RequestBody List<Integer> ids){
+        return productBatchService.deleteAll(ids.iterator());
+    }
+}
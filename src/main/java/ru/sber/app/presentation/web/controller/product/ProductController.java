@@ -1,47 +1,183 @@
 package ru.sber.app.presentation.web.controller.product;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Slice;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.sber.app.application.product.mapper.ProductMapper;
+import ru.sber.app.application.product.ProductIdempotencyService;
+import ru.sber.app.application.product.ProductPriceBuffer;
 import ru.sber.app.application.product.ProductService;
 import ru.sber.app.domain.entity.Product;
+import ru.sber.app.infrastructure.repository.ProductKeyset;
+import ru.sber.app.infrastructure.repository.ProductVersion;
 import ru.sber.app.presentation.web.controller.product.dto.commands.ProductCommand;
+import ru.sber.app.presentation.web.controller.product.dto.commands.ProductPriceCommand;
+import ru.sber.app.presentation.web.controller.product.dto.commands.ProductSearchCommand;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductPageQuery;
 import ru.sber.app.presentation.web.controller.product.dto.queries.ProductQuery;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductSearchPageQuery;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
 import java.util.List;
 @RestController
 @RequestMapping("/api/v1/product")
 @RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ProductController {
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
     private final ProductService productService;
     private final ProductMapper productMapper;
+    private final ObjectMapper objectMapper;
+    private final ProductPriceBuffer productPriceBuffer;
+    private final ProductIdempotencyService productIdempotencyService;
     @GetMapping()
-    public List<ProductQuery> findAll(){
-        List<Product> products = productService.findAll();
-        return productMapper.fromProductsToQueries(products);
+    public ProductPageQuery findAll(@RequestParam(required = false) Integer after,
+                                    @RequestParam(defaultValue = "50") int limit,
+                                    WebRequest request){
+        Slice<Product> products = productService.findAll(after, limit);
+        // 304 is answered before the page is mapped and serialized
+        if (request.checkNotModified(ProductETags.ofPage(products))) {
+            return null;
+        }
+        List<ProductQuery> items = productMapper.fromProductsToQueries(products.getContent());
+        Integer nextCursor = products.hasNext() ? items.get(items.size() - 1).getId() : null;
+        return new ProductPageQuery(items, nextCursor);
 
     }
+    @GetMapping("/search")
+    public ProductSearchPageQuery search(ProductSearchCommand command){
+        Slice<ProductQuery> products = productService.search(command);
+        List<ProductQuery> items = products.getContent();
+        String nextCursor = products.hasNext()
+                ? ProductKeyset.of(command.getSort(), items.get(items.size() - 1)).encode()
+                : null;
+        return new ProductSearchPageQuery(items, nextCursor);
+    }
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAll(@RequestParam(name = ProductFields.PARAMETER,
+            required = false) String fields){
+        // an unknown field is answered with 400 here, before the response is committed
+        ProductFields selected = ProductFields.parse(fields);
+        // a streaming body gets no content type from a message converter, and compression depends on it
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(outputStream -> {
+            // rows go to the generator as they are read, its buffer is flushed to the response when full
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                productService.exportAll(product -> {
+                    try {
+                        ProductJsonWriter.write(generator, product, selected);
+                        // every line is terminated, as in the NDJSON of the reactive export
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        });
+    }
     @GetMapping("/{id}")
-    public ProductQuery findProductById(@PathVariable Integer id){
+    public ProductQuery findProductById(@PathVariable Integer id, NativeWebRequest request){
+        // a pending price is not part of any version, such a product is never answered with 304
+        Float pendingPrice = productPriceBuffer.findPending(id);
+        if (pendingPrice == null && ProductETags.isConditional(request)) {
+            // revalidation only needs the version, the product itself is loaded for a changed copy
+            ProductVersion version = productService.findVersion(id);
+            if (ProductETags.isNotModified(request, version.version(), version.updatedAt())) {
+                request.checkNotModified(ProductETags.of(version.version()),
+                        ProductETags.lastModified(version.updatedAt()));
+                return null;
+            }
+        }
         Product product = productService.findById(id);
-        return productMapper.fromProductToQuery(product);
+        // the flush may have finished meanwhile, the loaded product is then at least as new as pendingPrice
+        Float price = productPriceBuffer.findPending(id);
+        if (price == null && pendingPrice == null) {
+            // the tags describe the loaded product, not the version read above
+            if (request.checkNotModified(ProductETags.of(product.getVersion()),
+                    ProductETags.lastModified(product.getUpdatedAt()))) {
+                return null;
+            }
+            return productMapper.fromProductToQuery(product);
+        }
+        ProductQuery query = productMapper.fromProductToQuery(product);
+        query.setPrice(price != null ? price : pendingPrice);
+        return query;
 
     }
+    @PutMapping("/{id}/price")
+    public ResponseEntity<Void> updatePrice(@PathVariable Integer id, @RequestBody ProductPriceCommand command){
+        productPriceBuffer.put(id, command.getPrice());
+        return ResponseEntity.accepted().build();
+    }
     @PostMapping()
-    public ProductQuery createProduct(@RequestBody ProductCommand command){
-        Product createdProduct = productService.create(command);
-        return productMapper.fromProductToQuery(createdProduct);
+    public ResponseEntity<ProductQuery> createProduct(@RequestBody ProductCommand command,
+                                                      @RequestHeader(value = IDEMPOTENCY_KEY, required = false)
+                                                      String idempotencyKey){
+        if (idempotencyKey == null) {
+            Product createdProduct = productService.create(command);
+            return withETag(createdProduct);
+        }
+        ProductIdempotencyService.Result result = productIdempotencyService.create(idempotencyKey, command);
+        ResponseEntity.BodyBuilder response = withETag(result.product().getVersion(), result.lastModified());
+        if (result.replayed()) {
+            response.header(IDEMPOTENT_REPLAYED, "true");
+        }
+        return response.body(result.product());
     }
     @PutMapping("/{id}")
-    public ProductQuery updateProduct(@PathVariable Integer id ,@RequestBody ProductCommand command){
-        Product updatedProduct = productService.update(id, command);
-        return productMapper.fromProductToQuery(updatedProduct);
+    public ResponseEntity<ProductQuery> updateProduct(@PathVariable Integer id, @RequestBody ProductCommand command,
+                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                      String ifMatch){
+        if (ifMatch == null) {
+            return withETag(productService.update(id, command));
+        }
+        // the expected version goes into the update statement, so the check and the write are atomic
+        command.setVersion(ProductETags.parseIfMatch(id, ifMatch));
+        try {
+            return withETag(productService.update(id, command));
+        } catch (OptimisticLockingFailureException e) {
+            throw ProductETags.preconditionFailed(id);
+        }
     }
     @DeleteMapping("/{id}")
     public void deleteProduct(@PathVariable Integer id){
         productService.delete(id);
 
     }
+    @PostMapping("/{id}/archive")
+    public void archiveProduct(@PathVariable Integer id){
+        productService.archive(id);
+    }
+    @PostMapping("/{id}/restore")
+    public ResponseEntity<ProductQuery> restoreProduct(@PathVariable Integer id){
+        return withETag(productService.restore(id));
+    }
+
+    private ResponseEntity<ProductQuery> withETag(Product product){
+        return withETag(product.getVersion(), product.getUpdatedAt()).body(productMapper.fromProductToQuery(product));
+    }
+
+    private static ResponseEntity.BodyBuilder withETag(Integer version, Instant updatedAt){
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(ProductETags.of(version));
+        if (updatedAt != null) {
+            response.lastModified(updatedAt);
+        }
+        return response;
+    }
 
 
 
@@ -0,0 +1,52 @@
+package ru.sber.app.presentation.web.controller.product;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.sber.app.application.product.ProductDumpService;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductDumpResultQuery;
+
+import java.io.InputStream;
+import java.nio.channels.Channels;
+
+/**
+ * Binary product dumps, see {@link ProductDumpService} for the format. The watermark of a dump is stored
+ * in the dump itself and returned by the import.
+ */
+@RestController
+@RequestMapping("/api/v1/product/dump")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ProductDumpController {
+    private final ProductDumpService productDumpService;
+
+    /**
+     * Streams all products, or those changed after the watermark {@code since} of an earlier dump.
+     */
+    @GetMapping(produces = ProductDumpService.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "0") long since){
+        // fails before the response is committed, the export checks again in its own snapshot
+        productDumpService.checkSince(since);
+        String filename = since == 0 ? "products.dump" : "products-since-" + since + ".dump";
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ProductDumpService.MEDIA_TYPE))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(out -> productDumpService.export(since, Channels.newChannel(out)));
+    }
+
+    /**
+     * Applies a dump. Products it creates may take IDs already issued by the ID sequence only with
+     * {@code reuseIds=true}, while no instance writes products.
+     */
+    @PostMapping(consumes = ProductDumpService.MEDIA_TYPE)
+    public ProductDumpResultQuery importProducts(InputStream body,
+                                                 @RequestParam(defaultValue = "false") boolean reuseIds){
+        return productDumpService.importDump(Channels.newChannel(body), reuseIds);
+    }
+}
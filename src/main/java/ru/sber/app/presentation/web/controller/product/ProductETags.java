@@ -0,0 +1,93 @@
+package ru.sber.app.presentation.web.controller.product;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import ru.sber.app.domain.entity.Product;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Entity tags of product representations. A product changes its version on every write,
+ * so the version alone identifies the state of a single product and the IDs with versions identify a page.
+ * <p>
+ * Product tags are strong, {@code If-Match} compares them. Page tags are weak: a page is the same whether it is
+ * sent gzip-compressed or not, and the server compresses no response with a strong tag.
+ */
+final class ProductETags {
+
+    private ProductETags() {
+    }
+
+    static String of(Integer version) {
+        return "\"" + version + "\"";
+    }
+
+    static String ofPage(Slice<Product> page) {
+        StringBuilder state = new StringBuilder();
+        for (Product product : page.getContent()) {
+            state.append(product.getId()).append(':').append(product.getVersion()).append(',');
+        }
+        state.append(page.hasNext());
+        return "W/\"" + DigestUtils.md5DigestAsHex(state.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * @return the modification time in milliseconds, or {@code -1} when it is unknown
+     */
+    static long lastModified(Instant updatedAt) {
+        return updatedAt == null ? -1 : updatedAt.toEpochMilli();
+    }
+
+    /**
+     * @return whether the request revalidates a cached copy with {@code If-None-Match} or {@code If-Modified-Since}
+     */
+    static boolean isConditional(WebRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    /**
+     * Evaluates the conditional headers against the given version without writing the status or the tags to
+     * the response, unlike {@link WebRequest#checkNotModified(String, long)}.
+     *
+     * @return {@code true} if the copy of the client is current
+     */
+    static boolean isNotModified(NativeWebRequest request, Integer version, Instant updatedAt) {
+        return new ServletWebRequest(request.getNativeRequest(HttpServletRequest.class))
+                .checkNotModified(of(version), lastModified(updatedAt));
+    }
+
+    /**
+     * Converts an {@code If-Match} header to the version the client expects.
+     *
+     * @return the expected version, or {@code null} for {@code *}
+     * @throws ResponseStatusException with 412 if the header is not a single strong tag issued by {@link #of}
+     */
+    static Integer parseIfMatch(Integer productId, String ifMatch) {
+        String tag = ifMatch.trim();
+        if (tag.equals("*")) {
+            return null;
+        }
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Integer.valueOf(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // falls through to the precondition failure below
+            }
+        }
+        throw preconditionFailed(productId);
+    }
+
+    static ResponseStatusException preconditionFailed(Integer productId) {
+        return new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                "Продукт с id: " + productId + " был изменен, заголовок If-Match не совпадает");
+    }
+}
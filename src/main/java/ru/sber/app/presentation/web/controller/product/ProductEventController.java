@@ -0,0 +1,235 @@
+package ru.sber.app.presentation.web.controller.product;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.sber.app.application.product.event.ProductEventFeed;
+import ru.sber.app.application.product.event.ProductEventSubscription;
+import ru.sber.app.application.product.mapper.ProductMapper;
+import ru.sber.app.domain.event.ProductEvent;
+import ru.sber.app.infrastructure.config.ProductEventProperties;
+import ru.sber.app.presentation.web.controller.product.dto.commands.ProductEventOffsetCommand;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductEventOffsetQuery;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductEventPageQuery;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Product change stream. Clients read from a stream position ({@code after}), from the committed offset of a
+ * named {@code consumer} or, by default, from the current end of the stream. Delivery is at least once:
+ * consumers commit their offset after processing and deduplicate by event {@code id}.
+ */
+@RestController
+@RequestMapping("/api/v1/product/events")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ProductEventController {
+    public static final int MAX_POLL_TIMEOUT_SECONDS = 60;
+
+    private final ProductEventFeed productEventFeed;
+    private final ProductMapper productMapper;
+    private final ProductEventProperties productEventProperties;
+
+    /**
+     * Long poll: answers at once when events are available, otherwise waits for them up to {@code timeout} seconds
+     * and then answers with an empty page.
+     */
+    @GetMapping
+    public DeferredResult<ProductEventPageQuery> poll(@RequestParam(required = false) Long after,
+                                                      @RequestParam(required = false) String consumer,
+                                                      @RequestParam(defaultValue = "100") int limit,
+                                                      @RequestParam(defaultValue = "30") int timeout){
+        if (timeout < 0 || timeout > MAX_POLL_TIMEOUT_SECONDS) {
+            throw new IllegalArgumentException("Параметр timeout должен быть в диапазоне от 0 до "
+                    + MAX_POLL_TIMEOUT_SECONDS);
+        }
+        long start = productEventFeed.startPosition(after, consumer);
+        List<ProductEvent> events = productEventFeed.findAfter(start, limit);
+        DeferredResult<ProductEventPageQuery> result =
+                new DeferredResult<>(timeout * 1000L, new ProductEventPageQuery(List.of(), start));
+        if (!events.isEmpty() || timeout == 0) {
+            result.setResult(toPage(events, start));
+            return result;
+        }
+        ProductEventSubscription subscription = new LongPollSubscription(result, start, limit);
+        result.onCompletion(() -> productEventFeed.unsubscribe(subscription));
+        productEventFeed.subscribe(subscription);
+        return result;
+    }
+
+    /**
+     * Server-sent events: every event is sent with its stream position as the SSE id, so a reconnecting
+     * {@code EventSource} resumes after the last received event through {@code Last-Event-ID}. Each stream is
+     * written by a virtual thread of its own; a client that stops reading is disconnected after
+     * {@code app.product.events.stream-stall-timeout}.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(required = false) Long after,
+                             @RequestParam(required = false) String consumer,
+                             @RequestParam(defaultValue = "100") int limit,
+                             @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId){
+        long start = productEventFeed.startPosition(lastEventId != null ? lastEventId : after, consumer);
+        SseEmitter emitter = new SseEmitter();
+        SseSubscription subscription = new SseSubscription(emitter, start, limit);
+        emitter.onCompletion(subscription::close);
+        emitter.onError(error -> subscription.close());
+        productEventFeed.subscribe(subscription);
+        subscription.start();
+        return emitter;
+    }
+
+    @GetMapping("/offsets/{consumer}")
+    public ProductEventOffsetQuery findOffset(@PathVariable String consumer){
+        return new ProductEventOffsetQuery(consumer, productEventFeed.findOffset(consumer));
+    }
+
+    @PutMapping("/offsets/{consumer}")
+    public ProductEventOffsetQuery commitOffset(@PathVariable String consumer,
+                                                @RequestBody ProductEventOffsetCommand command){
+        if (command.getSeq() == null) {
+            throw new IllegalArgumentException("Не передано смещение seq");
+        }
+        return new ProductEventOffsetQuery(consumer, productEventFeed.commitOffset(consumer, command.getSeq()));
+    }
+
+    private ProductEventPageQuery toPage(List<ProductEvent> events, long after) {
+        long next = events.isEmpty() ? after : events.get(events.size() - 1).seq();
+        return new ProductEventPageQuery(productMapper.fromEventsToQueries(events), next);
+    }
+
+    private class LongPollSubscription implements ProductEventSubscription {
+        private final DeferredResult<ProductEventPageQuery> result;
+        private final long after;
+        private final int limit;
+
+        LongPollSubscription(DeferredResult<ProductEventPageQuery> result, long after, int limit) {
+            this.result = result;
+            this.after = after;
+            this.limit = limit;
+        }
+
+        @Override
+        public long after() {
+            return after;
+        }
+
+        @Override
+        public int limit() {
+            return limit;
+        }
+
+        @Override
+        public boolean deliver(List<ProductEvent> events) {
+            result.setResult(toPage(events, after));
+            return false;
+        }
+    }
+
+    /**
+     * Queues pages for a sender thread, so a slow client never holds up the feed dispatcher. While the queue is
+     * full the dispatcher passes the subscription over; once it has stayed full for the stall timeout, the
+     * subscription is dropped and the stream completed.
+     */
+    private class SseSubscription implements ProductEventSubscription, Runnable {
+        private final SseEmitter emitter;
+        private final int limit;
+        private final BlockingQueue<List<ProductEvent>> pages;
+        private final AtomicBoolean passedOver = new AtomicBoolean();
+        /**
+         * When the dispatcher first found the queue full, or {@code 0} while the sender keeps taking pages.
+         */
+        private final AtomicLong fullSince = new AtomicLong();
+        private volatile long after;
+        private volatile boolean closed;
+        private volatile Thread sender;
+
+        SseSubscription(SseEmitter emitter, long after, int limit) {
+            this.emitter = emitter;
+            this.after = after;
+            this.limit = limit;
+            this.pages = new ArrayBlockingQueue<>(productEventProperties.getStreamBuffer());
+        }
+
+        void start() {
+            sender = Thread.ofVirtual().name("product-event-stream").start(this);
+        }
+
+        void close() {
+            closed = true;
+            productEventFeed.unsubscribe(this);
+            Thread thread = sender;
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+
+        @Override
+        public long after() {
+            return after;
+        }
+
+        @Override
+        public int limit() {
+            return limit;
+        }
+
+        @Override
+        public boolean isReady() {
+            if (pages.remainingCapacity() > 0) {
+                return true;
+            }
+            passedOver.set(true);
+            long now = System.nanoTime();
+            // measured from when the queue filled up: a stream that was idle before a burst is not stalled
+            fullSince.compareAndSet(0, now);
+            if (now - fullSince.get() > productEventProperties.getStreamStallTimeout().toNanos()) {
+                // the client has stopped reading: the sender completes the stream after its current write
+                closed = true;
+                productEventFeed.unsubscribe(this);
+            }
+            return false;
+        }
+
+        @Override
+        public boolean deliver(List<ProductEvent> events) {
+            if (closed || !pages.offer(events)) {
+                return false;
+            }
+            after = events.get(events.size() - 1).seq();
+            return true;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!closed) {
+                    List<ProductEvent> page = pages.take();
+                    fullSince.set(0);
+                    for (ProductEvent event : page) {
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(event.seq()))
+                                .name(event.type().name().toLowerCase())
+                                .data(productMapper.fromEventToQuery(event), MediaType.APPLICATION_JSON));
+                    }
+                    if (passedOver.compareAndSet(true, false)) {
+                        productEventFeed.resume(this);
+                    }
+                }
+                emitter.complete();
+            } catch (InterruptedException e) {
+                // the stream has completed
+            } catch (IOException | IllegalStateException e) {
+                // the client has gone away
+                productEventFeed.unsubscribe(this);
+            }
+        }
+    }
+}
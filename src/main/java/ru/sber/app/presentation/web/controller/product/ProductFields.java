@@ -0,0 +1,70 @@
+package ru.sber.app.presentation.web.controller.product;
+
+import com.fasterxml.jackson.databind.ser.PropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import lombok.extern.slf4j.Slf4j;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductQuery;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fields of {@link ProductQuery} a client selects with {@code ?fields=id,title,price}, e.g. to leave out the
+ * descriptions of a product list it does not show. Without the parameter every field is written.
+ */
+@Slf4j
+public final class ProductFields {
+    /**
+     * Jackson filter of {@link ProductQuery}, see {@link ProductQueryMixin}.
+     */
+    public static final String FILTER = "productFields";
+    public static final String PARAMETER = "fields";
+
+    static final String ID = "id";
+    static final String TITLE = "title";
+    static final String DESCRIPTION = "description";
+    static final String PRICE = "price";
+    static final String VERSION = "version";
+    private static final List<String> NAMES = List.of(ID, TITLE, DESCRIPTION, PRICE, VERSION);
+    private static final ProductFields ALL = new ProductFields(Set.copyOf(NAMES));
+
+    private final Set<String> names;
+
+    private ProductFields(Set<String> names) {
+        this.names = names;
+    }
+
+    /**
+     * @param fields comma separated field names, or {@code null} for all fields
+     * @throws IllegalArgumentException if a name is not a field of {@link ProductQuery}
+     */
+    public static ProductFields parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        Set<String> names = new LinkedHashSet<>();
+        for (String name : fields.split(",")) {
+            String field = name.trim();
+            if (!NAMES.contains(field)) {
+                log.error("ProductFields | parse | Unknown field: " + field);
+                throw new IllegalArgumentException("Неизвестное поле товара: " + field + ", допустимые поля: "
+                        + String.join(", ", NAMES));
+            }
+            names.add(field);
+        }
+        return new ProductFields(names);
+    }
+
+    public boolean isAll() {
+        return names.size() == NAMES.size();
+    }
+
+    public PropertyFilter filter() {
+        return SimpleBeanPropertyFilter.filterOutAllExcept(names);
+    }
+
+    boolean includes(String field) {
+        return names.contains(field);
+    }
+}
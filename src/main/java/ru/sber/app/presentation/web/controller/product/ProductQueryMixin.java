@@ -0,0 +1,14 @@
+package ru.sber.app.presentation.web.controller.product;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import org.springframework.boot.jackson.JsonMixin;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductQuery;
+
+/**
+ * Lets the application {@code ObjectMapper} filter the fields of {@link ProductQuery}, see {@link ProductFields}.
+ * A mixin rather than an annotation on the DTO, so that other mappers write it without a filter provider.
+ */
+@JsonMixin(ProductQuery.class)
+@JsonFilter(ProductFields.FILTER)
+abstract class ProductQueryMixin {
+}
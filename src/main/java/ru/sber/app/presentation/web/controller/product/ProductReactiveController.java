@@ -0,0 +1,57 @@
+package ru.sber.app.presentation.web.controller.product;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.sber.app.application.product.ProductReactiveService;
+import ru.sber.app.application.product.mapper.ProductMapper;
+import ru.sber.app.presentation.web.controller.product.dto.commands.ProductCommand;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductPageQuery;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductQuery;
+
+import java.util.List;
+
+/**
+ * WebFlux counterpart of {@link ProductController}, served instead of it when the application runs
+ * as a reactive web application.
+ */
+@RestController
+@RequestMapping("/api/v1/product")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ProductReactiveController {
+    private final ProductReactiveService productReactiveService;
+    private final ProductMapper productMapper;
+    @GetMapping()
+    public Mono<ProductPageQuery> findAll(@RequestParam(required = false) Integer after,
+                                          @RequestParam(defaultValue = "50") int limit){
+        return productReactiveService.findAll(after, limit).map(products -> {
+            List<ProductQuery> items = productMapper.fromProductsToQueries(products.getContent());
+            Integer nextCursor = products.hasNext() ? items.get(items.size() - 1).getId() : null;
+            return new ProductPageQuery(items, nextCursor);
+        });
+    }
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ProductQuery> exportAll(){
+        return productReactiveService.exportAll().map(productMapper::fromProductToQuery);
+    }
+    @GetMapping("/{id}")
+    public Mono<ProductQuery> findProductById(@PathVariable Integer id){
+        return productReactiveService.findById(id).map(productMapper::fromProductToQuery);
+    }
+    @PostMapping()
+    public Mono<ProductQuery> createProduct(@RequestBody ProductCommand command){
+        return productReactiveService.create(command).map(productMapper::fromProductToQuery);
+    }
+    @PutMapping("/{id}")
+    public Mono<ProductQuery> updateProduct(@PathVariable Integer id, @RequestBody ProductCommand command){
+        return productReactiveService.update(id, command).map(productMapper::fromProductToQuery);
+    }
+    @DeleteMapping("/{id}")
+    public Mono<Void> deleteProduct(@PathVariable Integer id){
+        return productReactiveService.delete(id);
+    }
+}
@@ -0,0 +1,25 @@
+package ru.sber.app.presentation.web.controller.product;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.sber.app.application.product.ProductStatsService;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductStatsQuery;
+
+/**
+ * Catalog statistics for dashboards, read from totals maintained by every write instead of a scan of the catalog.
+ */
+@RestController
+@RequestMapping("/api/v1/product/stats")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ProductStatsController {
+    private final ProductStatsService productStatsService;
+
+    @GetMapping
+    public ProductStatsQuery getStats() {
+        return productStatsService.getStats();
+    }
+}
@@ -0,0 +1,21 @@
+package ru.sber.app.presentation.web.controller.product.dto.commands;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductBatchUpdateCommand {
+
+    private Integer id;
+
+    private String title;
+
+    private String description;
+
+    private Float price;
+}
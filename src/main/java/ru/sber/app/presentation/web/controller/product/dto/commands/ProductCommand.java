@@ -16,4 +16,6 @@ public class ProductCommand {
     private String description;
 
     private Float price;
+
+    private Integer version;
 }
@@ -0,0 +1,33 @@
+package ru.sber.app.presentation.web.controller.product.dto.commands;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Sort;
+import ru.sber.app.application.product.ProductService;
+import ru.sber.app.infrastructure.repository.ProductSortField;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductSearchCommand {
+
+    private String text;
+
+    private Float minPrice;
+
+    private Float maxPrice;
+
+    @Builder.Default
+    private ProductSortField sort = ProductSortField.ID;
+
+    @Builder.Default
+    private Sort.Direction direction = Sort.Direction.ASC;
+
+    @Builder.Default
+    private Integer limit = ProductService.DEFAULT_PAGE_SIZE;
+
+    private String cursor;
+}
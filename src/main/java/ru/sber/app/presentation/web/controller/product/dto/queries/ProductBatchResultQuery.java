@@ -0,0 +1,19 @@
+package ru.sber.app.presentation.web.controller.product.dto.queries;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductBatchResultQuery {
+    private Integer index;
+
+    private Integer id;
+
+    private ProductBatchStatus status;
+
+    private String message;
+}
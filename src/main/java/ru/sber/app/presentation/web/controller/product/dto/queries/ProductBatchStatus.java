@@ -0,0 +1,16 @@
+package ru.sber.app.presentation.web.controller.product.dto.queries;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public enum ProductBatchStatus {
+    @JsonProperty("created")
+    CREATED,
+    @JsonProperty("updated")
+    UPDATED,
+    @JsonProperty("deleted")
+    DELETED,
+    @JsonProperty("not_found")
+    NOT_FOUND,
+    @JsonProperty("failed")
+    FAILED
+}
@@ -0,0 +1,17 @@
+package ru.sber.app.presentation.web.controller.product.dto.queries;
+
+import lombok.*;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductDumpResultQuery {
+    private Long watermark;
+
+    private Integer created;
+
+    private Integer updated;
+
+    private Integer deleted;
+}
@@ -0,0 +1,13 @@
+package ru.sber.app.presentation.web.controller.product.dto.queries;
+
+import lombok.*;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductEventOffsetQuery {
+    private String consumer;
+
+    private Long seq;
+}
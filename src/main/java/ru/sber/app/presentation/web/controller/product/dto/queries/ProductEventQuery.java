@@ -0,0 +1,28 @@
+package ru.sber.app.presentation.web.controller.product.dto.queries;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.*;
+import ru.sber.app.domain.event.ProductEventType;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductEventQuery {
+    private Long seq;
+
+    private Long id;
+
+    private Integer productId;
+
+    private ProductEventType type;
+
+    private Integer version;
+
+    @JsonRawValue
+    private String payload;
+
+    private Instant createdAt;
+}
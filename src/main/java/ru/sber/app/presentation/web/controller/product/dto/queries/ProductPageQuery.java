@@ -0,0 +1,15 @@
+package ru.sber.app.presentation.web.controller.product.dto.queries;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductPageQuery {
+    private List<ProductQuery> items;
+
+    private Integer nextCursor;
+}
@@ -0,0 +1,19 @@
+package ru.sber.app.presentation.web.controller.product.dto.queries;
+
+import lombok.*;
+
+/**
+ * Products with prices from {@code from} (inclusive) up to {@code to}; the first bucket has no lower bound,
+ * the last no upper bound.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductPriceBucketQuery {
+    private Float from;
+
+    private Float to;
+
+    private long products;
+}
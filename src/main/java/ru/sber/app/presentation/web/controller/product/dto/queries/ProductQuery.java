@@ -14,4 +14,6 @@ public class ProductQuery {
     private String description;
 
     private Float price;
+
+    private Integer version;
 }
@@ -0,0 +1,15 @@
+package ru.sber.app.presentation.web.controller.product.dto.queries;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductSearchPageQuery {
+    private List<ProductQuery> items;
+
+    private String nextCursor;
+}
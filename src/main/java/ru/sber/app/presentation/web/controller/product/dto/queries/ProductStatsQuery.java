@@ -0,0 +1,21 @@
+package ru.sber.app.presentation.web.controller.product.dto.queries;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductStatsQuery {
+    private long products;
+
+    private Float minPrice;
+
+    private Float maxPrice;
+
+    private Double averagePrice;
+
+    private List<ProductPriceBucketQuery> priceHistogram;
+}
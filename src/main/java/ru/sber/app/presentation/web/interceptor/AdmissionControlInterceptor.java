@@ -0,0 +1,117 @@
+package ru.sber.app.presentation.web.interceptor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import ru.sber.app.infrastructure.admission.AdaptiveConcurrencyLimit;
+import ru.sber.app.infrastructure.admission.AdmissionRejectedException;
+import ru.sber.app.infrastructure.admission.TokenBuckets;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Admission control: a request is rejected before it occupies a thread in the service if its client has used up
+ * its token bucket (429) or if its budget is at its {@link AdaptiveConcurrencyLimit} (503). Reads and writes have
+ * separate budgets. The rejection is rendered by {@code ExceptionAdvice} with a {@code Retry-After} header.
+ * <p>
+ * A request that continues asynchronously (long polls, streams) leaves the concurrency limit when its handler
+ * returns, since it no longer holds a request thread.
+ */
+public class AdmissionControlInterceptor implements AsyncHandlerInterceptor {
+    public static final String REJECTED_METRIC_NAME = "http.server.admission.rejected";
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+    private static final String ADMISSION_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".admission";
+    private static final Duration CONCURRENCY_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final Budget read;
+    private final Budget write;
+    private final String clientHeader;
+    private final MeterRegistry meterRegistry;
+
+    public AdmissionControlInterceptor(Budget read, Budget write, String clientHeader, MeterRegistry meterRegistry) {
+        this.read = read;
+        this.write = write;
+        this.clientHeader = clientHeader;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        Budget budget = READ_METHODS.contains(request.getMethod()) ? read : write;
+        Duration wait = budget.tokenBuckets().tryConsume(client(request));
+        if (!wait.isZero()) {
+            reject(budget, "rate");
+            throw new AdmissionRejectedException(HttpStatus.TOO_MANY_REQUESTS, wait,
+                    "Превышен лимит запросов, повторите запрос позже");
+        }
+        int inFlight = budget.limit().tryAcquire();
+        if (inFlight < 0) {
+            reject(budget, "concurrency");
+            throw new AdmissionRejectedException(HttpStatus.SERVICE_UNAVAILABLE, CONCURRENCY_RETRY_AFTER,
+                    "Сервис перегружен, повторите запрос позже");
+        }
+        request.setAttribute(ADMISSION_ATTRIBUTE, new Admission(budget.limit(), System.nanoTime(), inFlight));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        if (request.getAttribute(ADMISSION_ATTRIBUTE) instanceof Admission admission) {
+            request.removeAttribute(ADMISSION_ATTRIBUTE);
+            admission.limit().release();
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(ADMISSION_ATTRIBUTE) instanceof Admission admission) {
+            request.removeAttribute(ADMISSION_ATTRIBUTE);
+            int status = response.getStatus();
+            boolean dropped = status == HttpStatus.SERVICE_UNAVAILABLE.value()
+                    || status == HttpStatus.GATEWAY_TIMEOUT.value();
+            admission.limit().release(System.nanoTime() - admission.started(), admission.inFlight(), dropped);
+        }
+    }
+
+    public Budget getRead() {
+        return read;
+    }
+
+    public Budget getWrite() {
+        return write;
+    }
+
+    private String client(HttpServletRequest request) {
+        String client = clientHeader == null ? null : request.getHeader(clientHeader);
+        return client == null || client.isBlank() ? request.getRemoteAddr() : client;
+    }
+
+    private void reject(Budget budget, String reason) {
+        Counter.builder(REJECTED_METRIC_NAME)
+                .description("Requests rejected by admission control")
+                .tag("budget", budget.name())
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * The rate and concurrency limits shared by one kind of requests.
+     */
+    public record Budget(String name, TokenBuckets tokenBuckets, AdaptiveConcurrencyLimit limit) {
+    }
+
+    private record Admission(AdaptiveConcurrencyLimit limit, long started, int inFlight) {
+    }
+}
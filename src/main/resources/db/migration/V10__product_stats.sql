@@ -0,0 +1,67 @@
+-- Catalog statistics of the active products, maintained by the writing transactions: a statement appends the change
+-- of the product count and the price sum per histogram bucket to product_stats_deltas, insert-only so that
+-- concurrent writers never wait for each other; a scheduled job folds the deltas into product_stats. Readers add
+-- up both tables, a few rows per bucket whatever the catalog size.
+
+-- the upper bounds of the price histogram buckets, set by the application from app.product.stats.price-buckets;
+-- null until it has built the statistics, writes record nothing meanwhile
+create table if not exists product_stats_settings (
+    id boolean primary key default true check (id),
+    price_bounds real[]
+);
+insert into product_stats_settings default values on conflict do nothing;
+
+-- bucket i holds prices in [price_bounds[i], price_bounds[i + 1]), bucket 0 the prices below price_bounds[1]
+create table if not exists product_stats (
+    bucket integer primary key,
+    products bigint not null,
+    price_sum double precision not null
+);
+
+create table if not exists product_stats_deltas (
+    id bigint generated by default as identity primary key,
+    bucket integer not null,
+    products bigint not null,
+    price_sum double precision not null
+);
+
+create or replace function product_stats_record() returns trigger language plpgsql as $$
+declare
+    bounds real[] := (select price_bounds from product_stats_settings);
+begin
+    if bounds is null then
+        return null;
+    end if;
+    if tg_op = 'INSERT' then
+        insert into product_stats_deltas (bucket, products, price_sum)
+        select width_bucket(price, bounds), count(*), sum(price::double precision)
+        from new_rows where status = 'ACTIVE'
+        group by 1;
+    elsif tg_op = 'DELETE' then
+        insert into product_stats_deltas (bucket, products, price_sum)
+        select width_bucket(price, bounds), -count(*), -sum(price::double precision)
+        from old_rows where status = 'ACTIVE'
+        group by 1;
+    else
+        -- a title change cancels out and records nothing; archival and restore move a product out and in
+        insert into product_stats_deltas (bucket, products, price_sum)
+        select bucket, sum(products), sum(price_sum)
+        from (select width_bucket(price, bounds) as bucket, 1 as products, price::double precision as price_sum
+              from new_rows where status = 'ACTIVE'
+              union all
+              select width_bucket(price, bounds), -1, -price::double precision
+              from old_rows where status = 'ACTIVE') as changes
+        group by bucket
+        having sum(products) <> 0 or sum(price_sum) <> 0;
+    end if;
+    return null;
+end
+$$;
+
+-- statement triggers on the partitioned table see the rows of every partition and the rows moved between them
+create trigger products_stats_insert after insert on products
+    referencing new table as new_rows for each statement execute function product_stats_record();
+create trigger products_stats_update after update on products
+    referencing old table as old_rows new table as new_rows for each statement execute function product_stats_record();
+create trigger products_stats_delete after delete on products
+    referencing old table as old_rows for each statement execute function product_stats_record();
@@ -0,0 +1,8 @@
+-- Matches the table previously created by Hibernate ddl-auto, so existing databases are baselined safely.
+create table if not exists products
+(
+    id          integer generated by default as identity primary key,
+    title       varchar(100) not null,
+    description varchar(255),
+    price       real         not null
+);
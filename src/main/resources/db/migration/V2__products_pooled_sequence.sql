@@ -0,0 +1,9 @@
+-- Identity columns force Hibernate to insert rows one by one to read back the key.
+-- A sequence with increment 50 lets it reserve ids in blocks (pooled-lo) and batch the inserts.
+create sequence if not exists products_seq increment by 50;
+
+select setval('products_seq', coalesce((select max(id) from products), 0) + 1, false);
+
+alter table products alter column id drop identity if exists;
+alter table products alter column id set default nextval('products_seq');
+alter sequence products_seq owned by products.id;
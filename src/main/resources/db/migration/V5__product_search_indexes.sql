@@ -0,0 +1,11 @@
+-- Built concurrently so the migration does not block writes on a large table; Flyway runs it outside a transaction.
+-- Trigram indexes serve substring search (lower(column) like '%text%').
+create index concurrently if not exists products_title_trgm_idx
+    on products using gin (lower(title) gin_trgm_ops);
+create index concurrently if not exists products_description_trgm_idx
+    on products using gin (lower(description) gin_trgm_ops);
+-- B-tree indexes serve price ranges and keyset pagination ordered by price or title.
+create index concurrently if not exists products_price_id_idx
+    on products (price, id);
+create index concurrently if not exists products_title_id_idx
+    on products (title, id);
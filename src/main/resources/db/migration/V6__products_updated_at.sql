@@ -0,0 +1 @@
+alter table products add column if not exists updated_at timestamp with time zone not null default now();
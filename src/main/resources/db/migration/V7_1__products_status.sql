@@ -0,0 +1,5 @@
+-- Preparation of the partitioning in V8, split so that no step holds an exclusive lock through a scan of products.
+-- The column has a constant default, so it is added without rewriting the table, and the check constraint is added
+-- without validation: both only take the exclusive lock for a catalog update.
+alter table products add column if not exists status varchar(16) not null default 'ACTIVE';
+alter table products add constraint products_active_status_check check (status = 'ACTIVE') not valid;
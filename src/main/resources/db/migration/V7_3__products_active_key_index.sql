@@ -0,0 +1,3 @@
+-- The unique index behind the (id, status) primary key of the active partition. Built concurrently so it does not
+-- block writes; Flyway runs it outside a transaction. V8 turns it into the primary key without another scan.
+create unique index concurrently if not exists products_active_pkey on products (id, status);
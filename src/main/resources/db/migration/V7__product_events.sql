@@ -0,0 +1,22 @@
+-- transactional outbox: events are inserted by the writing transaction and published later by the relay
+create table if not exists product_events (
+    id bigint generated by default as identity primary key,
+    product_id integer not null,
+    type varchar(16) not null,
+    version integer,
+    payload jsonb,
+    created_at timestamp with time zone not null default now(),
+    -- position in the published stream, assigned by the relay in commit order
+    seq bigint unique
+);
+
+create sequence if not exists product_event_seq;
+
+-- the relay scans only the events it has not published yet
+create index if not exists product_events_unpublished_idx on product_events (id) where seq is null;
+
+create table if not exists product_event_offsets (
+    consumer varchar(100) primary key,
+    seq bigint not null,
+    updated_at timestamp with time zone not null default now()
+);
@@ -0,0 +1,33 @@
+-- Products are partitioned by status: active ones stay in a small hot partition that vacuum and index maintenance
+-- keep up with, archived ones are moved to a cold partition that is rarely written.
+-- The existing table becomes the ACTIVE partition as it is, so no rows are copied. Everything that scans products
+-- ran in V7_1 - V7_3 without blocking writes: this migration holds the exclusive lock for catalog updates only.
+
+-- a primary key of a partitioned table must contain the partition key; ids stay unique through products_seq
+alter table products drop constraint products_pkey;
+alter table products add constraint products_active_pkey primary key using index products_active_pkey;
+
+alter table products rename to products_active;
+alter index products_title_trgm_idx rename to products_active_title_trgm_idx;
+alter index products_description_trgm_idx rename to products_active_description_trgm_idx;
+alter index products_price_id_idx rename to products_active_price_id_idx;
+alter index products_title_id_idx rename to products_active_title_id_idx;
+
+create table products (like products_active including defaults) partition by list (status);
+alter table products add primary key (id, status);
+create table products_archived partition of products for values in ('ARCHIVED');
+
+-- the indexes of products_active match these and are attached to them instead of being built again; the attach
+-- finds the validated products_active_status_check and skips its scan
+create index products_title_trgm_idx on products using gin (lower(title) gin_trgm_ops);
+create index products_description_trgm_idx on products using gin (lower(description) gin_trgm_ops);
+create index products_price_id_idx on products (price, id);
+create index products_title_id_idx on products (title, id);
+
+alter table products attach partition products_active for values in ('ACTIVE');
+alter table products_active drop constraint products_active_status_check;
+
+-- archival picks the active products not changed for a while
+create index products_active_updated_at_idx on products_active (updated_at);
+
+alter sequence products_seq owned by products.id;
@@ -0,0 +1,15 @@
+-- responses of POST /api/v1/product by Idempotency-Key. The key is inserted by the creating transaction before the
+-- product and completed with the response after it: a concurrent request with the same key waits on the uncommitted
+-- row and then replays the response, so the columns of the response are never seen empty.
+create table if not exists idempotency_keys (
+    key varchar(255) primary key,
+    -- SHA-256 of the request body, a key reused for another request is rejected
+    request_hash bytea not null,
+    product_id integer,
+    response jsonb,
+    last_modified timestamp with time zone,
+    created_at timestamp with time zone not null default now()
+);
+
+-- keys older than the TTL are purged in created_at order
+create index if not exists idempotency_keys_created_at_idx on idempotency_keys (created_at);
@@ -0,0 +1,113 @@
+package ru.sber.app.application.product;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.domain.entity.ProductStatus;
+import ru.sber.app.infrastructure.cache.ProductCacheInvalidationPublisher;
+import ru.sber.app.infrastructure.config.CacheConfig;
+import ru.sber.app.infrastructure.config.ProductArchivalProperties;
+import ru.sber.app.infrastructure.repository.ProductCacheInvalidator;
+import ru.sber.app.infrastructure.repository.ProductEventRepository;
+import ru.sber.app.infrastructure.repository.ProductRepository;
+
+import java.util.List;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Интеграционные тесты ProductArchiver на PostgreSQL")
+@DataJpaTest(properties = {"app.product.archival.cold-after=30d", "app.product.archival.batch-size=2"})
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@Import({ProductArchiver.class, ProductEventRepository.class, ProductCacheInvalidator.class,
+        ProductCacheInvalidationPublisher.class, ProductArchiverPostgresTest.Config.class})
+public class ProductArchiverPostgresTest {
+
+    @TestConfiguration
+    @EnableConfigurationProperties(ProductArchivalProperties.class)
+    static class Config {
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(CacheConfig.PRODUCTS, CacheConfig.PRODUCT_PAGES);
+        }
+    }
+
+    @Autowired
+    ProductRepository repo;
+    @Autowired
+    ProductArchiver archiver;
+    @Autowired
+    CacheManager cacheManager;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Давно не менявшиеся товары переедут в архивную секцию пачками и пропадут из выборок")
+    void archiveCold_OldProducts_MovesThemToArchivedPartition() {
+        //given
+        List<Product> old = List.of(
+                repo.save(Product.builder().title("sofa").price(1F).build()),
+                repo.save(Product.builder().title("chair").price(2F).build()),
+                repo.save(Product.builder().title("table").price(3F).build()));
+        Product fresh = repo.saveAndFlush(Product.builder().title("lamp").price(4F).build());
+        List<Integer> oldIds = old.stream().map(Product::getId).toList();
+        jdbcTemplate.update("update products set updated_at = now() - interval '60 days' where id = any(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("integer", oldIds.toArray())));
+        Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+        products.put(oldIds.get(0), old.get(0));
+        entityManager.clear();
+
+        //when
+        int archived = archiver.archiveCold();
+
+        //then
+        assertEquals(3, archived);
+        assertNull(products.get(oldIds.get(0)));
+        assertEquals(oldIds, jdbcTemplate.queryForList(
+                "select id from products_archived where id = any(?) order by id", Integer.class,
+                (Object) oldIds.toArray(Integer[]::new)));
+        assertTrue(repo.findById(oldIds.get(0)).isEmpty());
+        assertEquals(List.of(fresh.getId()), repo.findByIdGreaterThanOrderByIdAsc(oldIds.get(0) - 1, Limit.of(10))
+                .stream().map(Product::getId).toList());
+        assertEquals(oldIds, jdbcTemplate.queryForList(
+                "select product_id from product_events where type = 'DELETED' and product_id = any(?) order by seq",
+                Integer.class, (Object) oldIds.toArray(Integer[]::new)));
+        assertEquals(0, archiver.archiveCold());
+    }
+
+    @Test
+    @DisplayName("Восстановленный товар вернется в активную секцию с новой версией")
+    void restoreById_ArchivedProduct_MovesItBack() {
+        //given
+        Product sofa = repo.saveAndFlush(Product.builder().title("sofa").price(1F).build());
+        repo.archiveAll(new Integer[]{sofa.getId()});
+        entityManager.clear();
+
+        //when
+        Product restored = repo.restoreById(sofa.getId()).orElseThrow();
+
+        //then
+        assertEquals(ProductStatus.ACTIVE, restored.getStatus());
+        assertEquals(sofa.getVersion() + 1, restored.getVersion());
+        assertTrue(repo.restoreById(sofa.getId()).isEmpty());
+        assertEquals(List.of("products_active"), jdbcTemplate.queryForList(
+                "select tableoid::regclass::text from products where id = ?", String.class, sofa.getId()));
+    }
+}
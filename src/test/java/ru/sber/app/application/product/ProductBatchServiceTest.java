@@ -0,0 +1,135 @@
+package ru.sber.app.application.product;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.sber.app.application.product.mapper.ProductMapper;
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.domain.event.ProductEventType;
+import ru.sber.app.infrastructure.cache.ProductCacheInvalidationPublisher;
+import ru.sber.app.infrastructure.config.ProductBatchProperties;
+import ru.sber.app.infrastructure.repository.ProductEventRepository;
+import ru.sber.app.infrastructure.repository.ProductRepository;
+import ru.sber.app.presentation.web.controller.product.dto.commands.ProductBatchUpdateCommand;
+import ru.sber.app.presentation.web.controller.product.dto.commands.ProductCommand;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductBatchStatus;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Модульные тесты ProductBatchService")
+@ExtendWith(MockitoExtension.class)
+public class ProductBatchServiceTest {
+    ProductMapper mapper = mock(ProductMapper.class);
+    ProductRepository repo = mock(ProductRepository.class);
+    EntityManager entityManager = mock(EntityManager.class);
+    TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    ProductBatchProperties properties = new ProductBatchProperties();
+    ProductEventRepository eventRepo = mock(ProductEventRepository.class);
+    ProductCacheInvalidationPublisher invalidationPublisher = mock(ProductCacheInvalidationPublisher.class);
+    ProductPriceBuffer priceBuffer = mock(ProductPriceBuffer.class);
+    ProductBatchService service = new ProductBatchService(repo, mapper, entityManager, transactionTemplate,
+            properties, eventRepo, invalidationPublisher, priceBuffer);
+
+    @BeforeEach
+    void setUp() {
+        properties.setChunkSize(2);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    @DisplayName("createAll запишет товары пачками и вернет результат по каждому")
+    void createAll_RequestIsValid_WritesInChunks() {
+        //given
+        List<ProductCommand> commands = List.of(
+                ProductCommand.builder().title("sofa").price(1F).build(),
+                ProductCommand.builder().title("chair").price(2F).build(),
+                ProductCommand.builder().title("table").price(3F).build());
+        for (int i = 0; i < commands.size(); i++) {
+            Product product = Product.builder().title(commands.get(i).getTitle()).build();
+            when(mapper.fromCommandToProduct(commands.get(i))).thenReturn(product);
+        }
+
+        //when
+        var result = service.createAll(commands.iterator());
+
+        //then
+        assertEquals(3, result.size());
+        assertEquals(List.of(0, 1, 2), result.stream().map(r -> r.getIndex()).toList());
+        result.forEach(r -> assertEquals(ProductBatchStatus.CREATED, r.getStatus()));
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(entityManager, times(3)).persist(any(Product.class));
+        verify(entityManager, times(2)).flush();
+    }
+
+    @Test
+    @DisplayName("createAll при ошибке пачки повторит запись поштучно и отметит только ошибочный товар")
+    void createAll_ChunkFails_RetriesItemByItem() {
+        //given
+        ProductCommand valid = ProductCommand.builder().title("sofa").price(1F).build();
+        ProductCommand invalid = ProductCommand.builder().price(2F).build();
+        Product validProduct = Product.builder().title("sofa").price(1F).build();
+        Product invalidProduct = Product.builder().price(2F).build();
+        when(mapper.fromCommandToProduct(valid)).thenReturn(validProduct);
+        when(mapper.fromCommandToProduct(invalid)).thenReturn(invalidProduct);
+        doThrow(new DataIntegrityViolationException("title is null")).when(entityManager).persist(invalidProduct);
+
+        //when
+        var result = service.createAll(List.of(valid, invalid).iterator());
+
+        //then
+        assertEquals(ProductBatchStatus.CREATED, result.get(0).getStatus());
+        assertEquals(ProductBatchStatus.FAILED, result.get(1).getStatus());
+        assertEquals(1, result.get(1).getIndex());
+        verify(transactionTemplate, times(3)).execute(any());
+    }
+
+    @Test
+    @DisplayName("updateAll обновит найденные товары и вернет not_found для отсутствующих")
+    void updateAll_SomeProductsMissing_ReturnsNotFound() {
+        //given
+        Product product = Product.builder().id(1).title("sofa").price(1F).build();
+        ProductBatchUpdateCommand existing = ProductBatchUpdateCommand.builder().id(1).title("chair").price(2F).build();
+        ProductBatchUpdateCommand missing = ProductBatchUpdateCommand.builder().id(2).title("table").price(3F).build();
+        when(repo.findAllById(Set.of(1, 2))).thenReturn(List.of(product));
+
+        //when
+        var result = service.updateAll(List.of(existing, missing).iterator());
+
+        //then
+        assertEquals(ProductBatchStatus.UPDATED, result.get(0).getStatus());
+        assertEquals(ProductBatchStatus.NOT_FOUND, result.get(1).getStatus());
+        verify(mapper).updateProductFromCommand(existing, product);
+        verify(entityManager).flush();
+        verify(eventRepo).appendSnapshots(ProductEventType.UPDATED, Set.of(1));
+        verify(invalidationPublisher).publish(Set.of(1));
+    }
+
+    @Test
+    @DisplayName("deleteAll удалит существующие товары одним запросом")
+    void deleteAll_RequestIsValid_DeletesExistingInBatch() {
+        //given
+        when(repo.findIdsByIdIn(List.of(1, 2))).thenReturn(List.of(1));
+
+        //when
+        var result = service.deleteAll(List.of(1, 2).iterator());
+
+        //then
+        assertEquals(ProductBatchStatus.DELETED, result.get(0).getStatus());
+        assertEquals(ProductBatchStatus.NOT_FOUND, result.get(1).getStatus());
+        verify(repo).deleteAllByIdInBatch(Set.of(1));
+        verify(eventRepo).appendDeleted(Set.of(1));
+        verify(invalidationPublisher).publish(Set.of(1));
+    }
+}
@@ -0,0 +1,230 @@
+package ru.sber.app.application.product;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.domain.event.ProductEvent;
+import ru.sber.app.domain.event.ProductEventType;
+import ru.sber.app.infrastructure.cache.ProductCacheInvalidationPublisher;
+import ru.sber.app.infrastructure.repository.ProductCacheInvalidator;
+import ru.sber.app.infrastructure.repository.ProductDumpRepository;
+import ru.sber.app.infrastructure.repository.ProductEventRepository;
+import ru.sber.app.infrastructure.repository.ProductRepository;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductDumpResultQuery;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Интеграционные тесты ProductDumpService на PostgreSQL")
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@Import({ProductDumpService.class, ProductDumpRepository.class, ProductEventRepository.class,
+        ProductCacheInvalidator.class, ProductCacheInvalidationPublisher.class})
+public class ProductDumpServicePostgresTest {
+    @Autowired
+    ProductRepository repo;
+    @Autowired
+    ProductEventRepository productEventRepository;
+    @Autowired
+    ProductDumpService service;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Полная выгрузка и затем инкрементальная восстановят товары с теми же id, удаления переносятся")
+    void exportAndImport_FullThenIncremental_RestoresProducts() {
+        //given
+        Product sofa = repo.saveAndFlush(Product.builder().title("sofa").description("new sofa").price(1F).build());
+        Product chair = repo.saveAndFlush(Product.builder().title("chair").price(2F).build());
+        productEventRepository.appendSnapshots(ProductEventType.CREATED, List.of(sofa.getId(), chair.getId()));
+        productEventRepository.assignSequence(10);
+        ByteArrayOutputStream full = new ByteArrayOutputStream();
+        long fullWatermark = service.export(0, Channels.newChannel(full));
+
+        jdbcTemplate.update("update products set title = 'armchair' where id = ?", sofa.getId());
+        productEventRepository.appendSnapshots(ProductEventType.UPDATED, List.of(sofa.getId()));
+        jdbcTemplate.update("delete from products where id = ?", chair.getId());
+        productEventRepository.appendDeleted(List.of(chair.getId()));
+        productEventRepository.assignSequence(10);
+        ByteArrayOutputStream incremental = new ByteArrayOutputStream();
+        long incrementalWatermark = service.export(fullWatermark, Channels.newChannel(incremental));
+        jdbcTemplate.update("delete from products");
+
+        //when
+        ProductDumpResultQuery restored = service.importDump(
+                Channels.newChannel(new ByteArrayInputStream(full.toByteArray())), true);
+        ProductDumpResultQuery applied = service.importDump(
+                Channels.newChannel(new ByteArrayInputStream(incremental.toByteArray())), true);
+
+        //then
+        assertEquals(new ProductDumpResultQuery(fullWatermark, 2, 0, 0), restored);
+        assertEquals(new ProductDumpResultQuery(incrementalWatermark, 0, 1, 1), applied);
+        assertTrue(incrementalWatermark > fullWatermark);
+        assertEquals(List.of("armchair"), jdbcTemplate.queryForList("select title from products", String.class));
+        assertEquals("new sofa", jdbcTemplate.queryForObject("select description from products where id = ?",
+                String.class, sofa.getId()));
+        assertTrue(jdbcTemplate.queryForObject("select version from products where id = ?", Integer.class,
+                sofa.getId()) > 0);
+        Product created = repo.saveAndFlush(Product.builder().title("table").price(3F).build());
+        assertTrue(created.getId() > chair.getId());
+    }
+
+    @Test
+    @DisplayName("Архивный товар не попадет в полную выгрузку, а импорт его вернет из архива как созданный")
+    void exportAndImport_ArchivedProduct_RestoredByImport() {
+        //given
+        Product sofa = repo.saveAndFlush(Product.builder().title("sofa").price(1F).build());
+        ByteArrayOutputStream full = new ByteArrayOutputStream();
+        service.export(0, Channels.newChannel(full));
+        repo.archiveAll(new Integer[]{sofa.getId()});
+        ByteArrayOutputStream archivedOnly = new ByteArrayOutputStream();
+        service.export(0, Channels.newChannel(archivedOnly));
+
+        //when
+        ProductDumpResultQuery restored = service.importDump(
+                Channels.newChannel(new ByteArrayInputStream(full.toByteArray())), false);
+
+        //then
+        assertTrue(archivedOnly.size() < full.size());
+        assertEquals(1, restored.getCreated());
+        assertEquals(List.of("ACTIVE"), jdbcTemplate.queryForList(
+                "select status from products where id = ?", String.class, sofa.getId()));
+    }
+
+    @Test
+    @DisplayName("Инкрементальная выгрузка от удаленных событий невозможна, нужна полная")
+    void checkSince_EventsPurged_ThrowsIllegalArgumentException() {
+        //given
+        Product sofa = repo.saveAndFlush(Product.builder().title("sofa").price(1F).build());
+        productEventRepository.appendSnapshots(ProductEventType.CREATED, List.of(sofa.getId()));
+        productEventRepository.appendSnapshots(ProductEventType.UPDATED, List.of(sofa.getId()));
+        productEventRepository.appendDeleted(List.of(sofa.getId()));
+        List<Long> seqs = productEventRepository.assignSequence(10).stream().map(ProductEvent::seq).toList();
+
+        //then
+        service.checkSince(seqs.get(0));
+        productEventRepository.deletePublishedBefore(Instant.now().plusSeconds(60));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> service.checkSince(seqs.get(0)));
+        service.checkSince(seqs.get(1));
+    }
+
+    @Test
+    @DisplayName("importDump отклонит файл, который не является выгрузкой или поврежден")
+    void importDump_InvalidDump_ThrowsIllegalArgumentException() {
+        //given
+        byte[] foreign = "not a product dump at all".getBytes();
+        ByteArrayOutputStream dump = new ByteArrayOutputStream();
+        service.export(0, Channels.newChannel(dump));
+        byte[] truncated = Arrays.copyOf(dump.toByteArray(), dump.size() - 10);
+
+        //then
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> service.importDump(Channels.newChannel(new ByteArrayInputStream(foreign)), false));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> service.importDump(Channels.newChannel(new ByteArrayInputStream(truncated)), false));
+    }
+
+    @Test
+    @DisplayName("importDump не создаст товар с id, уже выданным последовательностью, без явного разрешения")
+    void importDump_IssuedIds_ThrowsIllegalArgumentException() {
+        //given
+        Product sofa = repo.saveAndFlush(Product.builder().title("sofa").price(1F).build());
+        ByteArrayOutputStream full = new ByteArrayOutputStream();
+        service.export(0, Channels.newChannel(full));
+        jdbcTemplate.update("delete from products where id = ?", sofa.getId());
+
+        //when
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> service.importDump(Channels.newChannel(new ByteArrayInputStream(full.toByteArray())), false));
+        ProductDumpResultQuery restored = service.importDump(
+                Channels.newChannel(new ByteArrayInputStream(full.toByteArray())), true);
+
+        //then
+        assertEquals(1, restored.getCreated());
+        assertEquals(List.of("sofa"), jdbcTemplate.queryForList("select title from products where id = ?",
+                String.class, sofa.getId()));
+    }
+
+    @Test
+    @DisplayName("importDump отклонит выгрузку с несколькими строками одного товара и ничего не запишет")
+    void importDump_RepeatedIds_ThrowsIllegalArgumentException() {
+        //given
+        Product sofa = repo.saveAndFlush(Product.builder().title("sofa").price(1F).build());
+        byte[] repeated = copyOut("""
+                select id, title, description, price, version, updated_at, false from products where id = %d
+                union all
+                select id, 'armchair', description, price, version, updated_at, false from products where id = %d"""
+                .formatted(sofa.getId(), sofa.getId()));
+
+        //when
+        IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> service.importDump(Channels.newChannel(new ByteArrayInputStream(repeated)), false));
+
+        //then
+        assertTrue(exception.getMessage().endsWith("[" + sofa.getId() + "]"));
+        assertEquals(List.of("sofa"), jdbcTemplate.queryForList("select title from products where id = ?",
+                String.class, sofa.getId()));
+    }
+
+    @Test
+    @DisplayName("importDump не сдвинет время изменения товара назад")
+    void importDump_UpdatedAtAhead_KeepsUpdatedAtMonotonic() {
+        //given
+        Product sofa = repo.saveAndFlush(Product.builder().title("sofa").price(1F).build());
+        byte[] dump = copyOut("select id, 'armchair', description, price, version, updated_at, false "
+                + "from products where id = " + sofa.getId());
+        Instant ahead = Instant.now().plusSeconds(3600).truncatedTo(ChronoUnit.MICROS);
+        jdbcTemplate.update("update products set updated_at = ? where id = ?",
+                Timestamp.from(ahead), sofa.getId());
+
+        //when
+        ProductDumpResultQuery applied = service.importDump(
+                Channels.newChannel(new ByteArrayInputStream(dump)), false);
+
+        //then
+        assertEquals(1, applied.getUpdated());
+        assertEquals(ahead, jdbcTemplate.queryForObject("select updated_at from products where id = ?",
+                Timestamp.class, sofa.getId()).toInstant());
+    }
+
+    /**
+     * A dump of the given rows: the header of an exported dump followed by the rows compressed as the export does.
+     */
+    private byte[] copyOut(String rows) {
+        ByteArrayOutputStream dump = new ByteArrayOutputStream();
+        service.export(0, Channels.newChannel(dump));
+        byte[] header = Arrays.copyOf(dump.toByteArray(), ProductDumpService.HEADER_SIZE);
+        dump.reset();
+        dump.writeBytes(header);
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try (GZIPOutputStream out = new GZIPOutputStream(dump)) {
+                return connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyOut("copy (" + rows + ") to stdout (format binary)", out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return dump.toByteArray();
+    }
+}
@@ -0,0 +1,166 @@
+package ru.sber.app.application.product;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.sber.app.application.product.mapper.ProductMapper;
+import ru.sber.app.infrastructure.config.ProductIdempotencyProperties;
+import ru.sber.app.infrastructure.repository.IdempotencyKeyRepository;
+import ru.sber.app.presentation.web.controller.product.dto.commands.ProductCommand;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Интеграционные тесты ProductIdempotencyService на PostgreSQL")
+@SpringBootTest(properties = "app.grpc.port=0")
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+public class ProductIdempotencyServicePostgresTest {
+
+    @Autowired
+    ProductIdempotencyService service;
+    @Autowired
+    IdempotencyKeyRepository idempotencyKeyRepository;
+    @Autowired
+    ProductService productService;
+    @Autowired
+    ProductMapper productMapper;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    ProductIdempotencyProperties properties;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    /**
+     * Another instance of the application: the same database, its own memory.
+     */
+    ProductIdempotencyService otherInstance() {
+        return new ProductIdempotencyService(idempotencyKeyRepository, productService, productMapper, objectMapper,
+                transactionTemplate, properties, new SimpleMeterRegistry());
+    }
+
+    int countProducts(String title) {
+        return jdbcTemplate.queryForObject("select count(*) from products where title = ?", Integer.class, title);
+    }
+
+    @Test
+    @DisplayName("Повтор запроса с тем же ключом вернет первый товар, не создавая новый, и на другом экземпляре")
+    void create_SameKeyRepeated_ReturnsFirstProduct() {
+        //given
+        ProductCommand command = ProductCommand.builder().title("idempotent sofa").price(10F).build();
+
+        //when
+        ProductIdempotencyService.Result first = service.create("sofa-key", command);
+        ProductIdempotencyService.Result fromMemory = service.create("sofa-key", command);
+        ProductIdempotencyService.Result fromDatabase = otherInstance().create("sofa-key", command);
+
+        //then
+        assertFalse(first.replayed());
+        assertTrue(fromMemory.replayed());
+        assertTrue(fromDatabase.replayed());
+        assertEquals(first.product(), fromMemory.product());
+        assertEquals(first.product(), fromDatabase.product());
+        assertEquals(first.lastModified(), fromDatabase.lastModified());
+        assertEquals(1, countProducts("idempotent sofa"));
+    }
+
+    @Test
+    @DisplayName("Одновременные запросы с одним ключом на двух экземплярах создадут ровно один товар")
+    void create_ConcurrentRequestsWithSameKey_CreatesOneProduct() throws Exception {
+        //given
+        ProductCommand command = ProductCommand.builder().title("concurrent chair").price(5F).build();
+        List<ProductIdempotencyService> instances = List.of(service, otherInstance());
+        int requests = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        List<Future<ProductIdempotencyService.Result>> results = new ArrayList<>();
+
+        //when
+        try {
+            for (int i = 0; i < requests; i++) {
+                ProductIdempotencyService instance = instances.get(i % instances.size());
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return instance.create("chair-key", command);
+                }));
+            }
+            start.countDown();
+            List<ProductIdempotencyService.Result> responses = new ArrayList<>();
+            for (Future<ProductIdempotencyService.Result> result : results) {
+                responses.add(result.get());
+            }
+
+            //then
+            Set<Integer> ids = responses.stream().map(r -> r.product().getId()).collect(Collectors.toSet());
+            assertEquals(1, ids.size());
+            assertEquals(1, responses.stream().filter(r -> !r.replayed()).count());
+            assertEquals(1, countProducts("concurrent chair"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Ключ с другим телом запроса будет отклонен, товар не создастся")
+    void create_SameKeyOtherCommand_ThrowsIdempotencyKeyReusedException() {
+        //given
+        service.create("table-key", ProductCommand.builder().title("idempotent table").price(3F).build());
+
+        //when //then
+        assertThrows(IdempotencyKeyReusedException.class, () -> otherInstance().create("table-key",
+                ProductCommand.builder().title("idempotent table").price(4F).build()));
+        assertThrows(IdempotencyKeyReusedException.class, () -> service.create("table-key",
+                ProductCommand.builder().title("idempotent table").price(4F).build()));
+        assertEquals(1, countProducts("idempotent table"));
+    }
+
+    @Test
+    @DisplayName("Пустой или слишком длинный ключ вернет IllegalArgumentException")
+    void create_InvalidKey_ThrowsIllegalArgumentException() {
+        //given
+        ProductCommand command = ProductCommand.builder().title("lamp").price(1F).build();
+
+        //when //then
+        assertThrows(IllegalArgumentException.class, () -> service.create(" ", command));
+        assertThrows(IllegalArgumentException.class, () -> service.create("k".repeat(256), command));
+    }
+
+    @Test
+    @DisplayName("Purge удалит ключи старше TTL, после этого запрос с ключом создаст товар заново")
+    void purge_ExpiredKeys_DeletesThem() {
+        //given
+        ProductCommand command = ProductCommand.builder().title("expired shelf").price(2F).build();
+        otherInstance().create("shelf-key", command);
+        jdbcTemplate.update("update idempotency_keys set created_at = now() - interval '2 days' where key = ?",
+                "shelf-key");
+
+        //when
+        int deleted = service.purge();
+
+        //then
+        assertTrue(deleted >= 1);
+        assertTrue(idempotencyKeyRepository.find("shelf-key").isEmpty());
+        assertFalse(otherInstance().create("shelf-key", command).replayed());
+        assertEquals(2, countProducts("expired shelf"));
+    }
+}
@@ -0,0 +1,122 @@
+package ru.sber.app.application.product;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.infrastructure.config.ProductLoaderProperties;
+import ru.sber.app.infrastructure.jdbc.ReadYourWrites;
+import ru.sber.app.infrastructure.repository.ProductRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Модульные тесты ProductLoader")
+public class ProductLoaderTest {
+    ProductRepository repo = mock(ProductRepository.class);
+    ProductLoaderProperties properties = new ProductLoaderProperties();
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    ProductLoader loader = new ProductLoader(repo, properties, registry);
+    ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Test
+    @DisplayName("Одновременные запросы одного товара дождутся одного обращения к базе")
+    void load_ConcurrentSameId_SingleQuery() throws Exception {
+        //given
+        Product product = Product.builder().id(1).title("sofa").price(1F).build();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(repo.findById(1)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return Optional.of(product);
+        });
+
+        //when
+        Future<Optional<Product>> first = executor.submit(() -> loader.load(1));
+        started.await();
+        List<Future<Optional<Product>>> others = List.of(executor.submit(() -> loader.load(1)),
+                executor.submit(() -> loader.load(1)));
+        while (registry.get("product.loader.coalesced").counter().count() < others.size()) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        //then
+        assertEquals(Optional.of(product), first.get(5, TimeUnit.SECONDS));
+        for (Future<Optional<Product>> other : others) {
+            assertEquals(Optional.of(product), other.get(5, TimeUnit.SECONDS));
+        }
+        verify(repo, times(1)).findById(1);
+    }
+
+    @Test
+    @DisplayName("В пакетном режиме разные id в пределах окна загрузятся одним запросом")
+    void load_BatchWindow_DistinctIdsInOneQuery() throws Exception {
+        //given
+        properties.setBatchWindow(Duration.ofSeconds(5));
+        properties.setMaxBatchSize(3);
+        Product sofa = Product.builder().id(1).title("sofa").price(1F).build();
+        Product chair = Product.builder().id(2).title("chair").price(2F).build();
+        when(repo.findAllByIdAny(any())).thenReturn(List.of(sofa, chair));
+
+        //when
+        List<Future<Optional<Product>>> results = List.of(executor.submit(() -> loader.load(1)),
+                executor.submit(() -> loader.load(2)), executor.submit(() -> loader.load(3)));
+
+        //then
+        assertEquals(Optional.of(sofa), results.get(0).get(5, TimeUnit.SECONDS));
+        assertEquals(Optional.of(chair), results.get(1).get(5, TimeUnit.SECONDS));
+        assertEquals(Optional.empty(), results.get(2).get(5, TimeUnit.SECONDS));
+        verify(repo, times(1)).findAllByIdAny(any());
+        assertEquals(3, registry.get("product.loader.batch.size").summary().max());
+    }
+
+    @Test
+    @DisplayName("Ошибка базы дойдет до вызывающего, следующий запрос обратится к базе заново")
+    void load_QueryFails_ThrowsAndRetriesNextTime() {
+        //given
+        Product product = Product.builder().id(1).title("sofa").price(1F).build();
+        when(repo.findById(1)).thenThrow(new DataAccessResourceFailureException("connection refused"))
+                .thenReturn(Optional.of(product));
+
+        //then
+        Assertions.assertThrows(DataAccessResourceFailureException.class, () -> loader.load(1));
+        assertEquals(Optional.of(product), loader.load(1));
+    }
+
+    @Test
+    @DisplayName("Товар для кэша загрузится из основной базы, а не из реплики")
+    void load_ReadsPrimary() {
+        //given
+        Product product = Product.builder().id(1).title("sofa").price(1F).build();
+        AtomicBoolean primaryRequired = new AtomicBoolean();
+        when(repo.findById(1)).thenAnswer(invocation -> {
+            primaryRequired.set(ReadYourWrites.isPrimaryRequired());
+            return Optional.of(product);
+        });
+
+        //when
+        Optional<Product> loaded = loader.load(1);
+
+        //then
+        assertEquals(Optional.of(product), loaded);
+        assertTrue(primaryRequired.get());
+        assertFalse(ReadYourWrites.isPrimaryRequired());
+    }
+}
@@ -0,0 +1,92 @@
+package ru.sber.app.application.product;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.infrastructure.cache.ProductCacheInvalidationPublisher;
+import ru.sber.app.infrastructure.config.CacheConfig;
+import ru.sber.app.infrastructure.config.ProductPriceBufferProperties;
+import ru.sber.app.infrastructure.repository.ProductCacheInvalidator;
+import ru.sber.app.infrastructure.repository.ProductEventRepository;
+import ru.sber.app.infrastructure.repository.ProductRepository;
+
+import java.time.Duration;
+import java.util.List;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Интеграционные тесты ProductPriceBuffer на PostgreSQL")
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@Import({ProductPriceBuffer.class, ProductEventRepository.class, ProductCacheInvalidator.class,
+        ProductCacheInvalidationPublisher.class, SimpleMeterRegistry.class, ProductPriceBufferPostgresTest.Config.class})
+public class ProductPriceBufferPostgresTest {
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(CacheConfig.PRODUCTS, CacheConfig.PRODUCT_PAGES);
+        }
+
+        /**
+         * Only the test flushes, inside its transaction, so the update sees the rows it wrote.
+         */
+        @Bean
+        ProductPriceBufferProperties productPriceBufferProperties() {
+            ProductPriceBufferProperties properties = new ProductPriceBufferProperties();
+            properties.setFlushInterval(Duration.ofHours(1));
+            return properties;
+        }
+    }
+
+    @Autowired
+    ProductRepository repo;
+    @Autowired
+    ProductPriceBuffer buffer;
+    @Autowired
+    CacheManager cacheManager;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Цены одного товара за интервал запишутся последней ценой одним изменением версии и одним событием")
+    void flush_SeveralPricesPerProduct_WritesLastOnce() {
+        //given
+        Product sofa = repo.saveAndFlush(Product.builder().title("sofa").price(1F).build());
+        Product chair = repo.saveAndFlush(Product.builder().title("chair").price(2F).build());
+        Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+        products.put(sofa.getId(), sofa);
+
+        //when
+        buffer.put(sofa.getId(), 5F);
+        buffer.put(sofa.getId(), 7F);
+        buffer.put(chair.getId(), 2F);
+
+        //then
+        assertEquals(7F, buffer.findPending(sofa.getId()));
+        assertTrue(buffer.flush());
+        assertNull(buffer.findPending(sofa.getId()));
+        assertNull(products.get(sofa.getId()));
+        assertEquals(List.of("7:1", "2:0"), jdbcTemplate.queryForList(
+                "select price || ':' || version from products where id in (?, ?) order by id",
+                String.class, sofa.getId(), chair.getId()));
+        assertEquals(List.of(sofa.getId()), jdbcTemplate.queryForList(
+                "select product_id from product_events where type = 'UPDATED' and product_id in (?, ?)",
+                Integer.class, sofa.getId(), chair.getId()));
+    }
+}
@@ -0,0 +1,141 @@
+package ru.sber.app.application.product;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.sber.app.infrastructure.admission.AdmissionRejectedException;
+import ru.sber.app.infrastructure.cache.ProductCacheInvalidationPublisher;
+import ru.sber.app.infrastructure.config.CacheConfig;
+import ru.sber.app.infrastructure.config.ProductPriceBufferProperties;
+import ru.sber.app.infrastructure.repository.ProductCacheInvalidator;
+import ru.sber.app.infrastructure.repository.ProductEventRepository;
+import ru.sber.app.infrastructure.repository.ProductRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Модульные тесты ProductPriceBuffer")
+public class ProductPriceBufferTest {
+    ProductRepository repo = mock(ProductRepository.class);
+    ProductEventRepository eventRepo = mock(ProductEventRepository.class);
+    ProductCacheInvalidator cacheInvalidator = mock(ProductCacheInvalidator.class);
+    ProductCacheInvalidationPublisher invalidationPublisher = mock(ProductCacheInvalidationPublisher.class);
+    TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    ProductPriceBufferProperties properties = new ProductPriceBufferProperties();
+    ProductPriceBuffer buffer = new ProductPriceBuffer(repo, eventRepo, cacheInvalidator, invalidationPublisher,
+            new ConcurrentMapCacheManager(CacheConfig.PRODUCTS, CacheConfig.PRODUCT_PAGES), transactionTemplate,
+            properties, new SimpleMeterRegistry());
+    CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        // flushes are started by the tests, or by a full buffer
+        properties.setFlushInterval(Duration.ofHours(1));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        buffer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // a write held by a test must not block the final flush
+        release.countDown();
+        if (buffer.isRunning()) {
+            buffer.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Полный буфер сразу запишет цены, а цену нового товара при зависшей записи отклонит с 503")
+    void put_BufferFullWhileFlushHangs_RejectsNewProduct() throws Exception {
+        //given
+        properties.setCapacity(1);
+        properties.setOfferTimeout(Duration.ofMillis(50));
+        CountDownLatch writing = new CountDownLatch(1);
+        when(repo.updatePrices(any(), any())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(1);
+        });
+
+        //when
+        buffer.put(1, 5F);
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        buffer.put(2, 6F);
+        buffer.put(2, 7F);
+
+        //then
+        AdmissionRejectedException exception = Assertions.assertThrows(AdmissionRejectedException.class,
+                () -> buffer.put(3, 8F));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatus());
+        assertEquals(5F, buffer.findPending(1));
+        assertEquals(7F, buffer.findPending(2));
+    }
+
+    @Test
+    @DisplayName("Неудачная запись оставит цены в буфере до следующей")
+    void flush_WriteFails_KeepsPricesForNextFlush() {
+        //given
+        when(repo.updatePrices(any(), any()))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"))
+                .thenReturn(List.of(1));
+
+        //when
+        buffer.put(1, 5F);
+
+        //then
+        assertFalse(buffer.flush());
+        assertEquals(5F, buffer.findPending(1));
+        assertTrue(buffer.flush());
+        assertNull(buffer.findPending(1));
+        verify(repo, times(2)).updatePrices(new Integer[]{1}, new Float[]{5F});
+        verify(eventRepo, times(1)).appendSnapshots(any(), any());
+    }
+
+    @Test
+    @DisplayName("Сброшенная цена не будет записана")
+    void discard_PendingPrice_IsNotWritten() {
+        //when
+        buffer.put(1, 5F);
+        buffer.discard(1);
+
+        //then
+        assertNull(buffer.findPending(1));
+        assertTrue(buffer.flush());
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    @DisplayName("Остановка запишет оставшиеся цены, после нее цены не принимаются")
+    void stop_PendingPrices_WritesThemAndRejectsNewOnes() {
+        //given
+        when(repo.updatePrices(any(), any())).thenReturn(List.of(1, 2));
+
+        //when
+        buffer.put(2, 6F);
+        buffer.put(1, 5F);
+        buffer.stop();
+
+        //then
+        verify(repo).updatePrices(new Integer[]{1, 2}, new Float[]{5F, 6F});
+        verify(invalidationPublisher).publish(List.of(1, 2));
+        Assertions.assertThrows(AdmissionRejectedException.class, () -> buffer.put(1, 7F));
+    }
+}
@@ -0,0 +1,121 @@
+package ru.sber.app.application.product;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import ru.sber.app.application.product.mapper.ProductMapper;
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.infrastructure.cache.ProductCacheEvictor;
+import ru.sber.app.infrastructure.repository.ProductReactiveRepository;
+import ru.sber.app.presentation.web.controller.product.dto.commands.ProductCommand;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Модульные тесты ProductReactiveService")
+@ExtendWith(MockitoExtension.class)
+public class ProductReactiveServiceTest {
+    ProductMapper mapper = mock(ProductMapper.class);
+    ProductReactiveRepository repo = mock(ProductReactiveRepository.class);
+    ProductCacheEvictor cacheEvictor = mock(ProductCacheEvictor.class);
+    ProductPriceBuffer priceBuffer = mock(ProductPriceBuffer.class);
+    ProductReactiveService service = new ProductReactiveService(repo, mapper, cacheEvictor, priceBuffer);
+
+    @Test
+    @DisplayName("findAll запросит на один товар больше лимита и вернет признак следующей страницы")
+    void findAll_MoreProductsThanLimit_ReturnsSliceWithNext() {
+        //given
+        Product product1 = Product.builder().id(1).build();
+        Product product2 = Product.builder().id(2).build();
+        when(repo.findByIdGreaterThanOrderByIdAsc(0, 2)).thenReturn(Flux.just(product1, product2));
+
+        //when
+        //then
+        StepVerifier.create(service.findAll(null, 1))
+                .assertNext(slice -> {
+                    assertEquals(1, slice.getContent().size());
+                    assertTrue(slice.hasNext());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("findAll с некорректным лимитом завершится IllegalArgumentException без запроса к базе")
+    void findAll_InvalidLimit_ReturnsError() {
+        //when
+        //then
+        StepVerifier.create(service.findAll(null, 0)).verifyError(IllegalArgumentException.class);
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    @DisplayName("findById отсутствующего товара завершится EntityNotFoundException")
+    void findById_ProductNotFound_ReturnsError() {
+        //given
+        when(repo.findById(1)).thenReturn(Mono.empty());
+
+        //when
+        //then
+        StepVerifier.create(service.findById(1)).verifyError(EntityNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("update с устаревшей версией существующего товара завершится ObjectOptimisticLockingFailureException")
+    void update_StaleVersion_ReturnsOptimisticLockingError() {
+        //given
+        ProductCommand command = ProductCommand.builder().title("sofa").price(1F).version(3).build();
+        when(repo.updateReturning(1, "sofa", null, 1F, 3)).thenReturn(Mono.empty());
+        when(repo.existsById(1)).thenReturn(Mono.just(true));
+
+        //when
+        //then
+        StepVerifier.create(service.update(1, command)).verifyError(ObjectOptimisticLockingFailureException.class);
+    }
+
+    @Test
+    @DisplayName("update сбросит отложенную цену до записи и вытеснит товар из кэшей после нее")
+    void update_ProductExists_DiscardsPriceAndEvictsProduct() {
+        //given
+        ProductCommand command = ProductCommand.builder().title("sofa").price(1F).build();
+        when(repo.updateReturning(1, "sofa", null, 1F, null)).thenReturn(Mono.just(Product.builder().id(1).build()));
+
+        //when
+        //then
+        StepVerifier.create(service.update(1, command)).expectNextCount(1).verifyComplete();
+        verify(priceBuffer).discard(1);
+        verify(cacheEvictor).evict(1);
+    }
+
+    @Test
+    @DisplayName("update без версии отсутствующего товара завершится EntityNotFoundException")
+    void update_ProductNotFound_ReturnsError() {
+        //given
+        ProductCommand command = ProductCommand.builder().title("sofa").price(1F).build();
+        when(repo.updateReturning(1, "sofa", null, 1F, null)).thenReturn(Mono.empty());
+
+        //when
+        //then
+        StepVerifier.create(service.update(1, command)).verifyError(EntityNotFoundException.class);
+        verify(repo, never()).existsById(any());
+    }
+
+    @Test
+    @DisplayName("delete отсутствующего товара завершится EntityNotFoundException")
+    void delete_ProductNotFound_ReturnsError() {
+        //given
+        when(repo.deleteProductById(1)).thenReturn(Mono.just(0L));
+
+        //when
+        //then
+        StepVerifier.create(service.delete(1)).verifyError(EntityNotFoundException.class);
+        verify(cacheEvictor, never()).evict(any());
+    }
+}
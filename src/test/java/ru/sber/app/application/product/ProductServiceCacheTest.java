@@ -0,0 +1,104 @@
+package ru.sber.app.application.product;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import ru.sber.app.application.product.mapper.ProductMapper;
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.infrastructure.cache.ProductCacheInvalidationPublisher;
+import ru.sber.app.infrastructure.config.CacheConfig;
+import ru.sber.app.infrastructure.config.ProductLoaderProperties;
+import ru.sber.app.infrastructure.repository.ProductCacheInvalidator;
+import ru.sber.app.infrastructure.repository.ProductEventRepository;
+import ru.sber.app.infrastructure.repository.ProductRepository;
+import ru.sber.app.presentation.web.controller.product.dto.commands.ProductCommand;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Тесты кэширования ProductService")
+@SpringJUnitConfig(ProductServiceCacheTest.Config.class)
+public class ProductServiceCacheTest {
+
+    @Configuration
+    @Import({CacheConfig.class, ProductService.class, ProductLoader.class, ProductLoaderProperties.class,
+            SimpleMeterRegistry.class})
+    static class Config {
+        @Bean
+        CacheManager cacheManager() {
+            return new CaffeineCacheManager(CacheConfig.PRODUCTS, CacheConfig.PRODUCT_PAGES);
+        }
+    }
+
+    @MockBean
+    ProductRepository repo;
+    @MockBean
+    ProductMapper mapper;
+    @MockBean
+    ProductEventRepository eventRepo;
+    @MockBean
+    ProductCacheInvalidator cacheInvalidator;
+    @MockBean
+    ProductCacheInvalidationPublisher invalidationPublisher;
+    @MockBean
+    ProductPriceBuffer priceBuffer;
+    @Autowired
+    ProductService service;
+    @Autowired
+    CacheManager cacheManager;
+
+    @BeforeEach
+    void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    @DisplayName("findById повторно вернет товар из кэша без обращения к базе")
+    void findById_RepeatedCall_HitsRepositoryOnce() {
+        //given
+        Product product = Product.builder().id(1).title("sofa").price(1F).description("new sofa").build();
+
+        //when
+        when(repo.findById(1)).thenReturn(Optional.of(product));
+        service.findById(1);
+        var result = service.findById(1);
+
+        //then
+        assertEquals(product, result);
+        verify(repo, times(1)).findById(1);
+    }
+
+    @Test
+    @DisplayName("update обновит запись в кэше, delete удалит ее")
+    void updateAndDelete_RefreshAndInvalidateCache() {
+        //given
+        Product product = Product.builder().id(1).title("sofa").price(1F).description("new sofa").build();
+        Product updated = Product.builder().id(1).title("chair").price(2F).description("new chair").build();
+        ProductCommand command = ProductCommand.builder().title("chair").price(2F).description("new chair").build();
+
+        //when
+        when(repo.findById(1)).thenReturn(Optional.of(product));
+        when(repo.updateReturning(1, "chair", "new chair", 2F, null)).thenReturn(Optional.of(updated));
+        when(repo.deleteProductById(1)).thenReturn(1);
+        service.findById(1);
+        service.update(1, command);
+        var cached = service.findById(1);
+        service.delete(1);
+
+        //then
+        assertEquals(updated, cached);
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCTS).get(1));
+    }
+}
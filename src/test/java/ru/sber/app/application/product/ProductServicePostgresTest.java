@@ -0,0 +1,241 @@
+package ru.sber.app.application.product;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.cache.CacheType;
+import org.springframework.boot.test.autoconfigure.core.AutoConfigureCache;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.sber.app.application.product.mapper.ProductMapper;
+import ru.sber.app.application.product.mapper.ProductMapperImpl;
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.infrastructure.cache.ProductCacheEvictor;
+import ru.sber.app.infrastructure.cache.ProductCacheInvalidationPublisher;
+import ru.sber.app.infrastructure.config.CacheConfig;
+import ru.sber.app.infrastructure.config.ProductLoaderProperties;
+import ru.sber.app.infrastructure.config.ProductPriceBufferProperties;
+import ru.sber.app.infrastructure.repository.ProductCacheInvalidator;
+import ru.sber.app.infrastructure.repository.ProductEventRepository;
+import ru.sber.app.infrastructure.repository.ProductReactiveRepository;
+import ru.sber.app.infrastructure.repository.ProductRepository;
+import ru.sber.app.presentation.web.controller.product.dto.commands.ProductCommand;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductQuery;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DisplayName("Интеграционные тесты записи ProductService на PostgreSQL")
+@DataJpaTest
+@AutoConfigureCache(cacheProvider = CacheType.CAFFEINE)
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@Import({ProductService.class, ProductMapperImpl.class, CacheConfig.class, ProductEventRepository.class,
+        ProductCacheInvalidator.class, ProductCacheInvalidationPublisher.class, ProductCacheEvictor.class,
+        ProductLoader.class,
+        ProductLoaderProperties.class, ProductPriceBuffer.class, ProductPriceBufferProperties.class,
+        SimpleMeterRegistry.class})
+public class ProductServicePostgresTest {
+    @Autowired
+    ProductRepository repo;
+    @Autowired
+    ProductService service;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    CacheManager cacheManager;
+    @Autowired
+    DataSource dataSource;
+    @Autowired
+    ProductMapper productMapper;
+    @Autowired
+    ProductCacheInvalidationPublisher productCacheInvalidationPublisher;
+    @Autowired
+    ProductCacheEvictor productCacheEvictor;
+    @Autowired
+    ProductPriceBuffer productPriceBuffer;
+
+    @Test
+    @DisplayName("update вернет новую строку, даже если товар уже загружен в контекст")
+    void update_ProductAlreadyManaged_ReturnsUpdatedRow() {
+        //given
+        Product product = repo.saveAndFlush(Product.builder().title("sofa").description("new sofa").price(1F).build());
+        ProductCommand command = ProductCommand.builder().title("chair").price(2F).build();
+
+        //when
+        Product result = service.update(product.getId(), command);
+
+        //then
+        assertEquals("chair", result.getTitle());
+        assertNull(result.getDescription());
+        assertEquals(1, result.getVersion());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("update, откаченный при коммите, не положит новую строку в кэш")
+    void update_CommitFails_KeepsCachedProduct() {
+        //given
+        Product product = service.create(ProductCommand.builder().title("sofa").price(1F).build());
+        service.findById(product.getId());
+        jdbcTemplate.execute("""
+                create function reject_product_update() returns trigger language plpgsql as
+                $$ begin raise exception 'update rejected at commit'; end $$""");
+        jdbcTemplate.execute("""
+                create constraint trigger products_reject_update after update on products_active
+                deferrable initially deferred for each row when (new.title = 'rolled back')
+                execute function reject_product_update()""");
+
+        //when
+        try {
+            Assertions.assertThrows(RuntimeException.class, () -> service.update(product.getId(),
+                    ProductCommand.builder().title("rolled back").price(2F).build()));
+        } finally {
+            jdbcTemplate.execute("drop trigger products_reject_update on products_active");
+            jdbcTemplate.execute("drop function reject_product_update()");
+        }
+
+        //then
+        Product cached = cacheManager.getCache(CacheConfig.PRODUCTS).get(product.getId(), Product.class);
+        assertEquals("sofa", cached.getTitle());
+        assertEquals("sofa", jdbcTemplate.queryForObject("select title from products where id = ?", String.class,
+                product.getId()));
+        service.delete(product.getId());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("findById и findAll вернут товар, обновленный через реактивный API, а не закэшированный")
+    void findById_UpdatedByReactiveApi_ReturnsNewRow() throws SQLException {
+        //given
+        ProductReactiveService reactiveService = reactiveService();
+        Product product = service.create(ProductCommand.builder().title("sofa").price(1F).build());
+        service.findById(product.getId());
+        service.findAll(product.getId() - 1, 1);
+
+        //when
+        reactiveService.update(product.getId(), ProductCommand.builder().title("chair").price(2F).build()).block();
+
+        //then
+        try {
+            assertEquals("chair", service.findById(product.getId()).getTitle());
+            assertEquals("chair", service.findAll(product.getId() - 1, 1).getContent().get(0).getTitle());
+        } finally {
+            service.delete(product.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("update с устаревшей версией и delete отсутствующего товара выбросят исключения")
+    void updateAndDelete_StaleVersionOrMissing_ThrowExceptions() {
+        //given
+        Product product = repo.saveAndFlush(Product.builder().title("sofa").price(1F).build());
+        ProductCommand stale = ProductCommand.builder().title("chair").price(2F).version(5).build();
+
+        //then
+        Assertions.assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> service.update(product.getId(), stale));
+        service.delete(product.getId());
+        Assertions.assertThrows(EntityNotFoundException.class, () -> service.delete(product.getId()));
+    }
+
+    @Test
+    @DisplayName("findVersion вернет версию и время изменения, которые продвинет update")
+    void findVersion_AfterUpdate_ReturnsNewVersion() {
+        //given
+        Product product = repo.saveAndFlush(Product.builder().title("sofa").price(1F).build());
+        var before = service.findVersion(product.getId());
+
+        //when
+        service.update(product.getId(), ProductCommand.builder().title("chair").price(2F).build());
+        var after = service.findVersion(product.getId());
+
+        //then
+        assertEquals(0, before.version());
+        assertEquals(1, after.version());
+        assertFalse(after.updatedAt().isBefore(before.updatedAt()));
+    }
+
+    @Test
+    @DisplayName("create, update и delete запишут события в outbox в своей транзакции")
+    void createUpdateDelete_RecordEventsInOutbox() {
+        //when
+        Product product = service.create(ProductCommand.builder().title("sofa").price(1F).build());
+        service.update(product.getId(), ProductCommand.builder().title("chair").price(2F).build());
+        service.delete(product.getId());
+
+        //then
+        assertEquals(List.of("CREATED:0", "UPDATED:1", "DELETED:null"), jdbcTemplate.queryForList(
+                "select type || ':' || coalesce(version::text, 'null') from product_events where product_id = ? order by id",
+                String.class, product.getId()));
+    }
+
+    @Test
+    @DisplayName("findAllByIdAny загрузит существующие товары из массива id одним запросом")
+    void findAllByIdAny_MixedIds_ReturnsExistingProducts() {
+        //given
+        Product sofa = repo.saveAndFlush(Product.builder().title("sofa").price(1F).build());
+        Product chair = repo.saveAndFlush(Product.builder().title("chair").price(2F).build());
+
+        //when
+        List<Product> products = repo.findAllByIdAny(new Integer[]{chair.getId(), -1, sofa.getId()});
+
+        //then
+        assertEquals(List.of("chair", "sofa"), products.stream().map(Product::getTitle).sorted().toList());
+    }
+
+    @Test
+    @DisplayName("exportAll прочитает товары проекцией в порядке id, не загружая сущности в контекст")
+    void exportAll_ProductsExist_StreamsQueriesOrderedById() {
+        //given
+        Product sofa = repo.saveAndFlush(Product.builder().title("sofa").description("new sofa").price(1F).build());
+        Product chair = repo.saveAndFlush(Product.builder().title("chair").price(2F).build());
+        entityManager.clear();
+        List<ProductQuery> exported = new ArrayList<>();
+
+        //when
+        service.exportAll(exported::add);
+
+        //then
+        assertEquals(List.of(new ProductQuery(sofa.getId(), "sofa", "new sofa", 1F, 0),
+                        new ProductQuery(chair.getId(), "chair", null, 2F, 0)),
+                exported.stream().filter(query -> query.getId() >= sofa.getId()).toList());
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    private ProductReactiveService reactiveService() throws SQLException {
+        // the service reaches the embedded database over R2DBC, next to the JDBC connections of ProductService
+        try (Connection connection = dataSource.getConnection()) {
+            String url = connection.getMetaData().getURL().replace("jdbc:", "r2dbc:").replaceFirst("\\?.*", "");
+            DatabaseClient databaseClient = DatabaseClient.create(ConnectionFactories.get(
+                    ConnectionFactoryOptions.parse(url).mutate()
+                            .option(ConnectionFactoryOptions.USER, connection.getMetaData().getUserName())
+                            .build()));
+            return new ProductReactiveService(new ProductReactiveRepository(databaseClient,
+                    productCacheInvalidationPublisher), productMapper, productCacheEvictor, productPriceBuffer);
+        }
+    }
+}
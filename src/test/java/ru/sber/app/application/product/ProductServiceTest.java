@@ -1,5 +1,7 @@
 package ru.sber.app.application.product;
 
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
@@ -7,45 +9,178 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import ru.sber.app.application.product.ProductService;
 import ru.sber.app.application.product.mapper.ProductMapper;
 import ru.sber.app.domain.entity.Product;
+import ru.sber.app.domain.event.ProductEventType;
+import ru.sber.app.infrastructure.cache.ProductCacheInvalidationPublisher;
+import ru.sber.app.infrastructure.config.CacheConfig;
+import ru.sber.app.infrastructure.config.ProductLoaderProperties;
+import ru.sber.app.infrastructure.repository.ProductCacheInvalidator;
+import ru.sber.app.infrastructure.repository.ProductEventRepository;
+import ru.sber.app.infrastructure.repository.ProductKeyset;
 import ru.sber.app.infrastructure.repository.ProductRepository;
+import ru.sber.app.infrastructure.repository.ProductSortField;
+import ru.sber.app.infrastructure.repository.ProductVersion;
 import ru.sber.app.presentation.web.controller.product.dto.commands.ProductCommand;
+import ru.sber.app.presentation.web.controller.product.dto.commands.ProductSearchCommand;
 import ru.sber.app.presentation.web.controller.product.dto.queries.ProductQuery;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @DisplayName("Модульные тесты ProductService")
 @ExtendWith(MockitoExtension.class)
-@SpringBootTest
+@SpringBootTest(properties = "app.grpc.port=0")
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
 public class ProductServiceTest {
     ProductMapper mapper = mock(ProductMapper.class);
     ProductRepository repo = mock(ProductRepository.class);
-    ProductService service = new ProductService(repo,mapper);
+    CacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.PRODUCTS);
+    ProductEventRepository eventRepo = mock(ProductEventRepository.class);
+    ProductCacheInvalidator cacheInvalidator = mock(ProductCacheInvalidator.class);
+    ProductCacheInvalidationPublisher invalidationPublisher = mock(ProductCacheInvalidationPublisher.class);
+    ProductLoader loader = new ProductLoader(repo, new ProductLoaderProperties(), new SimpleMeterRegistry());
+    ProductPriceBuffer priceBuffer = mock(ProductPriceBuffer.class);
+    ProductService service = new ProductService(repo,mapper,cacheManager,eventRepo,cacheInvalidator,
+            invalidationPublisher,loader,priceBuffer);
 
     @Test
-    @DisplayName("findAll вернет все доступные товары")
-    void findAll_RequestIsValid_ReturnsListProductQueries(){
+    @DisplayName("findAll вернет страницу товаров после курсора")
+    void findAll_RequestIsValid_ReturnsSliceOfProducts(){
         //given
         Product product1 = Product.builder().id(1).title("sofa").price(1F).description("new sofa").build();
-        Product product2 = Product.builder().id(1).title("chair").price(2F).description("new chair").build();
+        Product product2 = Product.builder().id(2).title("chair").price(2F).description("new chair").build();
         List<Product> products = List.of(product1, product2);
 
         //when
-        when(repo.findAll()).thenReturn(products);
-        var result = service.findAll();
+        when(repo.findByIdGreaterThanOrderByIdAsc(0, Limit.of(3))).thenReturn(products);
+        var result = service.findAll(null, 2);
 
         //then
-        assertEquals(products, result);
-        verify(repo).findAll();
+        assertEquals(products, result.getContent());
+        Assertions.assertFalse(result.hasNext());
+        verify(repo).findByIdGreaterThanOrderByIdAsc(0, Limit.of(3));
         verifyNoMoreInteractions(repo);
         verifyNoInteractions(mapper);
     }
 
+    @Test
+    @DisplayName("findAll вернет признак следующей страницы, если товаров больше чем limit")
+    void findAll_MoreProductsThanLimit_ReturnsSliceWithNext(){
+        //given
+        Product product1 = Product.builder().id(2).title("sofa").price(1F).description("new sofa").build();
+        Product product2 = Product.builder().id(3).title("chair").price(2F).description("new chair").build();
+        List<Product> products = List.of(product1, product2);
+
+        //when
+        when(repo.findByIdGreaterThanOrderByIdAsc(1, Limit.of(2))).thenReturn(products);
+        var result = service.findAll(1, 1);
+
+        //then
+        assertEquals(List.of(product1), result.getContent());
+        Assertions.assertTrue(result.hasNext());
+        verify(repo).findByIdGreaterThanOrderByIdAsc(1, Limit.of(2));
+        verifyNoMoreInteractions(repo);
+    }
+
+    @Test
+    @DisplayName("findAll с limit вне допустимого диапазона выбросит исключение")
+    void findAll_InvalidLimit_ThrowsException(){
+        //then
+        Assertions.assertThrows(IllegalArgumentException.class, () -> service.findAll(null, 0));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> service.findAll(null, ProductService.MAX_PAGE_SIZE + 1));
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    @DisplayName("search вернет страницу найденных товаров и признак следующей страницы")
+    void search_RequestIsValid_ReturnsSliceOfQueries(){
+        //given
+        ProductSearchCommand command = ProductSearchCommand.builder().text("sofa").sort(ProductSortField.PRICE).limit(1).build();
+        ProductQuery query1 = ProductQuery.builder().id(1).title("sofa").price(1F).build();
+        ProductQuery query2 = ProductQuery.builder().id(2).title("big sofa").price(2F).build();
+
+        //when
+        when(repo.search(any(), eq(Sort.by(Sort.Direction.ASC, "price", "id")), eq(2))).thenReturn(List.of(query1, query2));
+        var result = service.search(command);
+
+        //then
+        assertEquals(List.of(query1), result.getContent());
+        Assertions.assertTrue(result.hasNext());
+        verify(repo).search(any(), eq(Sort.by(Sort.Direction.ASC, "price", "id")), eq(2));
+        verifyNoMoreInteractions(repo);
+    }
+
+    @Test
+    @DisplayName("search с пустыми limit, sort и direction найдет первую страницу по умолчанию")
+    void search_EmptyParameters_UsesDefaults(){
+        //given
+        ProductSearchCommand command = ProductSearchCommand.builder().limit(null).sort(null).direction(null).build();
+
+        //when
+        when(repo.search(any(), any(), anyInt())).thenReturn(List.of());
+        var result = service.search(command);
+
+        //then
+        assertEquals(ProductService.DEFAULT_PAGE_SIZE, result.getSize());
+        verify(repo).search(any(), eq(Sort.by(Sort.Direction.ASC, "id")), eq(ProductService.DEFAULT_PAGE_SIZE + 1));
+    }
+
+    @Test
+    @DisplayName("search со слишком короткой строкой поиска выбросит исключение")
+    void search_TextTooShort_ThrowsException(){
+        //given
+        ProductSearchCommand command = ProductSearchCommand.builder().text("so").build();
+
+        //then
+        Assertions.assertThrows(IllegalArgumentException.class, () -> service.search(command));
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    @DisplayName("search с курсором для другой сортировки выбросит исключение")
+    void search_CursorOfAnotherSort_ThrowsException(){
+        //given
+        String cursor = new ProductKeyset(ProductSortField.ID, 5, 5).encode();
+        ProductSearchCommand command = ProductSearchCommand.builder().sort(ProductSortField.PRICE).cursor(cursor).build();
+
+        //then
+        Assertions.assertThrows(IllegalArgumentException.class, () -> service.search(command));
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    @DisplayName("exportAll передаст потребителю все товары, прочитанные проекцией")
+    void exportAll_RequestIsValid_StreamsProducts(){
+        //given
+        ProductQuery product1 = ProductQuery.builder().id(1).title("sofa").price(1F).description("new sofa").build();
+        ProductQuery product2 = ProductQuery.builder().id(2).title("chair").price(2F).description("new chair").build();
+        List<ProductQuery> exported = new ArrayList<>();
+
+        //when
+        when(repo.streamAllQueriesOrderById()).thenReturn(Stream.of(product1, product2));
+        service.exportAll(exported::add);
+
+        //then
+        assertEquals(List.of(product1, product2), exported);
+        verify(repo).streamAllQueriesOrderById();
+        verifyNoMoreInteractions(repo);
+    }
+
     @Test
     @DisplayName("findById вернет товар из базы по id")
     void findById_RequestIsValid_ReturnsProductQuery(){
@@ -90,11 +225,13 @@ public class ProductServiceTest {
 
         //when
         when(mapper.fromCommandToProduct(command)).thenReturn(product);
-        when(repo.save(product)).thenReturn(product);
+        when(repo.saveAndFlush(product)).thenReturn(product);
         var result = service.create(command);
         //then
         assertEquals(product, result);
-        verify(repo).save(product);
+        verify(repo).saveAndFlush(product);
+        verify(eventRepo).appendSnapshots(ProductEventType.CREATED, List.of(1));
+        verify(invalidationPublisher).publish(List.of(1));
         verify(mapper).fromCommandToProduct(command);
         verifyNoMoreInteractions(repo);
         verifyNoMoreInteractions(mapper);
@@ -103,26 +240,24 @@ public class ProductServiceTest {
 
 
     @Test
-    @DisplayName("update обновит товар вернет Product")
+    @DisplayName("update обновит товар одним запросом и вернет Product")
     void update_RequestIsValid_ReturnsProduct(){
         //given
-        Product product2 = Product.builder().id(1).title("sofa").price(2F).description("new sofa").build();
-        Product product1 = Product.builder().id(1).title("chair").price(1F).description("new chair").build();
+        Product product1 = Product.builder().id(1).title("chair").price(1F).description("new chair").version(1).build();
         ProductCommand command = ProductCommand.builder().title("chair").price(1F).description("new chair").build();
 
         //when
-        when(repo.findById(product2.getId())).thenReturn(Optional.of(product2));
-        when(mapper.fromCommandToProduct(command)).thenReturn(product1);
-        when(repo.save(product1)).thenReturn(product1);
+        when(repo.updateReturning(1, "chair", "new chair", 1F, null)).thenReturn(Optional.of(product1));
 
         var result = service.update(1, command);
         //then
         assertEquals(product1, result);
-        verify(repo).findById(1);
-        verify(repo).save(product1);
-        verify(mapper).fromCommandToProduct(command);
+        verify(cacheInvalidator).beforeWrite(1);
+        verify(repo).updateReturning(1, "chair", "new chair", 1F, null);
+        verify(eventRepo).appendSnapshots(ProductEventType.UPDATED, List.of(1));
+        verify(invalidationPublisher).publish(List.of(1));
         verifyNoMoreInteractions(repo);
-        verifyNoMoreInteractions(mapper);
+        verifyNoInteractions(mapper);
 
     }
 
@@ -134,30 +269,52 @@ public class ProductServiceTest {
         ProductCommand command = ProductCommand.builder().title("sofa").price(1F).description("new sofa").build();
 
         //when
-        when(repo.findById(id)).thenReturn(Optional.empty());
+        when(repo.updateReturning(id, "sofa", "new sofa", 1F, null)).thenReturn(Optional.empty());
 
         //then
         Assertions.assertThrows(EntityNotFoundException.class, () -> {
             service.update(id, command);
         });
-        verify(repo).findById(id);
+        verify(repo).updateReturning(id, "sofa", "new sofa", 1F, null);
         verifyNoMoreInteractions(repo);
+        verifyNoInteractions(eventRepo);
         verifyNoInteractions(mapper);
     }
+
     @Test
-    @DisplayName("delete удаляет товар по id ничего не возвращает")
+    @DisplayName("update товар изменен после переданной версии будет выброшено исключение")
+    void update_StaleVersion_ThrowsException(){
+        //given
+        Integer id = 1;
+        ProductCommand command = ProductCommand.builder().title("sofa").price(1F).description("new sofa").version(3).build();
+
+        //when
+        when(repo.updateReturning(id, "sofa", "new sofa", 1F, 3)).thenReturn(Optional.empty());
+        when(repo.existsById(id)).thenReturn(true);
+
+        //then
+        Assertions.assertThrows(ObjectOptimisticLockingFailureException.class, () -> {
+            service.update(id, command);
+        });
+        verify(repo).updateReturning(id, "sofa", "new sofa", 1F, 3);
+        verify(repo).existsById(id);
+        verifyNoMoreInteractions(repo);
+    }
+    @Test
+    @DisplayName("delete удаляет товар по id одним запросом ничего не возвращает")
     void delete_RequestIsValid_ReturnNothing(){
         //given
         Integer id = 1;
-        Product product1 = Product.builder().id(1).title("sofa").price(1F).description("new sofa").build();
 
         //when
-        when(repo.findById(id)).thenReturn(Optional.of(product1));
+        when(repo.deleteProductById(id)).thenReturn(1);
         service.delete(id);
 
         //then
-        verify(repo).findById(id);
-        verify(repo).delete(product1);
+        verify(repo).deleteProductById(id);
+        verify(eventRepo).appendDeleted(List.of(id));
+        verify(invalidationPublisher).publish(List.of(id));
+        verifyNoMoreInteractions(repo);
 
     }
 
@@ -168,14 +325,91 @@ public class ProductServiceTest {
         Integer id = 1;
 
         //when
-        when(repo.findById(id)).thenReturn(Optional.empty());
+        when(repo.deleteProductById(id)).thenReturn(0);
 
         //then
         Assertions.assertThrows(EntityNotFoundException.class, () -> {
             service.delete(id);
         });
-        verify(repo).findById(id);
+        verify(repo).deleteProductById(id);
         verifyNoMoreInteractions(repo);
         verifyNoInteractions(mapper);
+        verifyNoInteractions(eventRepo);
+    }
+
+    @Test
+    @DisplayName("archive переносит товар в архив и записывает событие удаления")
+    void archive_ActiveProduct_RecordsDeletedEvent(){
+        //given
+        Integer id = 1;
+
+        //when
+        when(repo.archiveAll(new Integer[]{id})).thenReturn(List.of(id));
+        service.archive(id);
+
+        //then
+        verify(priceBuffer).discard(id);
+        verify(cacheInvalidator).beforeWrite(id);
+        verify(eventRepo).appendDeleted(List.of(id));
+        verify(invalidationPublisher).publish(List.of(id));
+    }
+
+    @Test
+    @DisplayName("restore архивный товар с таким id не найден будет выброшено исключение")
+    void restore_NoSuchArchivedProduct_ThrowsException(){
+        //given
+        Integer id = 1;
+
+        //when
+        when(repo.restoreById(id)).thenReturn(Optional.empty());
+
+        //then
+        Assertions.assertThrows(EntityNotFoundException.class, () -> {
+            service.restore(id);
+        });
+        verifyNoInteractions(eventRepo);
+        verifyNoInteractions(invalidationPublisher);
+    }
+
+    @Test
+    @DisplayName("findVersion вернет версию закэшированного товара без обращения к базе")
+    void findVersion_ProductCached_ReturnsVersionFromCache(){
+        //given
+        Instant updatedAt = Instant.parse("2024-05-01T10:00:00Z");
+        Product product = Product.builder().id(1).title("sofa").price(1F).version(3).updatedAt(updatedAt).build();
+        cacheManager.getCache(CacheConfig.PRODUCTS).put(1, product);
+
+        //when
+        var result = service.findVersion(1);
+
+        //then
+        assertEquals(new ProductVersion(3, updatedAt), result);
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    @DisplayName("findVersion товара нет в кэше, прочитает из базы только версию")
+    void findVersion_ProductNotCached_ReadsVersionOnly(){
+        //given
+        ProductVersion version = new ProductVersion(3, Instant.parse("2024-05-01T10:00:00Z"));
+
+        //when
+        when(repo.findVersionById(1)).thenReturn(Optional.of(version));
+        var result = service.findVersion(1);
+
+        //then
+        assertEquals(version, result);
+        verify(repo).findVersionById(1);
+        verifyNoMoreInteractions(repo);
+    }
+
+    @Test
+    @DisplayName("findVersion товар по id не найден будет выброшено исключение")
+    void findVersion_NoSuchProduct_throwsException(){
+        //when
+        when(repo.findVersionById(1)).thenReturn(Optional.empty());
+
+        //then
+        Assertions.assertThrows(EntityNotFoundException.class, () -> service.findVersion(1));
     }
 }
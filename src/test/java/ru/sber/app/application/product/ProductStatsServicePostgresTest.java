@@ -0,0 +1,140 @@
+package ru.sber.app.application.product;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.infrastructure.config.ProductStatsProperties;
+import ru.sber.app.presentation.web.controller.product.dto.commands.ProductCommand;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductPriceBucketQuery;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductStatsQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Интеграционные тесты ProductStatsService на PostgreSQL")
+@SpringBootTest(properties = {"app.grpc.port=0", "app.product.stats.price-buckets=10,100",
+        "app.product.stats.compact-interval=1h"})
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+public class ProductStatsServicePostgresTest {
+
+    @Autowired
+    ProductStatsService service;
+    @Autowired
+    ProductService productService;
+    @Autowired
+    ProductStatsProperties properties;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    /**
+     * The statistics computed from a scan of the active products, as the dashboards did before.
+     */
+    ProductStatsQuery scan(List<Float> bounds) {
+        ProductStatsQuery stats = jdbcTemplate.queryForObject("""
+                select count(*), min(price), max(price), avg(price::double precision)
+                from products where status = 'ACTIVE'""", (rs, rowNum) -> ProductStatsQuery.builder()
+                .products(rs.getLong(1))
+                .minPrice(rs.getObject(2, Float.class))
+                .maxPrice(rs.getObject(3, Float.class))
+                .averagePrice(rs.getObject(4, Double.class))
+                .build());
+        List<ProductPriceBucketQuery> histogram = new ArrayList<>();
+        for (int i = 0; i <= bounds.size(); i++) {
+            Float from = i == 0 ? null : bounds.get(i - 1);
+            Float to = i == bounds.size() ? null : bounds.get(i);
+            long products = jdbcTemplate.queryForObject("""
+                    select count(*) from products where status = 'ACTIVE'
+                    and (?::real is null or price >= ?::real) and (?::real is null or price < ?::real)""",
+                    Long.class, from, from, to, to);
+            histogram.add(new ProductPriceBucketQuery(from, to, products));
+        }
+        stats.setPriceHistogram(histogram);
+        return stats;
+    }
+
+    void assertMatchesScan(ProductStatsQuery actual, List<Float> bounds) {
+        ProductStatsQuery expected = scan(bounds);
+        assertEquals(expected.getProducts(), actual.getProducts());
+        assertEquals(expected.getMinPrice(), actual.getMinPrice());
+        assertEquals(expected.getMaxPrice(), actual.getMaxPrice());
+        if (expected.getAveragePrice() == null) {
+            assertNull(actual.getAveragePrice());
+        } else {
+            assertEquals(expected.getAveragePrice(), actual.getAveragePrice(), 1e-6);
+        }
+        assertEquals(expected.getPriceHistogram(), actual.getPriceHistogram());
+    }
+
+    @Test
+    @DisplayName("Статистика после создания, изменения, архивации и удаления товаров совпадет с полным подсчетом")
+    void getStats_AfterWrites_MatchesScan() {
+        //given
+        Product cheap = productService.create(ProductCommand.builder().title("stats cheap").price(5F).build());
+        Product middle = productService.create(ProductCommand.builder().title("stats middle").price(50F).build());
+        Product expensive = productService.create(ProductCommand.builder().title("stats expensive").price(500F).build());
+        jdbcTemplate.update("insert into products (title, price) select 'stats bulk ' || i, i from generate_series(1, 200) as i");
+
+        //when
+        productService.update(middle.getId(), ProductCommand.builder().title("stats middle").price(150F).build());
+        productService.update(cheap.getId(), ProductCommand.builder().title("stats renamed").price(5F).build());
+        productService.archive(expensive.getId());
+        // a row moved to the archived partition leaves the statistics
+        assertMatchesScan(service.getStats(), properties.getPriceBuckets());
+        productService.delete(cheap.getId());
+        productService.restore(expensive.getId());
+        jdbcTemplate.update("update products set price = 8 where id = ?", middle.getId());
+
+        //then
+        assertMatchesScan(service.getStats(), properties.getPriceBuckets());
+        service.compact();
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from product_stats_deltas", Integer.class));
+        assertMatchesScan(service.getStats(), properties.getPriceBuckets());
+    }
+
+    @Test
+    @DisplayName("Смена границ корзин перестроит гистограмму по новым границам")
+    void build_BoundsChanged_RebuildsHistogram() {
+        //given
+        jdbcTemplate.update("insert into products (title, price) select 'stats rebuild ' || i, i * 3 from generate_series(1, 100) as i");
+        List<Float> previous = properties.getPriceBuckets();
+
+        //when
+        properties.setPriceBuckets(List.of(1F, 20F, 200F, 2000F));
+        try {
+            service.build();
+
+            //then
+            ProductStatsQuery stats = service.getStats();
+            assertEquals(5, stats.getPriceHistogram().size());
+            assertMatchesScan(stats, properties.getPriceBuckets());
+        } finally {
+            properties.setPriceBuckets(previous);
+            service.build();
+        }
+        assertMatchesScan(service.getStats(), previous);
+    }
+
+    @Test
+    @DisplayName("Границы корзин не по возрастанию вернут IllegalArgumentException")
+    void build_BoundsNotAscending_ThrowsIllegalArgumentException() {
+        //given
+        List<Float> previous = properties.getPriceBuckets();
+        properties.setPriceBuckets(List.of(100F, 10F));
+
+        //when //then
+        try {
+            assertThrows(IllegalArgumentException.class, () -> service.build());
+        } finally {
+            properties.setPriceBuckets(previous);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package ru.sber.app.application.product.event;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.sber.app.domain.event.ProductEvent;
+import ru.sber.app.domain.event.ProductEventType;
+import ru.sber.app.domain.event.ProductEventsPublished;
+import ru.sber.app.infrastructure.repository.ProductEventRepository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Модульные тесты ProductEventFeed")
+public class ProductEventFeedTest {
+    ProductEventRepository repo = mock(ProductEventRepository.class);
+    ProductEventFeed feed = new ProductEventFeed(repo);
+
+    @AfterEach
+    void tearDown() {
+        feed.shutdown();
+    }
+
+    @Test
+    @DisplayName("subscribe доставит пропущенные события, затем новые после публикации")
+    void subscribe_BacklogAndPublished_DeliversInOrder() throws InterruptedException {
+        //given
+        TestSubscription subscription = new TestSubscription(0);
+        when(repo.findLatestSeq()).thenReturn(1L);
+        when(repo.findPublishedAfter(0, ProductEventFeed.MAX_LIMIT)).thenReturn(List.of(event(1)));
+        when(repo.findPublishedAfter(1, ProductEventFeed.MAX_LIMIT)).thenReturn(List.of(event(2)));
+
+        //when
+        feed.subscribe(subscription);
+        List<ProductEvent> backlog = subscription.deliveries.poll(5, TimeUnit.SECONDS);
+        feed.onPublished(new ProductEventsPublished(List.of(event(2))));
+        List<ProductEvent> published = subscription.deliveries.poll(5, TimeUnit.SECONDS);
+
+        //then
+        assertEquals(List.of(event(1)), backlog);
+        assertEquals(List.of(event(2)), published);
+    }
+
+    @Test
+    @DisplayName("startPosition вернет явную позицию, смещение потребителя или конец потока")
+    void startPosition_ResolvesPosition() {
+        //when
+        when(repo.findOffset("search")).thenReturn(Optional.of(7L));
+        when(repo.findOffset("pricing")).thenReturn(Optional.empty());
+        when(repo.findLatestSeq()).thenReturn(42L);
+
+        //then
+        assertEquals(3, feed.startPosition(3L, "search"));
+        assertEquals(7, feed.startPosition(null, "search"));
+        assertEquals(0, feed.startPosition(null, "pricing"));
+        assertEquals(42, feed.startPosition(null, null));
+    }
+
+    @Test
+    @DisplayName("Неверный limit, отрицательное и отсутствующее смещение приведут к исключениям")
+    void invalidArguments_ThrowExceptions() {
+        //when
+        when(repo.findOffset("search")).thenReturn(Optional.empty());
+
+        //then
+        Assertions.assertThrows(IllegalArgumentException.class, () -> feed.findAfter(0, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> feed.commitOffset("search", -1));
+        Assertions.assertThrows(EntityNotFoundException.class, () -> feed.findOffset("search"));
+        verify(repo, never()).saveOffset(any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Занятая подписка пропускается диспетчером и догоняет поток после resume")
+    void subscribe_NotReady_CatchesUpAfterResume() throws InterruptedException {
+        //given
+        TestSubscription subscription = new TestSubscription(0);
+        subscription.ready = false;
+        when(repo.findLatestSeq()).thenReturn(1L);
+        when(repo.findPublishedAfter(0, ProductEventFeed.MAX_LIMIT)).thenReturn(List.of(event(1)));
+
+        //when
+        feed.subscribe(subscription);
+        List<ProductEvent> skipped = subscription.deliveries.poll(200, TimeUnit.MILLISECONDS);
+        subscription.ready = true;
+        feed.resume(subscription);
+        List<ProductEvent> resumed = subscription.deliveries.poll(5, TimeUnit.SECONDS);
+
+        //then
+        assertNull(skipped);
+        assertEquals(List.of(event(1)), resumed);
+    }
+
+    @Test
+    @DisplayName("Позиция старше хранимых событий приведет к ProductEventsPurgedException")
+    void purgedPosition_ThrowsProductEventsPurgedException() {
+        //given
+        when(repo.findEarliestSeq()).thenReturn(10L);
+        when(repo.findPublishedAfter(anyLong(), anyInt())).thenReturn(List.of(event(10)));
+
+        //when //then
+        Assertions.assertThrows(ProductEventsPurgedException.class, () -> feed.findAfter(5, 100));
+        Assertions.assertThrows(ProductEventsPurgedException.class, () -> feed.subscribe(new TestSubscription(5)));
+        assertEquals(List.of(event(10)), feed.findAfter(9, 100));
+        assertEquals(List.of(event(10)), feed.findAfter(0, 100));
+    }
+
+    private static ProductEvent event(long seq) {
+        return new ProductEvent(seq, seq, 1, ProductEventType.UPDATED, (int) seq, "{}", Instant.EPOCH);
+    }
+
+    static class TestSubscription implements ProductEventSubscription {
+        final BlockingQueue<List<ProductEvent>> deliveries = new LinkedBlockingQueue<>();
+        volatile long after;
+        volatile boolean ready = true;
+
+        TestSubscription(long after) {
+            this.after = after;
+        }
+
+        @Override
+        public long after() {
+            return after;
+        }
+
+        @Override
+        public int limit() {
+            return 100;
+        }
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public boolean deliver(List<ProductEvent> events) {
+            after = events.get(events.size() - 1).seq();
+            deliveries.add(events);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package ru.sber.app.application.product.event;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.sber.app.domain.event.ProductEvent;
+import ru.sber.app.domain.event.ProductEventType;
+import ru.sber.app.infrastructure.config.ProductEventProperties;
+import ru.sber.app.infrastructure.repository.ProductEventRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Модульные тесты ProductEventRelay")
+public class ProductEventRelayTest {
+    ProductEventRepository repo = mock(ProductEventRepository.class);
+    ProductEventSink sink = mock(ProductEventSink.class);
+    TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    ProductEventProperties properties = new ProductEventProperties();
+    ProductEventRelay relay = new ProductEventRelay(repo, List.of(sink), transactionTemplate, properties);
+
+    @BeforeEach
+    void setUp() {
+        properties.setBatchSize(2);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    @DisplayName("relay опубликует события пачками, пока очередь не опустеет")
+    void relay_FullBatches_PublishesUntilDrained() {
+        //given
+        List<ProductEvent> first = List.of(event(1), event(2));
+        List<ProductEvent> second = List.of(event(3));
+        when(repo.tryLockRelay()).thenReturn(true);
+        when(repo.assignSequence(2)).thenReturn(first, second);
+
+        //when
+        relay.relay();
+
+        //then
+        verify(sink).publish(first);
+        verify(sink).publish(second);
+        verify(repo, times(2)).assignSequence(2);
+    }
+
+    @Test
+    @DisplayName("relay ничего не опубликует, если блокировку держит другой экземпляр")
+    void relay_LockHeldElsewhere_PublishesNothing() {
+        //when
+        when(repo.tryLockRelay()).thenReturn(false);
+        relay.relay();
+
+        //then
+        verify(repo, never()).assignSequence(anyInt());
+        verifyNoInteractions(sink);
+    }
+
+    private static ProductEvent event(long seq) {
+        return new ProductEvent(seq, seq, 1, ProductEventType.UPDATED, (int) seq, "{}", Instant.EPOCH);
+    }
+}
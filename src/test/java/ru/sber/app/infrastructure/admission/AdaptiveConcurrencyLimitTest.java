@@ -0,0 +1,85 @@
+package ru.sber.app.infrastructure.admission;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Модульные тесты AdaptiveConcurrencyLimit")
+public class AdaptiveConcurrencyLimitTest {
+    static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    static final long SLOW = TimeUnit.MILLISECONDS.toNanos(10);
+
+    // every sample closes a window
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 5, 100, Duration.ZERO, 0.5);
+
+    @Test
+    @DisplayName("Сверх лимита запросы не допускаются, пока допущенные не завершатся")
+    void tryAcquire_LimitReached_Rejects() {
+        //when
+        for (int i = 1; i <= 20; i++) {
+            assertEquals(i, limit.tryAcquire());
+        }
+        int rejected = limit.tryAcquire();
+        limit.release();
+        int admitted = limit.tryAcquire();
+
+        //then
+        assertEquals(-1, rejected);
+        assertEquals(20, admitted);
+    }
+
+    @Test
+    @DisplayName("Лимит растет, пока он используется и задержка не растет, и снижается, когда задержка растет")
+    void release_LatencyChanges_LimitFollows() {
+        //when
+        runFull(FAST, false, 10);
+        int grown = limit.getLimit();
+        runFull(SLOW, false, 10);
+        int shrunk = limit.getLimit();
+
+        //then
+        assertTrue(grown > 20);
+        assertTrue(shrunk < grown);
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Без нагрузки лимит не растет, а перегрузка ниже по цепочке снижает его кратно")
+    void release_IdleOrDropped_KeepsOrBacksOff() {
+        //when
+        for (int i = 0; i < 10; i++) {
+            limit.release(FAST, limit.tryAcquire(), false);
+        }
+        int idle = limit.getLimit();
+        limit.release(FAST, limit.tryAcquire(), true);
+        int dropped = limit.getLimit();
+        for (int i = 0; i < 10; i++) {
+            limit.release(FAST, limit.tryAcquire(), true);
+        }
+
+        //then
+        assertEquals(20, idle);
+        assertEquals(10, dropped);
+        assertEquals(5, limit.getLimit());
+    }
+
+    /**
+     * Fills the limit and releases every request with the given latency, {@code rounds} times.
+     */
+    private void runFull(long rttNanos, boolean dropped, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            int admitted = limit.getLimit();
+            int[] inFlight = new int[admitted];
+            for (int i = 0; i < admitted; i++) {
+                inFlight[i] = limit.tryAcquire();
+            }
+            for (int i = 0; i < admitted; i++) {
+                limit.release(rttNanos, inFlight[i], dropped);
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package ru.sber.app.infrastructure.aot;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import ru.sber.app.presentation.grpc.product.proto.ProductProto;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Тесты подсказок AppRuntimeHints для нативного образа")
+public class AppRuntimeHintsTest {
+
+    @Test
+    @DisplayName("Методы сообщений protobuf, их билдеров и перечислений доступны через рефлексию")
+    void registerHints_ProtobufMessages_AreReflective() {
+        //given
+        RuntimeHints hints = new RuntimeHints();
+
+        //when
+        new AppRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        //then
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(ProductProto.Product.class, "getTitle").test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(ProductProto.Product.Builder.class, "setTitle")
+                .test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(ProductProto.ProductBatchResult.Status.class,
+                "forNumber").test(hints));
+    }
+
+    @Test
+    @DisplayName("Провайдер JCache и настройки регионов кэша второго уровня попадут в нативный образ")
+    void registerHints_SecondLevelCache_IsReachable() {
+        //given
+        RuntimeHints hints = new RuntimeHints();
+
+        //when
+        new AppRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        //then
+        assertTrue(RuntimeHintsPredicates.reflection().onType(CaffeineCachingProvider.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("hibernate-cache.conf").test(hints));
+    }
+}
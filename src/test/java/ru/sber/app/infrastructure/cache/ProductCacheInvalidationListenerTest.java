@@ -0,0 +1,137 @@
+package ru.sber.app.infrastructure.cache;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.infrastructure.config.CacheConfig;
+import ru.sber.app.infrastructure.config.ProductCacheInvalidationProperties;
+
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Интеграционные тесты ProductCacheInvalidationListener на PostgreSQL")
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@Import({ProductCacheInvalidationPublisher.class, ProductCacheInvalidationListener.class, ProductCacheEvictor.class,
+        ProductCacheInvalidationListenerTest.Config.class})
+@TestPropertySource(properties = {
+        "app.product.cache.invalidation.poll-interval=100ms",
+        "app.product.cache.invalidation.reconnect-delay=100ms"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ProductCacheInvalidationListenerTest {
+
+    @TestConfiguration
+    @EnableConfigurationProperties(ProductCacheInvalidationProperties.class)
+    static class Config {
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(CacheConfig.PRODUCTS, CacheConfig.PRODUCT_PAGES);
+        }
+    }
+
+    @Autowired
+    ProductCacheInvalidationListener listener;
+    @Autowired
+    ProductCacheInvalidationPublisher publisher;
+    @Autowired
+    CacheManager cacheManager;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    Cache products;
+    Cache pages;
+
+    @BeforeEach
+    void setUp() {
+        await(listener::isConnected);
+        products = cacheManager.getCache(CacheConfig.PRODUCTS);
+        pages = cacheManager.getCache(CacheConfig.PRODUCT_PAGES);
+        products.put(1, Product.builder().id(1).build());
+        products.put(2, Product.builder().id(2).build());
+        pages.put(50, List.of());
+    }
+
+    @Test
+    @DisplayName("запись на другом экземпляре сбросит товар и страницы после фиксации транзакции")
+    void otherInstanceWrite_EvictsProductAndPages() {
+        //given
+        ProductCacheInvalidationPublisher otherInstance = new ProductCacheInvalidationPublisher(jdbcTemplate, "other");
+
+        //when
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            otherInstance.publish(List.of(1));
+            status.setRollbackOnly();
+        });
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> otherInstance.publish(List.of(2)));
+
+        //then
+        await(() -> products.get(2) == null);
+        assertNull(pages.get(50));
+        assertNotNull(products.get(1));
+    }
+
+    @Test
+    @DisplayName("собственная запись экземпляра не сбросит кэш повторно")
+    void ownWrite_KeepsCache() throws InterruptedException {
+        //when
+        publisher.publish(List.of(1));
+        Thread.sleep(500);
+
+        //then
+        assertNotNull(products.get(1));
+        assertNotNull(pages.get(50));
+    }
+
+    @Test
+    @DisplayName("после обрыва соединения слушатель переподключится и очистит кэш целиком")
+    void connectionLost_ReconnectsAndClearsCaches() {
+        //when
+        jdbcTemplate.queryForList("select pg_terminate_backend(pid) from pg_stat_activity where application_name = ?",
+                ProductCacheInvalidationListener.APPLICATION_NAME);
+
+        //then
+        await(() -> products.get(1) == null && products.get(2) == null && pages.get(50) == null);
+        await(listener::isConnected);
+        products.put(1, Product.builder().id(1).build());
+        new ProductCacheInvalidationPublisher(jdbcTemplate, "other").publish(List.of(1));
+        await(() -> products.get(1) == null);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "условие не выполнено за 5 секунд");
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
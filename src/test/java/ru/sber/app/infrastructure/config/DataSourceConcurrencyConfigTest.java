@@ -0,0 +1,44 @@
+package ru.sber.app.infrastructure.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import ru.sber.app.infrastructure.jdbc.ConcurrencyLimitedDataSource;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+@DisplayName("Тесты конфигурации DataSourceConcurrencyConfig")
+public class DataSourceConcurrencyConfigTest {
+    ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class))
+            .withUserConfiguration(DataSourceConcurrencyConfig.class)
+            .withBean(DataSourceConcurrencyProperties.class)
+            .withPropertyValues(
+                    "spring.datasource.url=jdbc:postgresql://localhost:5432/product_db",
+                    "spring.datasource.hikari.maximum-pool-size=7");
+
+    @Test
+    @DisplayName("С виртуальными потоками пул Hikari ограничивается семафором по размеру пула")
+    void dataSource_VirtualThreadsEnabled_IsLimited() {
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=true").run(context -> {
+            DataSource dataSource = context.getBean(DataSource.class);
+
+            ConcurrencyLimitedDataSource limited = assertInstanceOf(ConcurrencyLimitedDataSource.class, dataSource);
+            assertEquals(7, limited.getAvailablePermits());
+            assertInstanceOf(HikariDataSource.class, limited.getTargetDataSource());
+        });
+    }
+
+    @Test
+    @DisplayName("С потоками Tomcat пул Hikari используется без обертки")
+    void dataSource_VirtualThreadsDisabled_IsHikari() {
+        contextRunner.run(context ->
+                assertInstanceOf(HikariDataSource.class, context.getBean(DataSource.class)));
+    }
+}
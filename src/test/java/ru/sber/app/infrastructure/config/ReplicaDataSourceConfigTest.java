@@ -0,0 +1,52 @@
+package ru.sber.app.infrastructure.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import ru.sber.app.infrastructure.jdbc.ReadReplicas;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Тесты конфигурации ReplicaDataSourceConfig")
+public class ReplicaDataSourceConfigTest {
+    ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class))
+            .withUserConfiguration(ReplicaDataSourceConfig.class)
+            .withBean(ReplicaDataSourceProperties.class)
+            .withPropertyValues(
+                    "spring.datasource.url=jdbc:postgresql://localhost:5432/product_db",
+                    "spring.datasource.hikari.pool-name=product-pool");
+
+    @Test
+    @DisplayName("С репликами пул Hikari оборачивается маршрутизацией чтений, реплики получают свои пулы")
+    void dataSource_ReplicasConfigured_IsRouting() {
+        contextRunner.withPropertyValues(
+                "app.datasource.replicas.urls[0]=jdbc:postgresql://localhost:5433/product_db",
+                "app.datasource.replicas.urls[1]=jdbc:postgresql://localhost:5434/product_db"
+        ).run(context -> {
+            DataSource dataSource = context.getBean(DataSource.class);
+
+            assertInstanceOf(LazyConnectionDataSourceProxy.class, dataSource);
+            assertTrue(dataSource.isWrapperFor(HikariDataSource.class));
+            ReadReplicas readReplicas = context.getBean(ReadReplicas.class);
+            assertEquals("product-pool-replica-2", readReplicas.getReplicas().get(1).getName());
+            assertFalse(readReplicas.getReplicas().get(0).isHealthy());
+        });
+    }
+
+    @Test
+    @DisplayName("Без реплик пул Hikari используется без обертки")
+    void dataSource_NoReplicas_IsHikari() {
+        contextRunner.run(context ->
+                assertInstanceOf(HikariDataSource.class, context.getBean(DataSource.class)));
+    }
+}
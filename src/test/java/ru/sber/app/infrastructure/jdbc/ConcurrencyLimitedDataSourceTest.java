@@ -0,0 +1,64 @@
+package ru.sber.app.infrastructure.jdbc;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Модульные тесты ConcurrencyLimitedDataSource")
+public class ConcurrencyLimitedDataSourceTest {
+    DataSource target = mock(DataSource.class);
+    ConcurrencyLimitedDataSource dataSource = new ConcurrencyLimitedDataSource(target, 1, Duration.ofMillis(50));
+
+    @Test
+    @DisplayName("getConnection займет разрешение, а close вернет его ровно один раз")
+    void getConnection_ConnectionClosedTwice_ReleasesPermitOnce() throws SQLException {
+        //given
+        Connection connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+
+        //when
+        Connection limited = dataSource.getConnection();
+        int permitsWhileBorrowed = dataSource.getAvailablePermits();
+        limited.close();
+        limited.close();
+
+        //then
+        assertEquals(0, permitsWhileBorrowed);
+        assertEquals(1, dataSource.getAvailablePermits());
+        assertTrue(limited.isClosed());
+        verify(connection, times(1)).close();
+    }
+
+    @Test
+    @DisplayName("getConnection завершится ошибкой, если все разрешения заняты дольше acquireTimeout")
+    void getConnection_NoPermits_ThrowsAfterTimeout() throws SQLException {
+        //given
+        when(target.getConnection()).thenReturn(mock(Connection.class));
+        dataSource.getConnection();
+
+        //when
+        //then
+        assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+        verify(target, times(1)).getConnection();
+    }
+
+    @Test
+    @DisplayName("getConnection вернет разрешение, если пул не выдал соединение")
+    void getConnection_TargetFails_ReleasesPermit() throws SQLException {
+        //given
+        when(target.getConnection()).thenThrow(new SQLTransientConnectionException("pool exhausted"));
+
+        //when
+        //then
+        assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+        assertEquals(1, dataSource.getAvailablePermits());
+    }
+}
@@ -0,0 +1,147 @@
+package ru.sber.app.infrastructure.jdbc;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Модульные тесты ReadReplicas")
+public class ReadReplicasTest {
+    DataSource primary = mock(DataSource.class);
+    DataSource first = mock(DataSource.class);
+    DataSource second = mock(DataSource.class);
+    ReadReplicas readReplicas = new ReadReplicas(replicas(), Duration.ofSeconds(2));
+    DataSource routing = readReplicas.routing(primary, UnaryOperator.identity());
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.clear();
+    }
+
+    @Test
+    @DisplayName("Транзакции только для чтения по очереди получат соединения здоровых реплик, остальные - основной базы")
+    void getConnection_ReadOnly_RoundRobinOverReplicas() throws SQLException {
+        //given
+        Connection firstConnection = replicaWithLag(first, 0);
+        Connection secondConnection = replicaWithLag(second, 100);
+        Connection primaryConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        readReplicas.checkHealth();
+
+        //when
+        Connection read1 = physical(routing, true);
+        Connection read2 = physical(routing, true);
+        Connection write = physical(routing, false);
+
+        //then
+        assertSame(firstConnection, read1);
+        assertSame(secondConnection, read2);
+        assertSame(primaryConnection, write);
+    }
+
+    @Test
+    @DisplayName("Реплика с отставанием больше допустимого или без соединений исключится до следующей проверки")
+    void getConnection_ReplicasLagOrFail_FallsBackToPrimary() throws SQLException {
+        //given
+        replicaWithLag(first, 5000);
+        replicaWithLag(second, 0);
+        Connection primaryConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        readReplicas.checkHealth();
+        when(second.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        //when
+        Connection read = physical(routing, true);
+
+        //then
+        assertSame(primaryConnection, read);
+        assertFalse(readReplicas.getReplicas().get(0).isHealthy());
+        assertEquals(5000, readReplicas.getReplicas().get(0).getLagMillis());
+        assertFalse(readReplicas.getReplicas().get(1).isHealthy());
+    }
+
+    @Test
+    @DisplayName("После записи клиент читает из основной базы, даже если реплики здоровы")
+    void getConnection_PrimaryRequired_ReadsPrimary() throws SQLException {
+        //given
+        replicaWithLag(first, 0);
+        replicaWithLag(second, 0);
+        Connection primaryConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        readReplicas.checkHealth();
+        ReadYourWrites.requirePrimary();
+
+        //when
+        Connection read = physical(routing, true);
+
+        //then
+        assertSame(primaryConnection, read);
+    }
+
+    @Test
+    @DisplayName("Чтение внутри onPrimary пойдет в основную базу, следующее - снова в реплику")
+    void onPrimary_ReadsPrimaryOnlyInside() throws SQLException {
+        //given
+        Connection replicaConnection = replicaWithLag(first, 0);
+        when(second.getConnection()).thenReturn(replicaConnection);
+        Connection primaryConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        readReplicas.checkHealth();
+
+        //when
+        Connection cached = ReadYourWrites.onPrimary(() -> {
+            try {
+                return physical(routing, true);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Connection read = physical(routing, true);
+
+        //then
+        assertSame(primaryConnection, cached);
+        assertSame(replicaConnection, read);
+        assertFalse(ReadYourWrites.isPrimaryRequired());
+    }
+
+    private Map<String, DataSource> replicas() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", first);
+        replicas.put("replica-2", second);
+        return replicas;
+    }
+
+    private static Connection replicaWithLag(DataSource replica, long lagMillis) throws SQLException {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(replica.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(ReadReplicas.LAG_SQL)).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getLong(1)).thenReturn(lagMillis);
+        return connection;
+    }
+
+    /**
+     * Marks the lazy connection the way a transaction does and returns the physical connection behind it.
+     */
+    private static Connection physical(DataSource routing, boolean readOnly) throws SQLException {
+        Connection connection = routing.getConnection();
+        connection.setReadOnly(readOnly);
+        return ((ConnectionProxy) connection).getTargetConnection();
+    }
+}
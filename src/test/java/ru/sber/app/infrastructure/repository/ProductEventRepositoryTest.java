@@ -0,0 +1,90 @@
+package ru.sber.app.infrastructure.repository;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.domain.event.ProductEvent;
+import ru.sber.app.domain.event.ProductEventType;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Интеграционные тесты ProductEventRepository на PostgreSQL")
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@Import(ProductEventRepository.class)
+public class ProductEventRepositoryTest {
+    @Autowired
+    ProductRepository productRepository;
+    @Autowired
+    ProductEventRepository repo;
+
+    @Test
+    @DisplayName("assignSequence опубликует события в порядке записи, повторно они не публикуются")
+    void appendAndAssignSequence_EventsPublishedInOrder() {
+        //given
+        Product product = productRepository.saveAndFlush(Product.builder().title("sofa").price(1F).build());
+        repo.appendSnapshots(ProductEventType.CREATED, List.of(product.getId()));
+        repo.appendDeleted(List.of(product.getId()));
+        long latest = repo.findLatestSeq();
+
+        //when
+        boolean locked = repo.tryLockRelay();
+        List<ProductEvent> published = repo.assignSequence(10);
+
+        //then
+        assertTrue(locked);
+        assertEquals(List.of(ProductEventType.CREATED, ProductEventType.DELETED),
+                published.stream().map(ProductEvent::type).toList());
+        assertEquals(published.get(0).seq() + 1, published.get(1).seq());
+        assertEquals(0, published.get(0).version());
+        assertTrue(published.get(0).payload().contains("\"title\": \"sofa\""));
+        assertNull(published.get(1).payload());
+        assertEquals(published, repo.findPublishedAfter(latest, 10));
+        assertEquals(published.get(1).seq(), repo.findLatestSeq());
+        assertEquals(List.of(), repo.assignSequence(10));
+    }
+
+    @Test
+    @DisplayName("deletePublishedBefore удалит старые опубликованные события, кроме последнего")
+    void deletePublishedBefore_KeepsLatestPublished() {
+        //given
+        Product product = productRepository.saveAndFlush(Product.builder().title("sofa").price(1F).build());
+        repo.appendSnapshots(ProductEventType.CREATED, List.of(product.getId()));
+        repo.appendDeleted(List.of(product.getId()));
+        List<ProductEvent> published = repo.assignSequence(10);
+        repo.appendSnapshots(ProductEventType.CREATED, List.of(product.getId()));
+
+        //when
+        int deleted = repo.deletePublishedBefore(Instant.now().plusSeconds(60));
+
+        //then
+        long latest = published.get(published.size() - 1).seq();
+        assertTrue(deleted >= published.size() - 1);
+        assertEquals(latest, repo.findEarliestSeq());
+        assertEquals(latest, repo.findLatestSeq());
+    }
+
+    @Test
+    @DisplayName("saveOffset сохранит смещение потребителя и не сдвинет его назад")
+    void saveOffset_OlderOffset_KeepsLatest() {
+        //when
+        repo.saveOffset("search", 5);
+        long result = repo.saveOffset("search", 3);
+
+        //then
+        assertEquals(5, result);
+        assertEquals(Optional.of(5L), repo.findOffset("search"));
+        assertEquals(Optional.empty(), repo.findOffset("pricing"));
+    }
+}
@@ -0,0 +1,123 @@
+package ru.sber.app.infrastructure.repository;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.test.StepVerifier;
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.infrastructure.cache.ProductCacheInvalidationPublisher;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DisplayName("Интеграционные тесты ProductReactiveRepository на PostgreSQL")
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ProductReactiveRepositoryTest {
+    @Autowired
+    DataSource dataSource;
+    ProductReactiveRepository repo;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        // the embedded database is migrated by Flyway over JDBC, the repository reaches the same database over R2DBC
+        try (Connection connection = dataSource.getConnection()) {
+            String url = connection.getMetaData().getURL().replace("jdbc:", "r2dbc:").replaceFirst("\\?.*", "");
+            repo = new ProductReactiveRepository(DatabaseClient.create(ConnectionFactories.get(
+                    ConnectionFactoryOptions.parse(url).mutate()
+                            .option(ConnectionFactoryOptions.USER, connection.getMetaData().getUserName())
+                            .build())),
+                    new ProductCacheInvalidationPublisher(new JdbcTemplate(dataSource)));
+        }
+    }
+
+    @Test
+    @DisplayName("insert, updateReturning и deleteProductById работают одним запросом и учитывают версию")
+    void insertUpdateDelete_RequestIsValid_ReturnsRows() {
+        //given
+        Product created = repo.insert(Product.builder().title("sofa").description("new sofa").price(1F).build()).block();
+
+        //when
+        //then
+        assertEquals(0, created.getVersion());
+        StepVerifier.create(repo.updateReturning(created.getId(), "chair", null, 2F, 0))
+                .assertNext(updated -> {
+                    assertEquals("chair", updated.getTitle());
+                    assertNull(updated.getDescription());
+                    assertEquals(1, updated.getVersion());
+                })
+                .verifyComplete();
+        StepVerifier.create(repo.updateReturning(created.getId(), "table", null, 3F, 0)).verifyComplete();
+        StepVerifier.create(repo.existsById(created.getId())).expectNext(true).verifyComplete();
+        StepVerifier.create(repo.deleteProductById(created.getId())).expectNext(1L).verifyComplete();
+        StepVerifier.create(repo.findById(created.getId())).verifyComplete();
+    }
+
+    @Test
+    @DisplayName("streamAllOrderById отдает строки по запросу подписчика")
+    void streamAllOrderById_LimitedDemand_EmitsRequestedRows() {
+        //given
+        for (int i = 0; i < 3; i++) {
+            repo.insert(Product.builder().title("product " + i).price(1F).build()).block();
+        }
+
+        //when
+        //then
+        StepVerifier.create(repo.streamAllOrderById(), 2)
+                .expectNextCount(2)
+                .thenRequest(1)
+                .expectNextCount(1)
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    @DisplayName("записи уведомят другие экземпляры о каждом измененном товаре, неудачные записи - нет")
+    void writes_NotifyCacheInvalidation() throws SQLException {
+        try (Connection listener = dataSource.getConnection()) {
+            //given
+            try (Statement statement = listener.createStatement()) {
+                statement.execute("listen " + ProductCacheInvalidationPublisher.CHANNEL);
+            }
+
+            //when
+            Product created = repo.insert(Product.builder().title("sofa").price(1F).build()).block();
+            repo.updateReturning(created.getId(), "chair", null, 2F, null).block();
+            repo.updateReturning(created.getId(), "table", null, 3F, 0).block();
+            repo.deleteProductById(created.getId()).block();
+            repo.deleteProductById(created.getId()).block();
+
+            //then
+            List<String> payloads = new ArrayList<>();
+            PGConnection pgConnection = listener.unwrap(PGConnection.class);
+            for (int attempt = 0; attempt < 10 && payloads.size() < 3; attempt++) {
+                for (PGNotification notification : pgConnection.getNotifications(500)) {
+                    payloads.add(notification.getParameter().substring(notification.getParameter().indexOf(':') + 1));
+                }
+            }
+            String id = String.valueOf(created.getId());
+            assertEquals(List.of(id, id, id), payloads);
+            assertEquals(0, pgConnection.getNotifications(200).length);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package ru.sber.app.infrastructure.repository;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductQuery;
+
+import javax.sql.DataSource;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Интеграционные тесты поиска товаров на PostgreSQL")
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ProductSearchRepositoryTest {
+    private static final int ROWS = 200_000;
+
+    @Autowired
+    ProductRepository repo;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    StatementCapture statementCapture;
+
+    @BeforeEach
+    void seed() {
+        if (jdbcTemplate.queryForObject("select count(*) from products", Integer.class) > 0) {
+            return;
+        }
+        jdbcTemplate.update("""
+                insert into products (title, description, price)
+                select 'product ' || i, 'description of product ' || i || repeat(' with a long catalog text', 4),
+                       (i % 5000) + 0.5
+                from generate_series(1, ?) as i""", ROWS);
+        jdbcTemplate.update("""
+                insert into products (title, description, price) values
+                ('Leather sofa', 'brown', 700.5), ('Corner sofa', null, 300.5), ('Chair', 'goes with a SOFA', 50.5)""");
+        jdbcTemplate.execute("analyze products");
+    }
+
+    @Test
+    @DisplayName("search найдет товары по подстроке в названии или описании без учета регистра")
+    void search_TextFilter_MatchesTitleAndDescription() {
+        //when
+        List<ProductQuery> result = repo.search(ProductSpecifications.textContains("Sofa"), Sort.by("price", "id"), 10);
+
+        //then
+        assertEquals(List.of("Chair", "Corner sofa", "Leather sofa"), result.stream().map(ProductQuery::getTitle).toList());
+    }
+
+    @Test
+    @DisplayName("search с курсором вернет следующую страницу без пропусков и повторов")
+    void search_KeysetPagination_ReturnsConsecutivePages() {
+        //given
+        Sort sort = Sort.by(Sort.Direction.DESC, "price", "id");
+        Specification<Product> range = Specification.allOf(
+                ProductSpecifications.priceFrom(10F), ProductSpecifications.priceTo(12F));
+
+        //when
+        List<ProductQuery> all = repo.search(range, sort, 100);
+        List<ProductQuery> first = repo.search(range, sort, 7);
+        ProductKeyset keyset = ProductKeyset.of(ProductSortField.PRICE, first.get(first.size() - 1));
+        List<ProductQuery> second = repo.search(range.and(ProductSpecifications.after(keyset, Sort.Direction.DESC)), sort, 100);
+
+        //then
+        assertEquals(all.subList(0, 7), first);
+        assertEquals(all.subList(7, all.size()), second);
+    }
+
+    @Test
+    @DisplayName("текстовый поиск использует триграммные индексы только активной секции")
+    void explain_TextSearch_UsesTrigramIndexes() {
+        //when
+        String plan = explainSearch(ProductSpecifications.textContains("sofa"), Sort.by("id"));
+
+        //then
+        assertTrue(plan.contains("products_active_title_trgm_idx"), plan);
+        assertTrue(plan.contains("products_active_description_trgm_idx"), plan);
+        assertFalse(plan.contains("products_archived"), plan);
+    }
+
+    @Test
+    @DisplayName("фильтр по цене с сортировкой по цене использует индекс (price, id) только активной секции")
+    void explain_PriceRange_UsesPriceIndex() {
+        //given
+        Specification<Product> range = Specification.allOf(ProductSpecifications.priceFrom(100F),
+                ProductSpecifications.priceTo(200F), ProductSpecifications.after(
+                        ProductKeyset.of(ProductSortField.PRICE, ProductQuery.builder().id(0).price(150F).build()),
+                        Sort.Direction.ASC));
+
+        //when
+        String plan = explainSearch(range, Sort.by("price", "id"));
+
+        //then
+        assertTrue(plan.contains("products_active_price_id_idx"), plan);
+        assertFalse(plan.contains("products_archived"), plan);
+    }
+
+    /**
+     * Runs the search and explains the statement it sent to the database with the parameters it bound.
+     */
+    private String explainSearch(Specification<Product> specification, Sort sort) {
+        statementCapture.clear();
+        repo.search(specification, sort, 51);
+        QueryInfo query = statementCapture.last();
+        Object[] args = query.getParametersList().get(0).stream()
+                .sorted(Comparator.comparingInt(operation -> (Integer) operation.getArgs()[0]))
+                .map(operation -> operation.getArgs()[1])
+                .toArray();
+        return String.join("\n", jdbcTemplate.queryForList("explain " + query.getQuery(), String.class, args));
+    }
+
+    /**
+     * Records the statements that reach the data source, so plans are checked for the SQL Hibernate generates.
+     */
+    static class StatementCapture implements QueryExecutionListener, BeanPostProcessor {
+        private final List<QueryInfo> queries = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            return bean instanceof DataSource dataSource
+                    ? ProxyDataSourceBuilder.create(dataSource).listener(this).build()
+                    : bean;
+        }
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            queries.addAll(queryInfoList);
+        }
+
+        void clear() {
+            queries.clear();
+        }
+
+        QueryInfo last() {
+            return queries.get(queries.size() - 1);
+        }
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        static StatementCapture statementCapture() {
+            return new StatementCapture();
+        }
+    }
+}
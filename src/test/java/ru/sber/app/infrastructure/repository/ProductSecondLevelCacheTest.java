@@ -0,0 +1,129 @@
+package ru.sber.app.infrastructure.repository;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductQuery;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Интеграционные тесты кэша второго уровня Hibernate для Product")
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@Import(ProductCacheInvalidator.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ProductSecondLevelCacheTest {
+    @Autowired
+    ProductRepository repo;
+    @Autowired
+    ProductCacheInvalidator cacheInvalidator;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    Statistics statistics;
+    Product product;
+
+    @BeforeEach
+    void setUp() {
+        product = inTransaction(() -> repo.save(Product.builder().title("sofa").price(1F).build()));
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        inTransaction(() -> repo.deleteProductById(product.getId()));
+    }
+
+    @Test
+    @DisplayName("findById повторно загрузит товар из кэша без обращения к базе")
+    void findById_SecondCall_NoStatements() {
+        //given
+        inTransaction(() -> repo.findById(product.getId()));
+        long statements = statistics.getPrepareStatementCount();
+
+        //when
+        Product cached = inTransaction(() -> repo.findById(product.getId()).orElseThrow());
+
+        //then
+        assertEquals("sofa", cached.getTitle());
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("product").getHitCount());
+    }
+
+    @Test
+    @DisplayName("страница товаров и поиск повторно вернутся из кэша запросов без обращения к базе")
+    void findPageAndSearch_SecondCall_NoStatements() {
+        //given
+        int after = product.getId() - 1;
+        Specification<Product> byTitle = ProductSpecifications.textContains("sofa");
+        inTransaction(() -> repo.findByIdGreaterThanOrderByIdAsc(after, Limit.of(10)));
+        inTransaction(() -> repo.search(byTitle, Sort.by("id"), 10));
+        long statements = statistics.getPrepareStatementCount();
+
+        //when
+        List<Product> page = inTransaction(() -> repo.findByIdGreaterThanOrderByIdAsc(after, Limit.of(10)));
+        List<ProductQuery> found = inTransaction(() -> repo.search(byTitle, Sort.by("id"), 10));
+
+        //then
+        assertEquals(List.of(product.getId()), page.stream().map(Product::getId).toList());
+        assertTrue(found.stream().anyMatch(query -> query.getId().equals(product.getId())));
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    @DisplayName("update через SQL и delete сбросят закэшированный товар и результаты запросов")
+    void updateAndDelete_InvalidateCachedProductAndQueries() {
+        //given
+        int after = product.getId() - 1;
+        inTransaction(() -> repo.findById(product.getId()));
+        inTransaction(() -> repo.findByIdGreaterThanOrderByIdAsc(after, Limit.of(10)));
+
+        //when
+        inTransaction(() -> {
+            cacheInvalidator.beforeWrite(product.getId());
+            return repo.updateReturning(product.getId(), "chair", null, 2F, null);
+        });
+
+        //then
+        assertEquals("chair", inTransaction(() -> repo.findById(product.getId()).orElseThrow()).getTitle());
+        assertEquals("chair", inTransaction(() -> repo.findByIdGreaterThanOrderByIdAsc(after, Limit.of(10)))
+                .get(0).getTitle());
+
+        //when
+        inTransaction(() -> repo.deleteProductById(product.getId()));
+
+        //then
+        assertTrue(inTransaction(() -> repo.findById(product.getId())).isEmpty());
+        assertTrue(inTransaction(() -> repo.findByIdGreaterThanOrderByIdAsc(after, Limit.of(10))).isEmpty());
+    }
+
+    private <T> T inTransaction(Supplier<T> action) {
+        return new TransactionTemplate(transactionManager).execute(status -> action.get());
+    }
+}
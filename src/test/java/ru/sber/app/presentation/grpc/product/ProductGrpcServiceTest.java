@@ -0,0 +1,193 @@
+package ru.sber.app.presentation.grpc.product;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import ru.sber.app.application.product.ProductBatchService;
+import ru.sber.app.application.product.ProductPriceBuffer;
+import ru.sber.app.application.product.ProductService;
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.infrastructure.config.ProductBatchProperties;
+import ru.sber.app.presentation.grpc.advice.GrpcExceptionInterceptor;
+import ru.sber.app.presentation.grpc.product.proto.ProductProto;
+import ru.sber.app.presentation.grpc.product.proto.ProductServiceGrpc;
+import ru.sber.app.presentation.web.controller.advice.ApiErrorResolver;
+import ru.sber.app.presentation.web.controller.product.dto.commands.ProductCommand;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductBatchResultQuery;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductBatchStatus;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Модульные тесты ProductGrpcService")
+public class ProductGrpcServiceTest {
+    ProductService productService = mock(ProductService.class);
+    ProductBatchService productBatchService = mock(ProductBatchService.class);
+    ProductPriceBuffer productPriceBuffer = mock(ProductPriceBuffer.class);
+    ProductBatchProperties batchProperties = new ProductBatchProperties();
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    Server server;
+    ManagedChannel channel;
+    ProductServiceGrpc.ProductServiceBlockingStub blockingStub;
+    ProductServiceGrpc.ProductServiceStub asyncStub;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name).directExecutor()
+                .addService(ServerInterceptors.intercept(
+                        new ProductGrpcService(productService, productBatchService, productPriceBuffer, batchProperties),
+                        new GrpcExceptionInterceptor(new ApiErrorResolver(meterRegistry))))
+                .build().start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        blockingStub = ProductServiceGrpc.newBlockingStub(channel);
+        asyncStub = ProductServiceGrpc.newStub(channel);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("getProduct вернет товар с ожидающей записи ценой, пустое описание не передается")
+    void getProduct_PendingPrice_ReturnsProductWithIt() {
+        //given
+        Product product = Product.builder().id(1).title("sofa").price(10F).version(2).build();
+
+        //when
+        when(productService.findById(1)).thenReturn(product);
+        when(productPriceBuffer.findPending(1)).thenReturn(12F);
+        ProductProto.Product result = blockingStub.getProduct(
+                ProductProto.GetProductRequest.newBuilder().setId(1).build());
+
+        //then
+        assertEquals(ProductProto.Product.newBuilder().setId(1).setTitle("sofa").setPrice(12F).setVersion(2).build(),
+                result);
+        assertFalse(result.hasDescription());
+    }
+
+    @Test
+    @DisplayName("ошибки сервиса вернутся кодами gRPC, соответствующими ответам ExceptionAdvice")
+    void errors_MappedLikeExceptionAdvice() {
+        //given
+        ProductProto.UpdateProductRequest update = ProductProto.UpdateProductRequest.newBuilder().setId(1)
+                .setCommand(ProductProto.ProductCommand.newBuilder().setTitle("sofa").setPrice(1F).setVersion(3))
+                .build();
+
+        //when
+        when(productService.findById(1)).thenThrow(new EntityNotFoundException("Продукт с id: 1 не найден"));
+        when(productService.update(eq(1), any())).thenThrow(new ObjectOptimisticLockingFailureException(Product.class, 1));
+        doThrow(new IllegalStateException("boom")).when(productService).delete(1);
+
+        //then
+        StatusRuntimeException notFound = Assertions.assertThrows(StatusRuntimeException.class,
+                () -> blockingStub.getProduct(ProductProto.GetProductRequest.newBuilder().setId(1).build()));
+        assertEquals(Status.Code.NOT_FOUND, notFound.getStatus().getCode());
+        assertEquals("Продукт с id: 1 не найден", notFound.getStatus().getDescription());
+        assertEquals(Status.Code.ABORTED, Assertions.assertThrows(StatusRuntimeException.class,
+                () -> blockingStub.updateProduct(update)).getStatus().getCode());
+        assertEquals(Status.Code.INTERNAL, Assertions.assertThrows(StatusRuntimeException.class,
+                () -> blockingStub.deleteProduct(ProductProto.DeleteProductRequest.newBuilder().setId(1).build()))
+                .getStatus().getCode());
+        verify(productService).update(1, new ProductCommand("sofa", null, 1F, 3));
+        assertEquals(1, meterRegistry.get(ApiErrorResolver.ERRORS_METRIC_NAME)
+                .tags("type", "business", "status", "404").counter().count());
+    }
+
+    @Test
+    @DisplayName("listProducts отдаст товары потоком страниц, читая следующую после отправки предыдущей")
+    void listProducts_SeveralPages_StreamsAllProducts() {
+        //given
+        Product sofa = Product.builder().id(1).title("sofa").price(1F).version(0).build();
+        Product chair = Product.builder().id(2).title("chair").price(2F).version(0).build();
+        Product table = Product.builder().id(3).title("table").price(3F).version(0).build();
+
+        //when
+        when(productService.findAll(null, 2)).thenReturn(new SliceImpl<>(List.of(sofa, chair), Pageable.ofSize(2), true));
+        when(productService.findAll(2, 2)).thenReturn(new SliceImpl<>(List.of(table), Pageable.ofSize(2), false));
+        List<List<Integer>> pages = new ArrayList<>();
+        blockingStub.listProducts(ProductProto.ListProductsRequest.newBuilder().setPageSize(2).build())
+                .forEachRemaining(page -> pages.add(page.getProductsList().stream()
+                        .map(ProductProto.Product::getId).toList()));
+
+        //then
+        assertEquals(List.of(List.of(1, 2), List.of(3)), pages);
+    }
+
+    @Test
+    @DisplayName("createProducts запишет поток команд частями и вернет результаты в порядке команд")
+    void createProducts_StreamLongerThanChunk_WritesInChunks() throws Exception {
+        //given
+        batchProperties.setChunkSize(2);
+        when(productBatchService.createAll(any())).thenAnswer(invocation -> {
+            Iterator<ProductCommand> commands = invocation.getArgument(0);
+            List<ProductBatchResultQuery> results = new ArrayList<>();
+            while (commands.hasNext()) {
+                ProductCommand command = commands.next();
+                results.add(command.getPrice() == null
+                        ? new ProductBatchResultQuery(results.size(), null, ProductBatchStatus.FAILED, "price")
+                        : new ProductBatchResultQuery(results.size(), command.getPrice().intValue(),
+                        ProductBatchStatus.CREATED, null));
+            }
+            return results;
+        });
+        CompletableFuture<ProductProto.CreateProductsResponse> response = new CompletableFuture<>();
+
+        //when
+        StreamObserver<ProductProto.ProductCommand> requests = asyncStub.createProducts(new StreamObserver<>() {
+            @Override
+            public void onNext(ProductProto.CreateProductsResponse value) {
+                response.complete(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                response.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+        requests.onNext(ProductProto.ProductCommand.newBuilder().setTitle("sofa").setPrice(10F).build());
+        requests.onNext(ProductProto.ProductCommand.newBuilder().setTitle("chair").setPrice(20F).build());
+        requests.onNext(ProductProto.ProductCommand.newBuilder().setTitle("table").build());
+        requests.onCompleted();
+
+        //then
+        List<ProductProto.ProductBatchResult> results = response.get(5, TimeUnit.SECONDS).getResultsList();
+        assertEquals(List.of(0, 1, 2), results.stream().map(ProductProto.ProductBatchResult::getIndex).toList());
+        assertEquals(List.of(10, 20), results.subList(0, 2).stream().map(ProductProto.ProductBatchResult::getId).toList());
+        assertEquals(ProductProto.ProductBatchResult.Status.FAILED, results.get(2).getStatus());
+        assertFalse(results.get(2).hasId());
+        verify(productBatchService, times(2)).createAll(any());
+    }
+}
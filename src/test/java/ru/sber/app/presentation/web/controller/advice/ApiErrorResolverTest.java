@@ -0,0 +1,54 @@
+package ru.sber.app.presentation.web.controller.advice;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import ru.sber.app.application.product.IdempotencyKeyReusedException;
+import ru.sber.app.application.product.event.ProductEventsPurgedException;
+
+import java.nio.file.AccessDeniedException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("Модульные тесты ApiErrorResolver")
+public class ApiErrorResolverTest {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    ApiErrorResolver resolver = new ApiErrorResolver(meterRegistry);
+
+    @Test
+    @DisplayName("Каждое исключение получит статус и тип ответа, одинаковые для REST и gRPC")
+    void resolve_Exceptions_MapsToStatusAndType() {
+        //when //then
+        assertEquals(HttpStatus.NOT_FOUND, resolver.resolve(new EntityNotFoundException("нет")).getStatus());
+        assertEquals(HttpStatus.BAD_REQUEST, resolver.resolve(new AccessDeniedException("/tmp/dump")).getStatus());
+        assertEquals(HttpStatus.BAD_REQUEST, resolver.resolve(new IllegalArgumentException("limit")).getStatus());
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY,
+                resolver.resolve(new IdempotencyKeyReusedException("ключ")).getStatus());
+        assertEquals(HttpStatus.GONE, resolver.resolve(new ProductEventsPurgedException("удалены")).getStatus());
+        ApiError unavailable = resolver.resolve(new CannotGetJdbcConnectionException("pool exhausted"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, unavailable.getStatus());
+        assertEquals("Сервис перегружен, повторите запрос позже", unavailable.getMessage());
+        ApiError system = resolver.resolve(new IllegalStateException("boom"));
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, system.getStatus());
+        assertEquals(ApiErrorType.SYSTEM, system.getType());
+    }
+
+    @Test
+    @DisplayName("Каждая ошибка увеличит счетчик api.errors с ее типом и статусом")
+    void resolve_Errors_CountsByTypeAndStatus() {
+        //when
+        ApiError notFound = resolver.resolve(new EntityNotFoundException("Продукт с id: 1 не найден"));
+        resolver.resolve(new EntityNotFoundException("Продукт с id: 2 не найден"));
+        resolver.resolve(new IllegalStateException("boom"));
+
+        //then
+        assertEquals(ApiErrorType.BUSINESS, notFound.getType());
+        assertEquals(2, meterRegistry.get(ApiErrorResolver.ERRORS_METRIC_NAME)
+                .tags("type", "business", "status", "404").counter().count());
+        assertEquals(1, meterRegistry.get(ApiErrorResolver.ERRORS_METRIC_NAME)
+                .tags("type", "system", "status", "500").counter().count());
+    }
+}
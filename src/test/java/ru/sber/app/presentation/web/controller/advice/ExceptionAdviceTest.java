@@ -0,0 +1,47 @@
+package ru.sber.app.presentation.web.controller.advice;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import ru.sber.app.infrastructure.admission.AdmissionRejectedException;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("Модульные тесты ExceptionAdvice")
+public class ExceptionAdviceTest {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    ExceptionAdvice advice = new ExceptionAdvice(new ApiErrorResolver(meterRegistry));
+
+    @Test
+    @DisplayName("ResponseStatusException вернет статус и причину из исключения")
+    void handleException_PreconditionFailed_Returns412() {
+        //when
+        var result = advice.handleException(
+                new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Продукт с id: 1 был изменен"));
+
+        //then
+        assertEquals(HttpStatus.PRECONDITION_FAILED, result.getStatusCode());
+        assertEquals("Продукт с id: 1 был изменен", result.getBody().getMessage());
+        assertEquals(ApiErrorType.BUSINESS, result.getBody().getType());
+    }
+
+    @Test
+    @DisplayName("Отклоненный из-за перегрузки запрос вернет статус, Retry-After в целых секундах и тип overload")
+    void handleAdmissionRejectedException_RateExceeded_Returns429() {
+        //when
+        var result = advice.handleAdmissionRejectedException(new AdmissionRejectedException(
+                HttpStatus.TOO_MANY_REQUESTS, Duration.ofMillis(1500), "Превышен лимит запросов"));
+
+        //then
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, result.getStatusCode());
+        assertEquals("2", result.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(ApiErrorType.OVERLOAD, result.getBody().getType());
+        assertEquals(1, meterRegistry.get(ApiErrorResolver.ERRORS_METRIC_NAME)
+                .tags("type", "overload", "status", "429").counter().count());
+    }
+}
@@ -1,38 +1,79 @@
 package ru.sber.app.presentation.web.controller.product;
 
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import ru.sber.app.application.product.ProductIdempotencyService;
+import ru.sber.app.application.product.ProductPriceBuffer;
 import ru.sber.app.application.product.ProductService;
 import ru.sber.app.application.product.mapper.ProductMapper;
 import ru.sber.app.domain.entity.Product;
 import ru.sber.app.infrastructure.repository.ProductRepository;
+import ru.sber.app.infrastructure.repository.ProductVersion;
 import ru.sber.app.presentation.web.controller.product.ProductController;
 import ru.sber.app.presentation.web.controller.product.dto.commands.ProductCommand;
+import ru.sber.app.presentation.web.controller.product.dto.commands.ProductPriceCommand;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductPageQuery;
 import ru.sber.app.presentation.web.controller.product.dto.queries.ProductQuery;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.notNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.*;
 
 
 @DisplayName("Модульные тесты ProductController")
 @ExtendWith(MockitoExtension.class)
-@SpringBootTest
+@SpringBootTest(properties = "app.grpc.port=0")
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
 public class ProductControllerTest {
     ProductMapper mapper = mock(ProductMapper.class);
     ProductRepository repo = mock(ProductRepository.class);
     ProductService service = mock(ProductService.class);
-    ProductController controller = new ProductController(service, mapper);
+    ProductPriceBuffer priceBuffer = mock(ProductPriceBuffer.class);
+    ProductIdempotencyService idempotencyService = mock(ProductIdempotencyService.class);
+    ProductController controller = new ProductController(service, mapper, new ObjectMapper(), priceBuffer,
+            idempotencyService);
+    MockHttpServletResponse response = new MockHttpServletResponse();
 
+    ServletWebRequest getRequest(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/product");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, response);
+    }
+
+    @BeforeEach
+    void setUp() {
+        // a mock answers 0 for Float, the tests below have no pending prices unless they say so
+        when(priceBuffer.findPending(any())).thenReturn(null);
+    }
 
 
     @Test
@@ -49,59 +90,199 @@ public class ProductControllerTest {
         when(repo.save(notNull())).thenReturn(product);
         when(service.create(command)).thenReturn(product);
         when(mapper.fromProductToQuery(product)).thenReturn(expected);
-        var result = this.controller.createProduct(command);
+        var result = this.controller.createProduct(command, null);
         //then
-        assertEquals(expected, result);
+        assertEquals(expected, result.getBody());
         verify(service).create(command);
         verify(mapper).fromProductToQuery(product);
         verifyNoMoreInteractions(service);
         verifyNoMoreInteractions(mapper);
     }
     @Test
-    @DisplayName("FindAll - найдет все товары в базе")
-    void findAll_RequestIsValid_ReturnsListProductQuery(){
+    @DisplayName("CreateProduct с Idempotency-Key вернет сохраненный ответ с ETag и признаком повтора")
+    void createProduct_IdempotencyKeyReplayed_ReturnsStoredResponse(){
+        //given
+        ProductCommand command = ProductCommand.builder().title("sofa").price(11.2F).build();
+        ProductQuery stored = ProductQuery.builder().id(7).title("sofa").price(11.2F).version(0).build();
+        Instant updatedAt = Instant.parse("2024-05-01T10:00:00Z");
+        when(idempotencyService.create("key-1", command))
+                .thenReturn(new ProductIdempotencyService.Result(stored, updatedAt, true));
+
+        //when
+        var result = controller.createProduct(command, "key-1");
+
+        //then
+        assertEquals(stored, result.getBody());
+        assertEquals(ProductETags.of(0), result.getHeaders().getETag());
+        assertEquals(updatedAt.toEpochMilli(), result.getHeaders().getLastModified());
+        assertEquals("true", result.getHeaders().getFirst(ProductController.IDEMPOTENT_REPLAYED));
+        verifyNoInteractions(service);
+    }
+    @Test
+    @DisplayName("FindAll - вернет страницу товаров и курсор следующей страницы")
+    void findAll_RequestIsValid_ReturnsProductPageQuery(){
         //given
         Product product1 = Product.builder().id(1).title("sofa").price(1F).description("new sofa").build();
-        Product product2 = Product.builder().id(1).title("chair").price(2F).description("new chair").build();
+        Product product2 = Product.builder().id(2).title("chair").price(2F).description("new chair").build();
         List<Product> products = List.of(product1, product2);
         ProductQuery query1 = ProductQuery.builder().id(1).title("sofa").price(1F).description("new sofa").build();
-        ProductQuery query2 = ProductQuery.builder().id(1).title("chair").price(2F).description("new chair").build();
+        ProductQuery query2 = ProductQuery.builder().id(2).title("chair").price(2F).description("new chair").build();
         List<ProductQuery> queries = List.of(query1, query2);
         //when
-        when(service.findAll()).thenReturn(products);
-        when(repo.findAll()).thenReturn(products);
+        when(service.findAll(null, 2)).thenReturn(new SliceImpl<>(products, Pageable.ofSize(2), true));
         when(mapper.fromProductsToQueries(products)).thenReturn(queries);
 
-        var result = controller.findAll();
+        var result = controller.findAll(null, 2, getRequest(null));
 
         //then
-        assertEquals(queries, result);
-        verify(service).findAll();
+        assertEquals(new ProductPageQuery(queries, 2), result);
+        assertEquals(200, response.getStatus());
+        verify(service).findAll(null, 2);
         verify(mapper).fromProductsToQueries(products);
         verifyNoMoreInteractions(service);
         verifyNoMoreInteractions(mapper);
     }
     @Test
+    @DisplayName("FindAll - страница не изменилась, вернет 304 без маппинга товаров")
+    void findAll_PageNotModified_Returns304WithoutMapping(){
+        //given
+        Product product = Product.builder().id(1).title("sofa").price(1F).description("new sofa").version(3).build();
+        when(service.findAll(null, 2)).thenReturn(new SliceImpl<>(List.of(product), Pageable.ofSize(2), false));
+        controller.findAll(null, 2, getRequest(null));
+        String eTag = response.getHeader(HttpHeaders.ETAG);
+        response = new MockHttpServletResponse();
+
+        //when
+        var result = controller.findAll(null, 2, getRequest(eTag));
+
+        //then
+        assertNull(result);
+        assertEquals(304, response.getStatus());
+        verify(mapper, times(1)).fromProductsToQueries(any());
+    }
+    @Test
+    @DisplayName("FindAll - после изменения товара ETag страницы изменится")
+    void findAll_ProductChanged_ChangesETag(){
+        //given
+        Product product = Product.builder().id(1).title("sofa").price(1F).description("new sofa").version(3).build();
+        Product changed = Product.builder().id(1).title("chair").price(1F).description("new sofa").version(4).build();
+        when(service.findAll(null, 2))
+                .thenReturn(new SliceImpl<>(List.of(product), Pageable.ofSize(2), false))
+                .thenReturn(new SliceImpl<>(List.of(changed), Pageable.ofSize(2), false));
+        controller.findAll(null, 2, getRequest(null));
+        String eTag = response.getHeader(HttpHeaders.ETAG);
+        response = new MockHttpServletResponse();
+
+        //when
+        controller.findAll(null, 2, getRequest(eTag));
+
+        //then
+        assertEquals(200, response.getStatus());
+        assertNotEquals(eTag, response.getHeader(HttpHeaders.ETAG));
+    }
+    @Test
     @DisplayName("findProductById найдет товар по id и вернет дто")
     void findProductById_RequestIsValid_ReturnsProductQuery(){
         Integer id = 1;
-        Product product = Product.builder().id(1).title("sofa").price(1F).description("new sofa").build();
+        Product product = Product.builder().id(1).title("sofa").price(1F).description("new sofa").version(2)
+                .updatedAt(Instant.parse("2024-05-01T10:00:00Z")).build();
         ProductQuery query = ProductQuery.builder().id(1).title("sofa").price(1F).description("new sofa").build();
         //given
 
         //when
         when(service.findById(id)).thenReturn(product);
         when(mapper.fromProductToQuery(product)).thenReturn(query);
-        var result = controller.findProductById(id);
+        var result = controller.findProductById(id, getRequest(null));
 
         //then
         assertEquals(query, result);
+        assertEquals("\"2\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals(Instant.parse("2024-05-01T10:00:00Z").toEpochMilli(), response.getDateHeader(HttpHeaders.LAST_MODIFIED));
         verify(service).findById(id);
         verify(mapper).fromProductToQuery(product);
         verifyNoMoreInteractions(service);
         verifyNoMoreInteractions(mapper);
     }
 
+    @Test
+    @DisplayName("findProductById версия товара совпала с If-None-Match, вернет 304 без загрузки товара")
+    void findProductById_NotModified_Returns304WithoutLoadingProduct(){
+        //given
+        Integer id = 1;
+
+        //when
+        when(service.findVersion(id)).thenReturn(new ProductVersion(2, Instant.parse("2024-05-01T10:00:00Z")));
+        var result = controller.findProductById(id, getRequest("\"2\""));
+
+        //then
+        assertNull(result);
+        assertEquals(304, response.getStatus());
+        verify(service).findVersion(id);
+        verifyNoMoreInteractions(service);
+        verifyNoInteractions(mapper);
+    }
+
+    @Test
+    @DisplayName("findProductById версия товара не совпала с If-None-Match, вернет ETag загруженного товара")
+    void findProductById_Modified_ReturnsETagOfLoadedProduct(){
+        //given
+        Integer id = 1;
+        // the product is written again between the version check and the load
+        Product product = Product.builder().id(1).title("sofa").price(1F).version(3)
+                .updatedAt(Instant.parse("2024-05-01T11:00:00Z")).build();
+        ProductQuery query = ProductQuery.builder().id(1).title("sofa").price(1F).version(3).build();
+
+        //when
+        when(service.findVersion(id)).thenReturn(new ProductVersion(2, Instant.parse("2024-05-01T10:00:00Z")));
+        when(service.findById(id)).thenReturn(product);
+        when(mapper.fromProductToQuery(product)).thenReturn(query);
+        var result = controller.findProductById(id, getRequest("\"1\""));
+
+        //then
+        assertEquals(query, result);
+        assertEquals(200, response.getStatus());
+        assertEquals(List.of("\"3\""), response.getHeaders(HttpHeaders.ETAG));
+        assertEquals(Instant.parse("2024-05-01T11:00:00Z").toEpochMilli(), response.getDateHeader(HttpHeaders.LAST_MODIFIED));
+    }
+
+    @Test
+    @DisplayName("findProductById с ожидающей записи ценой вернет ее вместо 304 и без ETag")
+    void findProductById_PendingPrice_ReturnsPendingPriceWithoutETag(){
+        //given
+        Integer id = 1;
+        Product product = Product.builder().id(1).title("sofa").price(1F).version(2).build();
+        ProductQuery query = ProductQuery.builder().id(1).title("sofa").price(1F).version(2).build();
+
+        //when
+        when(priceBuffer.findPending(id)).thenReturn(5F);
+        when(service.findById(id)).thenReturn(product);
+        when(mapper.fromProductToQuery(product)).thenReturn(query);
+        var result = controller.findProductById(id, getRequest("\"2\""));
+
+        //then
+        assertEquals(5F, result.getPrice());
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader(HttpHeaders.ETAG));
+        verify(service).findById(id);
+        verifyNoMoreInteractions(service);
+    }
+
+    @Test
+    @DisplayName("updatePrice передаст цену в буфер и вернет 202")
+    void updatePrice_RequestIsValid_ReturnsAccepted(){
+        //given
+        Integer id = 1;
+        ProductPriceCommand command = ProductPriceCommand.builder().price(5F).build();
+
+        //when
+        var result = controller.updatePrice(id, command);
+
+        //then
+        assertEquals(HttpStatus.ACCEPTED, result.getStatusCode());
+        verify(priceBuffer).put(id, 5F);
+        verifyNoInteractions(service);
+    }
+
     @Test
     @DisplayName("findProductById товар по id не найден будет выброшено исключение")
     void findProductById_NoSuchProduct_throwsException(){
@@ -114,7 +295,7 @@ public class ProductControllerTest {
 
         //then
         Assertions.assertThrows(EntityNotFoundException.class, () -> {
-            controller.findProductById(id);
+            controller.findProductById(id, getRequest(null));
         });
 
         verify(service).findById(id);
@@ -133,16 +314,66 @@ public class ProductControllerTest {
         //when
         when(service.update(id, command)).thenReturn(product);
         when(mapper.fromProductToQuery(product)).thenReturn(query);
-        var result = controller.updateProduct(id, command);
+        var result = controller.updateProduct(id, command, null);
 
         //then
-        assertEquals(query, result);
+        assertEquals(query, result.getBody());
         verify(service).update(id, command);
         verify(mapper).fromProductToQuery(product);
         verifyNoMoreInteractions(service);
         verifyNoMoreInteractions(mapper);
     }
 
+    @Test
+    @DisplayName("updateProduct с If-Match обновит товар ожидаемой версии и вернет новый ETag")
+    void updateProduct_IfMatch_UpdatesExpectedVersion(){
+        //given
+        Integer id = 1;
+        Product product = Product.builder().id(1).title("sofa").price(1F).description("new sofa").version(4).build();
+        ProductCommand command = ProductCommand.builder().description("new sofa").price(1F).title("sofa").build();
+
+        //when
+        when(service.update(id, command)).thenReturn(product);
+        var result = controller.updateProduct(id, command, "\"3\"");
+
+        //then
+        assertEquals(3, command.getVersion());
+        assertEquals("\"4\"", result.getHeaders().getETag());
+        verify(service).update(id, command);
+    }
+
+    @Test
+    @DisplayName("updateProduct товар изменен после версии из If-Match, будет выброшено исключение 412")
+    void updateProduct_IfMatchStale_ThrowsPreconditionFailed(){
+        //given
+        Integer id = 1;
+        ProductCommand command = ProductCommand.builder().description("new sofa").price(1F).title("sofa").build();
+
+        //when
+        when(service.update(id, command)).thenThrow(new ObjectOptimisticLockingFailureException(Product.class, id));
+
+        //then
+        ResponseStatusException exception = Assertions.assertThrows(ResponseStatusException.class, () -> {
+            controller.updateProduct(id, command, "\"3\"");
+        });
+        assertEquals(HttpStatus.PRECONDITION_FAILED, exception.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("updateProduct слабый ETag в If-Match не подходит для сравнения, будет выброшено исключение 412")
+    void updateProduct_IfMatchWeak_ThrowsPreconditionFailed(){
+        //given
+        Integer id = 1;
+        ProductCommand command = ProductCommand.builder().description("new sofa").price(1F).title("sofa").build();
+
+        //then
+        ResponseStatusException exception = Assertions.assertThrows(ResponseStatusException.class, () -> {
+            controller.updateProduct(id, command, "W/\"3\"");
+        });
+        assertEquals(HttpStatus.PRECONDITION_FAILED, exception.getStatusCode());
+        verifyNoInteractions(service);
+    }
+
     @Test
     @DisplayName("updateProduct товар с таким id не найден будет выброшено исключение")
     void updateProduct_NoSuchProduct_throwsException(){
@@ -155,7 +386,7 @@ public class ProductControllerTest {
 
         //then
         Assertions.assertThrows(EntityNotFoundException.class, () -> {
-            controller.updateProduct(id, command);
+            controller.updateProduct(id, command, null);
         });
 
         verify(service).update(id, command);
@@ -193,6 +424,27 @@ public class ProductControllerTest {
         verifyNoInteractions(mapper);
     }
 
+    @Test
+    @DisplayName("exportAll запишет каждый товар отдельной строкой в том же виде, что и ObjectMapper")
+    void exportAll_RequestIsValid_WritesNdjson() throws Exception {
+        //given
+        ObjectMapper objectMapper = new ObjectMapper();
+        ProductQuery sofa = new ProductQuery(1, "sofa \"deluxe\"", "new sofa", 11.2F, 3);
+        ProductQuery chair = new ProductQuery(2, "chair", null, null, null);
+        doAnswer(invocation -> {
+            Consumer<ProductQuery> consumer = invocation.getArgument(0);
+            consumer.accept(sofa);
+            consumer.accept(chair);
+            return null;
+        }).when(service).exportAll(any());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
 
+        //when
+        controller.exportAll(null).getBody().writeTo(output);
 
+        //then
+        assertEquals(objectMapper.writeValueAsString(sofa) + "\n" + objectMapper.writeValueAsString(chair) + "\n",
+                output.toString(StandardCharsets.UTF_8));
+        verifyNoInteractions(mapper);
+    }
 }
@@ -0,0 +1,135 @@
+package ru.sber.app.presentation.web.controller.product;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import ru.sber.app.application.product.event.ProductEventFeed;
+import ru.sber.app.application.product.event.ProductEventSubscription;
+import ru.sber.app.application.product.mapper.ProductMapper;
+import ru.sber.app.domain.event.ProductEvent;
+import ru.sber.app.domain.event.ProductEventType;
+import ru.sber.app.infrastructure.config.ProductEventProperties;
+import ru.sber.app.presentation.web.controller.product.dto.commands.ProductEventOffsetCommand;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductEventOffsetQuery;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductEventPageQuery;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductEventQuery;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Модульные тесты ProductEventController")
+public class ProductEventControllerTest {
+    ProductEventFeed feed = mock(ProductEventFeed.class);
+    ProductMapper mapper = mock(ProductMapper.class);
+    ProductEventController controller = new ProductEventController(feed, mapper, new ProductEventProperties());
+
+    @Test
+    @DisplayName("poll сразу вернет доступные события и позицию для следующего запроса")
+    void poll_EventsAvailable_ReturnsAtOnce() {
+        //given
+        ProductEvent event = new ProductEvent(5L, 9L, 1, ProductEventType.UPDATED, 2, "{}", Instant.EPOCH);
+        List<ProductEventQuery> queries = List.of(ProductEventQuery.builder().seq(5L).build());
+
+        //when
+        when(feed.startPosition(4L, null)).thenReturn(4L);
+        when(feed.findAfter(4, 100)).thenReturn(List.of(event));
+        when(mapper.fromEventsToQueries(List.of(event))).thenReturn(queries);
+        var result = controller.poll(4L, null, 100, 30);
+
+        //then
+        assertEquals(new ProductEventPageQuery(queries, 5L), result.getResult());
+        verify(feed, never()).subscribe(any());
+    }
+
+    @Test
+    @DisplayName("poll без событий подпишется на поток и ответит при первой доставке")
+    void poll_NoEvents_WaitsForDelivery() {
+        //given
+        ProductEvent event = new ProductEvent(5L, 9L, 1, ProductEventType.UPDATED, 2, "{}", Instant.EPOCH);
+
+        //when
+        when(feed.startPosition(null, "search")).thenReturn(4L);
+        when(feed.findAfter(4, 100)).thenReturn(List.of());
+        when(mapper.fromEventsToQueries(List.of(event))).thenReturn(List.of());
+        var result = controller.poll(null, "search", 100, 30);
+
+        //then
+        assertFalse(result.hasResult());
+        var subscription = ArgumentCaptor.forClass(ProductEventSubscription.class);
+        verify(feed).subscribe(subscription.capture());
+        assertEquals(4, subscription.getValue().after());
+        assertFalse(subscription.getValue().deliver(List.of(event)));
+        assertEquals(new ProductEventPageQuery(List.of(), 5L), result.getResult());
+    }
+
+    @Test
+    @DisplayName("stream не отключит клиента при всплеске после простоя, но отключит, если очередь простоит полной")
+    void stream_BurstAfterIdle_DropsOnlyStalledClient() throws InterruptedException {
+        //given
+        ProductEventProperties properties = new ProductEventProperties();
+        properties.setStreamBuffer(1);
+        properties.setStreamStallTimeout(Duration.ofMillis(500));
+        ProductEventController controller = new ProductEventController(feed, mapper, properties);
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(mapper.fromEventToQuery(any())).thenAnswer(invocation -> {
+            // the client reads the first page slowly
+            sending.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return ProductEventQuery.builder().build();
+        });
+        when(feed.startPosition(4L, null)).thenReturn(4L);
+        var emitter = controller.stream(4L, null, 100, null);
+        var captor = ArgumentCaptor.forClass(ProductEventSubscription.class);
+        verify(feed).subscribe(captor.capture());
+        ProductEventSubscription subscription = captor.getValue();
+
+        try {
+            //when
+            Thread.sleep(700);
+            assertTrue(subscription.deliver(List.of(event(5))));
+            assertTrue(sending.await(5, TimeUnit.SECONDS));
+            assertTrue(subscription.deliver(List.of(event(6))));
+            boolean readyWhenFull = subscription.isReady();
+            verify(feed, never()).unsubscribe(subscription);
+            Thread.sleep(700);
+            boolean readyWhenStalled = subscription.isReady();
+
+            //then
+            assertFalse(readyWhenFull);
+            assertFalse(readyWhenStalled);
+            verify(feed).unsubscribe(subscription);
+        } finally {
+            release.countDown();
+            emitter.complete();
+        }
+    }
+
+    @Test
+    @DisplayName("commitOffset сохранит смещение, без seq и с неверным timeout будет выброшено исключение")
+    void commitOffset_RequestIsValid_ReturnsOffset() {
+        //when
+        when(feed.commitOffset("search", 5)).thenReturn(7L);
+
+        //then
+        assertEquals(new ProductEventOffsetQuery("search", 7L),
+                controller.commitOffset("search", new ProductEventOffsetCommand(5L)));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> controller.commitOffset("search", new ProductEventOffsetCommand()));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> controller.poll(null, null, 100, 61));
+    }
+
+    private static ProductEvent event(long seq) {
+        return new ProductEvent(seq, seq, 1, ProductEventType.UPDATED, 2, "{}", Instant.EPOCH);
+    }
+}
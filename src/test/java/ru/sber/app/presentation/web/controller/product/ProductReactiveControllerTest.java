@@ -0,0 +1,61 @@
+package ru.sber.app.presentation.web.controller.product;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.sber.app.application.product.ProductReactiveService;
+import ru.sber.app.application.product.mapper.ProductMapper;
+import ru.sber.app.domain.entity.Product;
+import ru.sber.app.presentation.web.controller.advice.ApiErrorResolver;
+import ru.sber.app.presentation.web.controller.advice.ExceptionAdvice;
+import ru.sber.app.presentation.web.controller.product.dto.queries.ProductQuery;
+
+import static org.mockito.Mockito.*;
+
+@DisplayName("Модульные тесты ProductReactiveController")
+public class ProductReactiveControllerTest {
+    ProductMapper mapper = mock(ProductMapper.class);
+    ProductReactiveService service = mock(ProductReactiveService.class);
+    WebTestClient client = WebTestClient.bindToController(new ProductReactiveController(service, mapper))
+            .controllerAdvice(new ExceptionAdvice(new ApiErrorResolver(new SimpleMeterRegistry())))
+            .build();
+
+    @Test
+    @DisplayName("FindProductById отсутствующего товара вернет 404 от ExceptionAdvice")
+    void findProductById_ProductNotFound_ReturnsNotFound() {
+        //given
+        when(service.findById(1)).thenReturn(Mono.error(new EntityNotFoundException("Продукт с id: 1 не найден")));
+
+        //when
+        //then
+        client.get().uri("/api/v1/product/1").exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Продукт с id: 1 не найден")
+                .jsonPath("$.type").isEqualTo("business");
+    }
+
+    @Test
+    @DisplayName("ExportAll вернет товары построчно в NDJSON")
+    void exportAll_RequestIsValid_ReturnsNdjson() {
+        //given
+        Product product1 = Product.builder().id(1).title("sofa").build();
+        Product product2 = Product.builder().id(2).title("chair").build();
+        when(service.exportAll()).thenReturn(Flux.just(product1, product2));
+        when(mapper.fromProductToQuery(product1)).thenReturn(ProductQuery.builder().id(1).title("sofa").build());
+        when(mapper.fromProductToQuery(product2)).thenReturn(ProductQuery.builder().id(2).title("chair").build());
+
+        //when
+        //then
+        client.get().uri("/api/v1/product/export").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isEqualTo(HttpStatus.OK)
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(ProductQuery.class).hasSize(2);
+    }
+}
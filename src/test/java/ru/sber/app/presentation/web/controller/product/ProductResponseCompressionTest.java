@@ -0,0 +1,126 @@
+package ru.sber.app.presentation.web.controller.product;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Интеграционные тесты сжатия, HTTP/2 и выбора полей ответов ProductController")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "app.grpc.port=0")
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ProductResponseCompressionTest {
+    private static final int ROWS = 200;
+
+    @LocalServerPort
+    int port;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build();
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("""
+                insert into products (title, description, price)
+                select 'product ' || i, 'description of product ' || i, i + 0.5
+                from generate_series(1, ?) as i""", ROWS);
+    }
+
+    HttpResponse<byte[]> get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Accept-Encoding", "gzip")
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    static String gunzip(byte[] body) throws IOException {
+        try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    @DisplayName("Страница товаров придет по h2c сжатой gzip со слабым ETag")
+    void findAll_ClientAcceptsGzip_ReturnsCompressedPageOverHttp2() throws Exception {
+        //when
+        HttpResponse<byte[]> response = get("/api/v1/product?limit=100");
+
+        //then
+        assertEquals(200, response.statusCode());
+        assertEquals(HttpClient.Version.HTTP_2, response.version());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+        assertTrue(response.headers().firstValue("ETag").orElseThrow().startsWith("W/\""));
+        String json = gunzip(response.body());
+        assertTrue(response.body().length * 3 < json.length());
+        assertEquals(100, objectMapper.readTree(json).get("items").size());
+    }
+
+    @Test
+    @DisplayName("С параметром fields в товарах страницы будут только выбранные поля")
+    void findAll_FieldsSelected_WritesOnlyThem() throws Exception {
+        //when
+        HttpResponse<byte[]> response = get("/api/v1/product?limit=5&fields=id,title,price");
+
+        //then
+        assertEquals(200, response.statusCode());
+        JsonNode page = objectMapper.readTree(response.headers().firstValue("Content-Encoding").isPresent()
+                ? gunzip(response.body()) : new String(response.body(), StandardCharsets.UTF_8));
+        for (JsonNode item : page.get("items")) {
+            List<String> names = new ArrayList<>();
+            item.fieldNames().forEachRemaining(names::add);
+            assertEquals(List.of("id", "title", "price"), names);
+        }
+        assertTrue(page.has("nextCursor"));
+    }
+
+    @Test
+    @DisplayName("Неизвестное поле в параметре fields вернет 400")
+    void findAll_UnknownField_Returns400() throws Exception {
+        //when
+        HttpResponse<byte[]> response = get("/api/v1/product?fields=id,weight");
+
+        //then
+        assertEquals(400, response.statusCode());
+    }
+
+    @Test
+    @DisplayName("Выгрузка сжимается gzip по мере записи и пишет только выбранные поля")
+    void exportAll_ClientAcceptsGzip_StreamsCompressedSelectedFields() throws Exception {
+        //when
+        HttpResponse<byte[]> response = get("/api/v1/product/export?fields=id,title");
+
+        //then
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+        assertEquals("application/x-ndjson", response.headers().firstValue("Content-Type").orElse(null));
+        List<String> lines = gunzip(response.body()).lines().toList();
+        assertEquals(ROWS, lines.size());
+        assertEquals(List.of("id", "title"), new ArrayList<>(objectMapper.readValue(lines.get(0), Map.class).keySet()));
+    }
+}
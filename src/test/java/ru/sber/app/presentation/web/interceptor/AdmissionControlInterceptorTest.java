@@ -0,0 +1,92 @@
+package ru.sber.app.presentation.web.interceptor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ru.sber.app.infrastructure.admission.AdaptiveConcurrencyLimit;
+import ru.sber.app.infrastructure.admission.AdmissionRejectedException;
+import ru.sber.app.infrastructure.admission.TokenBuckets;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Модульные тесты AdmissionControlInterceptor")
+public class AdmissionControlInterceptorTest {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    AdmissionControlInterceptor interceptor = new AdmissionControlInterceptor(
+            new AdmissionControlInterceptor.Budget("read", new TokenBuckets(1, 2),
+                    new AdaptiveConcurrencyLimit(1, 1, 1, Duration.ofSeconds(1), 0.9)),
+            new AdmissionControlInterceptor.Budget("write", new TokenBuckets(0, 0),
+                    new AdaptiveConcurrencyLimit(1, 1, 1, Duration.ofSeconds(1), 0.9)),
+            "X-Client-Id", meterRegistry);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    @DisplayName("Клиент, исчерпавший свои токены, получит 429, другие клиенты - нет")
+    void preHandle_RateExceeded_Rejects429() {
+        //given
+        MockHttpServletRequest first = request("GET", "shop");
+        MockHttpServletRequest second = request("GET", "shop");
+
+        //when
+        interceptor.preHandle(first, response, new Object());
+        interceptor.afterCompletion(first, response, new Object(), null);
+        interceptor.preHandle(second, response, new Object());
+        interceptor.afterCompletion(second, response, new Object(), null);
+        AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class,
+                () -> interceptor.preHandle(request("GET", "shop"), response, new Object()));
+
+        //then
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getStatus());
+        assertTrue(rejected.getRetryAfter().compareTo(Duration.ZERO) > 0);
+        assertTrue(interceptor.preHandle(request("GET", "mobile"), response, new Object()));
+        assertEquals(1, meterRegistry.get(AdmissionControlInterceptor.REJECTED_METRIC_NAME)
+                .tags("budget", "read", "reason", "rate").counter().count());
+    }
+
+    @Test
+    @DisplayName("Сверх лимита параллельных запросов вернется 503, запись при этом идет по своему бюджету")
+    void preHandle_ConcurrencyLimitReached_Rejects503() {
+        //given
+        MockHttpServletRequest read = request("GET", "shop");
+        MockHttpServletRequest write = request("POST", "shop");
+        interceptor.preHandle(read, response, new Object());
+
+        //when
+        AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class,
+                () -> interceptor.preHandle(request("GET", "mobile"), response, new Object()));
+        boolean writeAdmitted = interceptor.preHandle(write, response, new Object());
+        interceptor.afterCompletion(read, response, new Object(), null);
+
+        //then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatus());
+        assertTrue(writeAdmitted);
+        assertEquals(0, interceptor.getRead().limit().getInFlight());
+        assertEquals(1, interceptor.getWrite().limit().getInFlight());
+    }
+
+    @Test
+    @DisplayName("Асинхронный запрос освободит место в лимите, как только обработчик вернет управление")
+    void afterConcurrentHandlingStarted_AsyncRequest_ReleasesLimit() {
+        //given
+        MockHttpServletRequest poll = request("GET", "shop");
+        interceptor.preHandle(poll, response, new Object());
+
+        //when
+        interceptor.afterConcurrentHandlingStarted(poll, response, new Object());
+        interceptor.afterCompletion(poll, response, new Object(), null);
+
+        //then
+        assertEquals(0, interceptor.getRead().limit().getInFlight());
+    }
+
+    private static MockHttpServletRequest request(String method, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/v1/product/1");
+        request.addHeader("X-Client-Id", client);
+        return request;
+    }
+}
@@ -0,0 +1,73 @@
+package ru.sber.app.presentation.web.interceptor;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ru.sber.app.infrastructure.jdbc.ReadYourWrites;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Модульные тесты ReadYourWritesInterceptor")
+public class ReadYourWritesInterceptorTest {
+    ReadYourWritesInterceptor interceptor = new ReadYourWritesInterceptor(Duration.ofSeconds(5));
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.clear();
+    }
+
+    @Test
+    @DisplayName("Запись выполнится на основной базе и выставит cookie с концом окна чтения из нее")
+    void preHandle_Write_RequiresPrimaryAndSetsCookie() {
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/v1/product/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        long now = System.currentTimeMillis();
+
+        //when
+        interceptor.preHandle(request, response, new Object());
+        boolean primaryRequired = ReadYourWrites.isPrimaryRequired();
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        //then
+        assertTrue(primaryRequired);
+        assertFalse(ReadYourWrites.isPrimaryRequired());
+        Cookie cookie = response.getCookie(ReadYourWritesInterceptor.COOKIE_NAME);
+        assertNotNull(cookie);
+        assertEquals(5, cookie.getMaxAge());
+        assertTrue(Long.parseLong(cookie.getValue()) >= now + 5000);
+    }
+
+    @Test
+    @DisplayName("Чтение с действующей cookie пойдет в основную базу, с истекшей или поддельной - в реплику")
+    void preHandle_Read_RequiresPrimaryWithinWindowOnly() {
+        //given
+        long now = System.currentTimeMillis();
+
+        //when
+        //then
+        assertTrue(primaryRequired(String.valueOf(now + 3000)));
+        assertFalse(primaryRequired(String.valueOf(now - 1)));
+        assertFalse(primaryRequired(String.valueOf(now + 3_600_000)));
+        assertFalse(primaryRequired("garbage"));
+        assertFalse(primaryRequired(null));
+    }
+
+    private boolean primaryRequired(String cookieValue) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/product/1");
+        if (cookieValue != null) {
+            request.setCookies(new Cookie(ReadYourWritesInterceptor.COOKIE_NAME, cookieValue));
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, new Object());
+        boolean primaryRequired = ReadYourWrites.isPrimaryRequired();
+        interceptor.afterCompletion(request, response, new Object(), null);
+        assertNull(response.getCookie(ReadYourWritesInterceptor.COOKIE_NAME));
+        return primaryRequired;
+    }
+}
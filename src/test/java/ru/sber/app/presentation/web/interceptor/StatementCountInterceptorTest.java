@@ -0,0 +1,42 @@
+package ru.sber.app.presentation.web.interceptor;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.sber.app.infrastructure.jdbc.StatementCountInspector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("Модульные тесты StatementCountInterceptor")
+public class StatementCountInterceptorTest {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    StatementCountInspector inspector = new StatementCountInspector();
+    StatementCountInterceptor interceptor = new StatementCountInterceptor(inspector, meterRegistry);
+
+    @Test
+    @DisplayName("Запрос запишет число SQL-запросов, выполненных во время его обработки, с шаблоном URI")
+    void afterCompletion_StatementsExecuted_RecordsCountPerUri() {
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/product/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/product/{id}");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        inspector.inspect("select * from products");
+
+        //when
+        interceptor.preHandle(request, response, new Object());
+        inspector.inspect("select * from products where id = ?");
+        inspector.inspect("select * from products where id = ?");
+        interceptor.afterCompletion(request, response, new Object(), null);
+        inspector.inspect("select * from products");
+
+        //then
+        DistributionSummary statements = meterRegistry.get(StatementCountInterceptor.METRIC_NAME)
+                .tags("method", "GET", "uri", "/api/v1/product/{id}").summary();
+        assertEquals(1, statements.count());
+        assertEquals(2, statements.totalAmount());
+    }
+}